@@ -0,0 +1,86 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands;
+
+import dev.galactic.star.commands.annotations.*;
+import dev.galactic.star.commands.managers.CommandMetrics;
+import dev.galactic.star.commands.managers.LatencyHistogram;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The admin command that prints the commands that took the most time on the calling thread. The time async handlers
+ * take to complete isn't part of it and is shown as the async p99.
+ *
+ * @see Register#registerMetricsCommand()
+ */
+@Command(value = "starmetrics", desc = "Shows the most expensive commands.", usage = "/starmetrics [amount]")
+@Permission("starcommands.metrics")
+public class MetricsCommand {
+	private final Register register;
+
+	/**
+	 * Creates the command.
+	 *
+	 * @param register The Register whose metrics are shown.
+	 */
+	public MetricsCommand(Register register) {
+		this.register = register;
+	}
+
+	/**
+	 * Prints the top commands by total time.
+	 *
+	 * @param sender CommandSender.
+	 * @param amount Amount of commands to show, 10 by default.
+	 */
+	@Default(usage = "/starmetrics [amount]")
+	@TabCompletion(".range(1-51)")
+	public void top(CommandSender sender, @OptionalArgs Integer amount) {
+		List<CommandMetrics.Snapshot> snapshots = new ArrayList<>();
+		for (CommandMetrics.Snapshot snapshot : this.register.getMetricsSnapshot().values()) {
+			snapshots.add(snapshot);
+			snapshots.addAll(snapshot.getSubCommands().values());
+		}
+		snapshots.sort(Comparator.comparingLong(
+				(CommandMetrics.Snapshot snapshot) -> snapshot.getLatency().getTotalNanos()).reversed());
+		int limit = Math.min(snapshots.size(), amount == null ? 10 : Math.max(0, amount));
+		sender.sendMessage(ChatColor.GOLD + "Top " + limit + " commands by total time:");
+		for (int i = 0; i < limit; i++) {
+			CommandMetrics.Snapshot snapshot = snapshots.get(i);
+			LatencyHistogram.Snapshot latency = snapshot.getLatency();
+			sender.sendMessage(String.format(
+					"%s%d. %s%s %s- calls: %d, mean: %.2fms, p99: %.2fms, max: %.2fms, denied: %d, usage: %d, " +
+							"cooldown: %d, rate limited: %d, async p99: %.2fms, tab p99: %.2fms",
+					ChatColor.GRAY, i + 1, ChatColor.YELLOW, snapshot.getName(), ChatColor.GRAY,
+					snapshot.getInvocations(), toMs(latency.getMeanNanos()), toMs(latency.getPercentileNanos(99)),
+					toMs(latency.getMaxNanos()), snapshot.getDenied(), snapshot.getUsageErrors(),
+					snapshot.getCooldownRejections(), snapshot.getRateLimited(),
+					toMs(snapshot.getAsyncLatency().getPercentileNanos(99)),
+					toMs(snapshot.getTabCompleteLatency().getPercentileNanos(99))
+			));
+		}
+	}
+
+	private static double toMs(long nanos) {
+		return nanos / 1_000_000D;
+	}
+}
@@ -22,42 +22,82 @@ import dev.galactic.star.commands.exceptions.AnnotationNotFoundException;
 import dev.galactic.star.commands.exceptions.DuplicateDefaultAnnotationException;
 import dev.galactic.star.commands.exceptions.DuplicateOptionalArgsAnnotationException;
 import dev.galactic.star.commands.exceptions.IllegalOptionalArgsAnnotationException;
+import dev.galactic.star.commands.graph.HandlerDispatcher;
 import dev.galactic.star.commands.managers.AbstractCommand;
+import dev.galactic.star.commands.managers.ArgumentParsers;
+import dev.galactic.star.commands.managers.AsyncCommandDispatcher;
+import dev.galactic.star.commands.managers.CachedCompletionProvider;
+import dev.galactic.star.commands.managers.CommandMetrics;
+import dev.galactic.star.commands.managers.CompletionProvider;
+import dev.galactic.star.commands.managers.CompletionRegistry;
 import dev.galactic.star.commands.managers.CooldownManager;
+import dev.galactic.star.commands.managers.PermissionCache;
+import dev.galactic.star.commands.managers.RateLimiter;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.SimpleCommandMap;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.plugin.PluginBase;
 import org.bukkit.plugin.SimplePluginManager;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Register {
 	/**
-	 * Custom tab completing options.
+	 * Custom tab completing options registered through {@link #registerCustomOptions(String, List)}.
+	 *
+	 * @deprecated Every Register keeps its own options, see {@link #getCompletionRegistry()}. This map is only filled
+	 * for the code still reading it, changing it has no effect.
 	 */
+	@Deprecated
 	public static final HashMap<String, List<String>> customOptions = new HashMap<>();
 	/**
-	 * The config where the list of options can be.
+	 * The config of the last Register that loaded one.
+	 *
+	 * @deprecated Every Register reads the config of its own plugin. This field is only set for the code still reading
+	 * it, changing it has no effect.
 	 */
+	@Deprecated
 	public static FileConfiguration config;
-	private static SimpleCommandMap commandMap;
+	private static final long COOLDOWN_SYNC_TICKS = 100L;
+	private static final long RATE_LIMIT_SWEEP_TICKS = 1200L;
+	private static final long PERMISSION_CACHE_SECONDS = 5L;
 	private final PluginBase plugin;
-	private final CooldownManager manager = new CooldownManager();
+	private final CompletionRegistry completions = new CompletionRegistry();
+	private final CooldownManager manager;
+	private final AsyncCommandDispatcher dispatcher = new AsyncCommandDispatcher(4, 64);
+	private final Queue<Runnable> syncTasks = new ConcurrentLinkedQueue<>();
+	private final ConcurrentHashMap<String, CommandMetrics> metrics = new ConcurrentHashMap<>();
+	private final ArgumentParsers argumentParsers = new ArgumentParsers(this.completions);
+	private final PermissionCache permissionCache = new PermissionCache(PERMISSION_CACHE_SECONDS, TimeUnit.SECONDS);
+	private final RateLimiter rateLimiter = new RateLimiter(this.permissionCache);
 	private SimplePluginManager pluginManager;
+	private SimpleCommandMap commandMap;
+	private FileConfiguration loadedConfig;
 
 	public Register(PluginBase examplePlugin) {
-		customOptions.clear();
 		this.plugin = examplePlugin;
+		this.manager = new CooldownManager(examplePlugin.getLogger());
 		this.setCommandMap();
+		this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this.manager::tick, 1L, 1L);
+		this.plugin.getServer().getScheduler().runTaskTimerAsynchronously(this.plugin, this.manager::synchronize,
+				COOLDOWN_SYNC_TICKS, COOLDOWN_SYNC_TICKS);
+		this.plugin.getServer().getScheduler().runTaskTimerAsynchronously(this.plugin, this.rateLimiter::sweep,
+				RATE_LIMIT_SWEEP_TICKS, RATE_LIMIT_SWEEP_TICKS);
+		this.plugin.getServer().getPluginManager().registerEvents(this.permissionCache, this.plugin);
 	}
 
 	/**
@@ -87,10 +127,12 @@ public class Register {
 	}
 
 	/**
-	 * Resets the config.
+	 * Resets the config, dropping the cached lists of the config completions.
 	 */
 	public void reloadConfig() {
-		config = this.plugin.getConfig();
+		this.loadedConfig = this.plugin.getConfig();
+		this.completions.getConfigCompletions().reload(this.loadedConfig);
+		config = this.loadedConfig;
 	}
 
 	/**
@@ -100,9 +142,57 @@ public class Register {
 	 * @param tabCompletions List&lt;String&gt; of the options.
 	 */
 	public void registerCustomOptions(String id, List<String> tabCompletions) {
+		this.completions.registerOptions(id, tabCompletions);
 		customOptions.put(id, tabCompletions);
 	}
 
+	/**
+	 * Register a provider that completes the custom ID each time the sender tab completes.
+	 *
+	 * @param id       ID of the tab completion.
+	 * @param provider CompletionProvider of the options.
+	 */
+	public void registerCompletionProvider(String id, CompletionProvider provider) {
+		this.completions.registerProvider(id, provider);
+	}
+
+	/**
+	 * Register a provider whose results are cached and, if async, looked up off the main thread.
+	 *
+	 * @param id       ID of the tab completion.
+	 * @param provider CompletionProvider of the options.
+	 * @param ttl      How long a result stays cached.
+	 * @param unit     TimeUnit of the ttl.
+	 * @param async    Whether to run the provider asynchronously. A lookup is waited for up to
+	 *                 {@value CachedCompletionProvider#DEFAULT_TIMEOUT_MILLIS} milliseconds, after that the expired
+	 *                 result is offered, or nothing the first time.
+	 * @see CachedCompletionProvider
+	 */
+	public void registerCompletionProvider(String id, CompletionProvider provider, long ttl, TimeUnit unit,
+	                                       boolean async) {
+		this.completions.registerProvider(id, new CachedCompletionProvider(provider, ttl, unit, async,
+				this.plugin.getLogger()));
+	}
+
+	/**
+	 * Register a provider whose results are cached and, if async, looked up off the main thread.
+	 *
+	 * @param id            ID of the tab completion.
+	 * @param provider      CompletionProvider of the options.
+	 * @param ttl           How long a result stays cached.
+	 * @param unit          TimeUnit of the ttl.
+	 * @param async         Whether to run the provider asynchronously.
+	 * @param timeoutMillis How long a lookup is waited for, after that the expired result is offered, or nothing the
+	 *                      first time.
+	 * @param perSender     Whether the results are cached per sender, for options that depend on who is typing.
+	 * @see CachedCompletionProvider
+	 */
+	public void registerCompletionProvider(String id, CompletionProvider provider, long ttl, TimeUnit unit,
+	                                       boolean async, long timeoutMillis, boolean perSender) {
+		this.completions.registerProvider(id, new CachedCompletionProvider(provider, ttl, unit, async,
+				timeoutMillis, perSender, this.plugin.getLogger()));
+	}
+
 	/**
 	 * Register Annotation commands.
 	 *
@@ -110,34 +200,60 @@ public class Register {
 	 * @param objects    Array of the Command classes.
 	 */
 	public void register(boolean unregister, Object... objects) {
-		config = this.plugin.getConfig();
-		setCommandMap();
-		for (Object o : objects) {
-			Class<?> c = o.getClass();
-			Command cmd = this.getCommand(c);
-			try {
-				if (c.getDeclaredAnnotationsByType(Default.class).length > 1) {
-					throw new DuplicateDefaultAnnotationException();
-				} else if (Arrays.stream(c.getMethods())
-						.anyMatch(e -> e.getDeclaredAnnotationsByType(OptionalArgs.class).length > 1)) {
-					throw new IllegalOptionalArgsAnnotationException(
-							"You can only have one @OptionalArgs annotation in a method at a time.");
+		this.register(unregister, false, objects);
+	}
 
-				}
-			} catch (IllegalOptionalArgsAnnotationException | DuplicateDefaultAnnotationException e) {
-				throw new RuntimeException(e);
-			}
+	/**
+	 * Register Annotation commands in one pass over the command map, logging how long it took at the FINE level.
+	 *
+	 * @param unregister Whether to unregister the non-custom commands with the same name as the custom ones.
+	 * @param parallel   Whether to compile the commands on multiple threads, worth it for many commands.
+	 * @param objects    Array of the Command classes.
+	 */
+	public void register(boolean unregister, boolean parallel, Object... objects) {
+		long start = System.nanoTime();
+		if (this.loadedConfig != this.plugin.getConfig()) {
+			this.reloadConfig();
+		}
+		Stream<Object> stream = parallel ? Arrays.stream(objects).parallel() : Arrays.stream(objects);
+		List<AbstractCommand> commands = stream.map(this::compile).collect(Collectors.toList());
+		long compiled = System.nanoTime();
+		SimpleCommandMap map = this.getCommandMap();
+		for (AbstractCommand command : commands) {
 			if (unregister) {
-				org.bukkit.command.Command command = commandMap.getCommand(cmd.value());
-				if (command != null) {
-					command.unregister(commandMap);
+				org.bukkit.command.Command existing = map.getCommand(command.getName());
+				if (existing != null) {
+					existing.unregister(map);
 				}
 			}
-			org.bukkit.command.Command abstractCommand = new AbstractCommand(this.manager, this, cmd,
-					this.getClassPermission(c), o
-			);
-			commandMap.register(cmd.value(), abstractCommand);
+			map.register(command.getName(), command);
 		}
+		long end = System.nanoTime();
+		Logger logger = this.plugin.getLogger();
+		if (!logger.isLoggable(Level.FINE)) {
+			return;
+		}
+		logger.fine(String.format("Registered %d commands in %.2fms (compiling %.2fms, " +
+						"registering %.2fms).", commands.size(), (end - start) / 1e6, (compiled - start) / 1e6,
+				(end - compiled) / 1e6));
+	}
+
+	private AbstractCommand compile(Object o) {
+		Class<?> c = o.getClass();
+		Command cmd = this.getCommand(c);
+		try {
+			if (c.getDeclaredAnnotationsByType(Default.class).length > 1) {
+				throw new DuplicateDefaultAnnotationException();
+			} else if (Arrays.stream(c.getMethods())
+					.anyMatch(e -> e.getDeclaredAnnotationsByType(OptionalArgs.class).length > 1)) {
+				throw new IllegalOptionalArgsAnnotationException(
+						"You can only have one @OptionalArgs annotation in a method at a time.");
+
+			}
+		} catch (IllegalOptionalArgsAnnotationException | DuplicateDefaultAnnotationException e) {
+			throw new RuntimeException(e);
+		}
+		return new AbstractCommand(this.manager, this, cmd, this.getClassPermission(c), o);
 	}
 
 	/**
@@ -150,8 +266,179 @@ public class Register {
 		return this.manager;
 	}
 
+	/**
+	 * Getter for the custom tab completions of this Register.
+	 *
+	 * @return CompletionRegistry instance.
+	 * @see CompletionRegistry
+	 */
+	public CompletionRegistry getCompletionRegistry() {
+		return this.completions;
+	}
+
+	/**
+	 * Getter for the registry of argument parsers. Register custom parsers before registering the commands that
+	 * use them, as the parsers are resolved once per handler parameter.
+	 *
+	 * @return ArgumentParsers instance.
+	 * @see ArgumentParsers
+	 */
+	public ArgumentParsers getArgumentParsers() {
+		return this.argumentParsers;
+	}
+
+	/**
+	 * Returns the dispatcher generated for the command class by the StarCommandsProcessor annotation processor.
+	 *
+	 * @param c Class&lt;?&gt;
+	 * @return HandlerDispatcher instance. Null if none was generated, the handlers are then invoked reflectively.
+	 * @see HandlerDispatcher
+	 */
+	public HandlerDispatcher getHandlerDispatcher(Class<?> c) {
+		try {
+			Class<?> generated = Class.forName(c.getName() + "$StarDispatcher", true, c.getClassLoader());
+			return (HandlerDispatcher) generated.getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Getter for the cache of the permission decisions used by the @Permission checks.
+	 *
+	 * @return PermissionCache instance.
+	 * @see PermissionCache
+	 */
+	public PermissionCache getPermissionCache() {
+		return this.permissionCache;
+	}
+
+	/**
+	 * Getter for the rate limiter of the @RateLimit commands.
+	 *
+	 * @return RateLimiter instance.
+	 * @see RateLimiter
+	 */
+	public RateLimiter getRateLimiter() {
+		return this.rateLimiter;
+	}
+
+	/**
+	 * Getter for the dispatcher that runs the async handlers.
+	 *
+	 * @return AsyncCommandDispatcher instance.
+	 * @see AsyncCommandDispatcher
+	 */
+	public AsyncCommandDispatcher getAsyncDispatcher() {
+		return this.dispatcher;
+	}
+
+	/**
+	 * Returns the metrics of the command, creating them if they don't exist.
+	 *
+	 * @param command Name of the command.
+	 * @return CommandMetrics instance.
+	 * @see CommandMetrics
+	 */
+	public CommandMetrics getMetrics(String command) {
+		return this.metrics.computeIfAbsent(command, CommandMetrics::new);
+	}
+
+	/**
+	 * Returns a copy of the metrics of every command registered by this Register.
+	 *
+	 * @return Map of the command names and their metrics.
+	 */
+	public Map<String, CommandMetrics.Snapshot> getMetricsSnapshot() {
+		Map<String, CommandMetrics.Snapshot> snapshot = new TreeMap<>();
+		this.metrics.forEach((name, metrics) -> snapshot.put(name, metrics.snapshot()));
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	/**
+	 * Registers the /starmetrics command that prints the most expensive commands.
+	 *
+	 * @see MetricsCommand
+	 */
+	public void registerMetricsCommand() {
+		this.register(false, new MetricsCommand(this));
+	}
+
+	/**
+	 * Runs the task on the main thread, e.g. to use the Bukkit API from an async handler. Runs it right away if
+	 * this is already the main thread. While {@link #shutdown()} waits for the async handlers, the tasks they queue
+	 * are run by it.
+	 *
+	 * @param task The task to run.
+	 */
+	public void runSync(Runnable task) {
+		if (this.plugin.getServer().isPrimaryThread()) {
+			task.run();
+			return;
+		}
+		this.syncTasks.add(task);
+		if (this.plugin.isEnabled()) {
+			try {
+				this.plugin.getServer().getScheduler().runTask(this.plugin, this::runSyncTasks);
+			} catch (IllegalPluginAccessException e) {
+				// The plugin is being disabled, shutdown() runs the task.
+			}
+		}
+	}
+
+	private void runSyncTasks() {
+		Runnable task;
+		while ((task = this.syncTasks.poll()) != null) {
+			try {
+				task.run();
+			} catch (Throwable t) {
+				this.plugin.getLogger().log(Level.SEVERE, "A task of an async command failed on the main thread.", t);
+			}
+		}
+	}
+
+	/**
+	 * Computes a value on the main thread, e.g. to use the Bukkit API from an async handler.
+	 *
+	 * @param supplier The supplier of the value.
+	 * @param <T>      Type of the value.
+	 * @return CompletableFuture that completes with the value.
+	 */
+	public <T> CompletableFuture<T> callSync(Supplier<T> supplier) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		this.runSync(() -> {
+			try {
+				future.complete(supplier.get());
+			} catch (Throwable t) {
+				future.completeExceptionally(t);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Waits up to 5 seconds for the async handlers to finish, running the tasks they pass to
+	 * {@link #runSync(Runnable)} in the meantime, and writes the pending cooldowns. Call this when your plugin is
+	 * disabled.
+	 */
+	public void shutdown() {
+		this.dispatcher.shutdown(5, TimeUnit.SECONDS, this::runSyncTasks);
+		this.runSyncTasks();
+		this.manager.close();
+	}
+
+	private SimpleCommandMap getCommandMap() {
+		if (this.commandMap == null) {
+			this.setCommandMap();
+		}
+		return this.commandMap;
+	}
+
 	private void setCommandMap() {
-		pluginManager = (SimplePluginManager) this.plugin.getServer().getPluginManager();
+		this.pluginManager = (SimplePluginManager) this.plugin.getServer().getPluginManager();
 		Field f = null;
 		try {
 			f = SimplePluginManager.class.getDeclaredField("commandMap");
@@ -160,7 +447,7 @@ public class Register {
 		}
 		f.setAccessible(true);
 		try {
-			commandMap = (SimpleCommandMap) f.get(pluginManager);
+			this.commandMap = (SimpleCommandMap) f.get(this.pluginManager);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -68,4 +68,12 @@ public @interface Command {
 	 * @return Array of aliases.
 	 */
 	String[] aliases() default {};
+
+	/**
+	 * Whether to run the handlers of the command on the worker pool instead of the main thread. Use
+	 * Register#runSync to call the Bukkit API from them.
+	 *
+	 * @return True or false.
+	 */
+	boolean async() default false;
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The annotation that limits how often a sender can execute and tab complete the command. Unlike @Cooldown, a sender
+ * can use the command several times in a row until the burst is used up, which then refills over the period.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface RateLimit {
+	/**
+	 * The amount of executions allowed per period.
+	 *
+	 * @return Amount of executions.
+	 */
+	int executions();
+
+	/**
+	 * The amount of tab completions allowed per period.
+	 *
+	 * @return Amount of tab completions.
+	 */
+	int tabCompletions() default 20;
+
+	/**
+	 * The period in the unit specified.
+	 *
+	 * @return Long time in the units.
+	 */
+	long period() default 1;
+
+	/**
+	 * The timeunit of the period.
+	 *
+	 * @return TimeUnit.
+	 * @see TimeUnit
+	 */
+	TimeUnit unit() default TimeUnit.SECONDS;
+
+	/**
+	 * Whether the console should be limited too.
+	 *
+	 * @return True or false.
+	 */
+	boolean consoleToo() default false;
+
+	/**
+	 * The permission that bypasses the limit.
+	 *
+	 * @return Permission.
+	 */
+	String bypassPerm() default "";
+
+	/**
+	 * The message sent when the sender executes the command too often.
+	 *
+	 * @return Message.
+	 */
+	String message() default "You're using this command too fast, please slow down.";
+}
@@ -41,4 +41,19 @@ public @interface SubCommand {
      * @return Subcommand usage.
      */
     String usage() default "";
+
+    /**
+     * Other names of the subcommand.
+     *
+     * @return Subcommand aliases.
+     */
+    String[] aliases() default {};
+
+    /**
+     * Whether to run the subcommand on the worker pool instead of the main thread. Use Register#runSync to call the
+     * Bukkit API from it.
+     *
+     * @return True or false.
+     */
+    boolean async() default false;
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.graph;
+
+import dev.galactic.star.commands.annotations.TabCompletion;
+import dev.galactic.star.commands.managers.ArgumentParser;
+
+/**
+ * A node matching an argument of a handler.
+ */
+public class ArgumentNode extends CommandNode {
+	private final int index;
+	private final ArgumentParser<?> parser;
+	private final TabCompletion completion;
+	private final CommandHandler owner;
+
+	ArgumentNode(int index, ArgumentParser<?> parser, TabCompletion completion, CommandHandler owner, String usage) {
+		super(owner.getPermission(), usage);
+		this.index = index;
+		this.parser = parser;
+		this.completion = completion;
+		this.owner = owner;
+	}
+
+	/**
+	 * Returns the index of the argument, the sender parameter not included.
+	 *
+	 * @return Index.
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Returns the parser of the argument.
+	 *
+	 * @return ArgumentParser.
+	 */
+	public ArgumentParser<?> getParser() {
+		return this.parser;
+	}
+
+	/**
+	 * Returns the handler the argument belongs to.
+	 *
+	 * @return CommandHandler.
+	 */
+	public CommandHandler getOwner() {
+		return this.owner;
+	}
+
+	/**
+	 * Checks whether the @TabCompletion of the handler has a value for this argument.
+	 *
+	 * @return True if it does, false if not.
+	 */
+	public boolean hasSuggestions() {
+		return this.completion != null && this.index < this.completion.value().length;
+	}
+
+	/**
+	 * Returns the @TabCompletion of the handler.
+	 *
+	 * @return TabCompletion annotation, may be null.
+	 */
+	public TabCompletion getCompletion() {
+		return this.completion;
+	}
+}
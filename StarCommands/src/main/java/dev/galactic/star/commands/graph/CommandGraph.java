@@ -0,0 +1,310 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.graph;
+
+import dev.galactic.star.commands.Register;
+import dev.galactic.star.commands.annotations.Command;
+import dev.galactic.star.commands.annotations.Default;
+import dev.galactic.star.commands.annotations.Permission;
+import dev.galactic.star.commands.annotations.SubCommand;
+import dev.galactic.star.commands.annotations.TabCompletion;
+import dev.galactic.star.commands.exceptions.DefaultAnnotationNotFoundException;
+import dev.galactic.star.commands.managers.ArgumentParser;
+import dev.galactic.star.commands.managers.CommandMetrics;
+import dev.galactic.star.commands.managers.CompletionId;
+import dev.galactic.star.commands.managers.CompletionRegistry;
+import dev.galactic.star.commands.managers.PermissionCache;
+import org.bukkit.command.CommandSender;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The annotations of a command class compiled into a tree of nodes. Subcommands and their aliases are literal nodes,
+ * handler parameters are argument nodes with their parser and suggestions. Executing and tab completing walk the
+ * arguments once from the root, so deeper trees cost the same per argument.
+ */
+public final class CommandGraph {
+	private final Command command;
+	private final LiteralNode root;
+	private final PermissionCache permissions;
+	private final CompletionRegistry completions;
+
+	private CommandGraph(Command command, LiteralNode root, PermissionCache permissions,
+	                     CompletionRegistry completions) {
+		this.command = command;
+		this.root = root;
+		this.permissions = permissions;
+		this.completions = completions;
+	}
+
+	/**
+	 * Compiles the annotations of the class into a graph.
+	 *
+	 * @param register The Register instance to resolve the argument parsers with.
+	 * @param cmd      The @Command annotation of the class.
+	 * @param c        The command class.
+	 * @return CommandGraph.
+	 */
+	public static CommandGraph compile(Register register, Command cmd, Class<?> c) {
+		LiteralNode root = new LiteralNode(cmd.value(), null, null, cmd.usage(), null);
+		Method defaultHandler = register.getDefaultHandler(c);
+		List<Method> subCommands = register.getSubCommandMethods(c);
+		if (defaultHandler == null && subCommands.isEmpty()) {
+			try {
+				throw new DefaultAnnotationNotFoundException();
+			} catch (DefaultAnnotationNotFoundException e) {
+				e.printStackTrace();
+			}
+		}
+		if (defaultHandler != null) {
+			Permission perm = defaultHandler.getDeclaredAnnotation(Permission.class);
+			String usage = defaultHandler.getDeclaredAnnotation(Default.class).usage();
+			CommandHandler handler = new CommandHandler(defaultHandler, null, perm, cmd.async());
+			attach(register, root, handler, usage.isEmpty() ? cmd.usage() : usage);
+		}
+		for (Method method : subCommands) {
+			SubCommand subCommand = method.getDeclaredAnnotation(SubCommand.class);
+			Permission perm = method.getDeclaredAnnotation(Permission.class);
+			String usage = subCommand.usage().isEmpty() ? cmd.usage() : subCommand.usage();
+			LiteralNode literal = new LiteralNode(subCommand.value(), subCommand.value(), perm, usage, null);
+			attach(register, literal, new CommandHandler(method, subCommand.value(), perm,
+					cmd.async() || subCommand.async()), usage);
+			root.addLiteral(literal);
+			for (String alias : subCommand.aliases()) {
+				if (root.getLiteral(alias) == null) {
+					root.addLiteral(new LiteralNode(alias, subCommand.value(), perm, usage, literal));
+				}
+			}
+		}
+		return new CommandGraph(cmd, root, register.getPermissionCache(), register.getCompletionRegistry());
+	}
+
+	private static void attach(Register register, CommandNode node, CommandHandler handler, String usage) {
+		Method method = handler.getMethod();
+		TabCompletion completion = register.getTabCompletion(method);
+		ArgumentParser<?>[] parsers = register.getArgumentParsers().resolve(method, completion);
+		int required = register.getParameterSize(method, false);
+		if (required == 0) {
+			node.setHandler(handler);
+		}
+		CommandNode current = node;
+		for (int i = 0; i < parsers.length; i++) {
+			ArgumentNode argument = new ArgumentNode(i, parsers[i], completion, handler, usage);
+			current.setArgument(argument);
+			current = argument;
+			if (i + 1 >= required) {
+				current.setHandler(handler);
+			}
+		}
+	}
+
+	/**
+	 * Walks the arguments and parses them for the handler they lead to.
+	 *
+	 * @param sender CommandSender that is executing.
+	 * @param args   The arguments of the command.
+	 * @return Match with the handler and its arguments, or why there isn't one.
+	 */
+	public Match match(CommandSender sender, String[] args) {
+		CommandNode node = this.root;
+		String subCommand = null;
+		Object[] values = null;
+		for (String arg : args) {
+			LiteralNode literal = node.getLiteral(arg);
+			if (literal != null) {
+				if (!this.canUse(sender, literal)) {
+					return Match.failure(CommandMetrics.Outcome.DENIED, subCommand, literal.getPermission().noPermMsg());
+				}
+				if (subCommand == null) {
+					subCommand = literal.getSubCommand();
+				}
+				node = literal.getTarget();
+				continue;
+			}
+			ArgumentNode argument = node.getArgument();
+			if (argument == null) {
+				return Match.failure(CommandMetrics.Outcome.USAGE_ERROR, subCommand, node.getUsage());
+			}
+			Object value = argument.getParser().parse(sender, arg);
+			if (value == null) {
+				return Match.failure(CommandMetrics.Outcome.USAGE_ERROR, subCommand,
+						argument.getParser().getErrorMessage());
+			}
+			if (values == null) {
+				values = new Object[argument.getOwner().getParameterCount()];
+			}
+			values[argument.getIndex() + 1] = value;
+			node = argument;
+		}
+		CommandHandler handler = node.getHandler();
+		if (handler == null) {
+			return Match.failure(CommandMetrics.Outcome.USAGE_ERROR, subCommand, node.getUsage());
+		}
+		if (handler.getPermission() != null && !this.permissions.hasPermission(sender, handler.getPermission())) {
+			return Match.failure(CommandMetrics.Outcome.DENIED, subCommand, handler.getPermission().noPermMsg());
+		}
+		if (values == null) {
+			values = new Object[handler.getParameterCount()];
+		}
+		values[0] = sender;
+		return new Match(CommandMetrics.Outcome.SUCCESS, subCommand, null, handler, values);
+	}
+
+	/**
+	 * Walks the arguments and returns the suggestions for the last one.
+	 *
+	 * @param sender CommandSender that is tab completing.
+	 * @param args   The arguments typed so far, the last one being the partial argument.
+	 * @return List&lt;String&gt; of the suggestions that start with the partial argument.
+	 */
+	public List<String> suggest(CommandSender sender, String[] args) {
+		List<String> suggestions = new ArrayList<>();
+		if (args.length == 0) {
+			return suggestions;
+		}
+		CommandNode node = this.root;
+		for (int i = 0; i < args.length - 1; i++) {
+			LiteralNode literal = node.getLiteral(args[i]);
+			if (literal != null) {
+				if (!this.canUse(sender, literal)) {
+					return suggestions;
+				}
+				node = literal.getTarget();
+			} else if (node.getArgument() != null) {
+				node = node.getArgument();
+			} else {
+				return suggestions;
+			}
+		}
+		String token = args[args.length - 1];
+		for (LiteralNode literal : node.getLiterals()) {
+			if (literal.getTarget() != literal) {
+				continue;
+			}
+			if (startsWith(literal.getLiteral(), token) && this.canUse(sender, literal)) {
+				suggestions.add(literal.getLiteral());
+			}
+		}
+		ArgumentNode argument = node.getArgument();
+		if (argument != null && argument.hasSuggestions() && this.canUse(sender, argument)) {
+			for (String option : CompletionId.getArgsFromObj(sender, args, argument.getCompletion(),
+					argument.getIndex(), this.completions)) {
+				if (startsWith(option, token)) {
+					suggestions.add(option);
+				}
+			}
+		}
+		return suggestions;
+	}
+
+	private boolean canUse(CommandSender sender, CommandNode node) {
+		return node.getPermission() == null || this.permissions.hasPermission(sender, node.getPermission());
+	}
+
+	private static boolean startsWith(String option, String token) {
+		return option.regionMatches(true, 0, token, 0, token.length());
+	}
+
+	/**
+	 * Returns the @Command annotation the graph was compiled from.
+	 *
+	 * @return Command annotation.
+	 */
+	public Command getCommand() {
+		return this.command;
+	}
+
+	/**
+	 * Returns the root node.
+	 *
+	 * @return LiteralNode of the command itself.
+	 */
+	public LiteralNode getRoot() {
+		return this.root;
+	}
+
+	/**
+	 * The result of walking the arguments of an execution.
+	 */
+	public static final class Match {
+		private final CommandMetrics.Outcome outcome;
+		private final String subCommand;
+		private final String message;
+		private final CommandHandler handler;
+		private final Object[] arguments;
+
+		private Match(CommandMetrics.Outcome outcome, String subCommand, String message, CommandHandler handler,
+		              Object[] arguments) {
+			this.outcome = outcome;
+			this.subCommand = subCommand;
+			this.message = message;
+			this.handler = handler;
+			this.arguments = arguments;
+		}
+
+		private static Match failure(CommandMetrics.Outcome outcome, String subCommand, String message) {
+			return new Match(outcome, subCommand, message, null, null);
+		}
+
+		/**
+		 * Returns the outcome of the walk.
+		 *
+		 * @return SUCCESS if a handler was found, else why it wasn't.
+		 */
+		public CommandMetrics.Outcome getOutcome() {
+			return this.outcome;
+		}
+
+		/**
+		 * Returns the name of the subcommand the arguments went through.
+		 *
+		 * @return Subcommand name, null if none.
+		 */
+		public String getSubCommand() {
+			return this.subCommand;
+		}
+
+		/**
+		 * Returns the message to send to the sender when the walk failed.
+		 *
+		 * @return Message, null on success.
+		 */
+		public String getMessage() {
+			return this.message;
+		}
+
+		/**
+		 * Returns the handler to invoke.
+		 *
+		 * @return CommandHandler, null if the walk failed.
+		 */
+		public CommandHandler getHandler() {
+			return this.handler;
+		}
+
+		/**
+		 * Returns the arguments to invoke the handler with, the sender first.
+		 *
+		 * @return Object[] of the arguments.
+		 */
+		public Object[] getArguments() {
+			return this.arguments;
+		}
+	}
+}
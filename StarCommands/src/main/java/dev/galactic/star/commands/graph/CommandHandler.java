@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.graph;
+
+import dev.galactic.star.commands.annotations.Permission;
+
+import java.lang.reflect.Method;
+
+/**
+ * A @Default or @SubCommand method and what is needed to invoke it.
+ */
+public class CommandHandler {
+	private final Method method;
+	private final String subCommand;
+	private final Permission permission;
+	private final boolean async;
+	private final int parameters;
+
+	CommandHandler(Method method, String subCommand, Permission permission, boolean async) {
+		this.method = method;
+		this.subCommand = subCommand;
+		this.permission = permission;
+		this.async = async;
+		this.parameters = method.getParameterCount();
+	}
+
+	/**
+	 * Returns the handler method.
+	 *
+	 * @return Method.
+	 */
+	public Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Returns the name of the subcommand.
+	 *
+	 * @return Subcommand name, null for the @Default handler.
+	 */
+	public String getSubCommand() {
+		return this.subCommand;
+	}
+
+	/**
+	 * Returns the permission required to run the handler.
+	 *
+	 * @return Permission annotation, null if there is none.
+	 */
+	public Permission getPermission() {
+		return this.permission;
+	}
+
+	/**
+	 * Checks whether the handler runs on the worker pool.
+	 *
+	 * @return True if it does, false if it runs on the calling thread.
+	 */
+	public boolean isAsync() {
+		return this.async;
+	}
+
+	/**
+	 * Returns the amount of parameters of the method, the sender included.
+	 *
+	 * @return Parameter count.
+	 */
+	public int getParameterCount() {
+		return this.parameters;
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.graph;
+
+import dev.galactic.star.commands.annotations.Permission;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A node of the command graph. A node can have literal children, one argument child and a handler that runs when
+ * the arguments end at this node.
+ *
+ * @see CommandGraph
+ */
+public abstract class CommandNode {
+	private final Map<String, LiteralNode> literals = new LinkedHashMap<>();
+	private final Permission permission;
+	private final String usage;
+	private ArgumentNode argument;
+	private CommandHandler handler;
+
+	protected CommandNode(Permission permission, String usage) {
+		this.permission = permission;
+		this.usage = usage;
+	}
+
+	/**
+	 * Returns the literal child with the name.
+	 *
+	 * @param name Name of the literal.
+	 * @return LiteralNode, null if it doesn't exist.
+	 */
+	public LiteralNode getLiteral(String name) {
+		return this.literals.get(name);
+	}
+
+	/**
+	 * Returns every literal child.
+	 *
+	 * @return Collection of LiteralNodes.
+	 */
+	public Collection<LiteralNode> getLiterals() {
+		return Collections.unmodifiableCollection(this.literals.values());
+	}
+
+	void addLiteral(LiteralNode literal) {
+		this.literals.put(literal.getLiteral(), literal);
+	}
+
+	/**
+	 * Returns the argument child.
+	 *
+	 * @return ArgumentNode, null if there is none.
+	 */
+	public ArgumentNode getArgument() {
+		return this.argument;
+	}
+
+	void setArgument(ArgumentNode argument) {
+		this.argument = argument;
+	}
+
+	/**
+	 * Returns the handler that runs when the arguments end at this node.
+	 *
+	 * @return CommandHandler, null if the command isn't complete yet.
+	 */
+	public CommandHandler getHandler() {
+		return this.handler;
+	}
+
+	void setHandler(CommandHandler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Returns the permission required to use this node.
+	 *
+	 * @return Permission annotation, null if there is none.
+	 */
+	public Permission getPermission() {
+		return this.permission;
+	}
+
+	/**
+	 * Returns the message sent when the arguments don't fit this node.
+	 *
+	 * @return Usage.
+	 */
+	public String getUsage() {
+		return this.usage;
+	}
+}
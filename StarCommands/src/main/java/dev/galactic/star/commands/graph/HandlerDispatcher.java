@@ -0,0 +1,35 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.graph;
+
+/**
+ * Calls the handlers of a command class directly instead of through reflection. Implementations named
+ * {@code <CommandClass>$StarDispatcher} are generated by the StarCommandsProcessor annotation processor and picked up
+ * by the Register when they exist.
+ */
+public interface HandlerDispatcher {
+
+	/**
+	 * Invokes a handler of the command.
+	 *
+	 * @param command The command instance.
+	 * @param handler Name of the subcommand, or an empty String for the @Default handler.
+	 * @param args    The arguments of the handler, the sender first.
+	 * @throws Exception Anything the handler throws.
+	 */
+	void dispatch(Object command, String handler, Object[] args) throws Exception;
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.graph;
+
+import dev.galactic.star.commands.annotations.Permission;
+
+/**
+ * A node matching a fixed word, e.g. a subcommand. An alias is a literal that redirects to another literal.
+ */
+public class LiteralNode extends CommandNode {
+	private final String literal;
+	private final String subCommand;
+	private final LiteralNode redirect;
+
+	LiteralNode(String literal, String subCommand, Permission permission, String usage, LiteralNode redirect) {
+		super(permission, usage);
+		this.literal = literal;
+		this.subCommand = subCommand;
+		this.redirect = redirect;
+	}
+
+	/**
+	 * Returns the word this node matches.
+	 *
+	 * @return Literal.
+	 */
+	public String getLiteral() {
+		return this.literal;
+	}
+
+	/**
+	 * Returns the name of the subcommand this node belongs to.
+	 *
+	 * @return Subcommand name, null for the root.
+	 */
+	public String getSubCommand() {
+		return this.subCommand;
+	}
+
+	/**
+	 * Returns the node the walk continues at after matching this one.
+	 *
+	 * @return The redirect target, or this node if it isn't an alias.
+	 */
+	public LiteralNode getTarget() {
+		return this.redirect == null ? this : this.redirect;
+	}
+}
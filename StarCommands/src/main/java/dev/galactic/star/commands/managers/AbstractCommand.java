@@ -18,10 +18,12 @@ package dev.galactic.star.commands.managers;
 
 import dev.galactic.star.commands.Register;
 import dev.galactic.star.commands.annotations.Command;
+import dev.galactic.star.commands.annotations.Cooldown;
 import dev.galactic.star.commands.annotations.Permission;
-import dev.galactic.star.commands.annotations.SubCommand;
-import dev.galactic.star.commands.annotations.TabCompletion;
-import dev.galactic.star.commands.exceptions.DefaultAnnotationNotFoundException;
+import dev.galactic.star.commands.annotations.RateLimit;
+import dev.galactic.star.commands.graph.CommandGraph;
+import dev.galactic.star.commands.graph.CommandHandler;
+import dev.galactic.star.commands.graph.HandlerDispatcher;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
@@ -30,11 +32,10 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.logging.Level;
 
 public class AbstractCommand extends org.bukkit.command.Command implements PluginIdentifiableCommand {
 	private final Register register;
@@ -43,6 +44,10 @@ public class AbstractCommand extends org.bukkit.command.Command implements Plugi
 	private final Object o;
 	private final Class<?> clazz;
 	private final CooldownManager manager;
+	private final CommandMetrics metrics;
+	private final CommandGraph graph;
+	private final HandlerDispatcher dispatcher;
+	private final RateLimit rateLimit;
 
 	public AbstractCommand(CooldownManager manager, Register register, Command cmd, Permission permission, Object o) {
 		super(cmd.value(), cmd.desc(), cmd.usage(), Arrays.asList(cmd.aliases()));
@@ -56,6 +61,10 @@ public class AbstractCommand extends org.bukkit.command.Command implements Plugi
 		this.permission = permission;
 		this.o = o;
 		this.clazz = o.getClass();
+		this.metrics = register.getMetrics(cmd.value());
+		this.graph = CommandGraph.compile(register, cmd, this.clazz);
+		this.dispatcher = register.getHandlerDispatcher(this.clazz);
+		this.rateLimit = this.clazz.getDeclaredAnnotation(RateLimit.class);
 	}
 
 	@Override
@@ -65,158 +74,162 @@ public class AbstractCommand extends org.bukkit.command.Command implements Plugi
 
 	@Override
 	public boolean execute(CommandSender sender, String alias, String[] args) {
-		if (this.permission != null && Register.sendNoPermMessage(sender, this.permission)) return false;
-		Method method = this.register.getDefaultHandler(this.clazz);
+		long start = System.nanoTime();
+		CommandMetrics.Outcome outcome = CommandMetrics.Outcome.ERROR;
+		CommandGraph.Match match = null;
 		try {
-			if (this.manager.isInCoolDown(sender)) {
-				return false;
+			if (this.rateLimit != null && !this.register.getRateLimiter().tryExecute(sender, this.cmd.value(),
+					this.rateLimit)) {
+				sender.sendMessage(ChatColor.RED + this.rateLimit.message());
+				outcome = CommandMetrics.Outcome.RATE_LIMITED;
+			} else {
+				match = this.graph.match(sender, args);
+				outcome = this.executeHandler(sender, match, start);
 			}
-			if (this.cmd.playerOnly() && sender instanceof ConsoleCommandSender) {
-				sender.sendMessage(ChatColor.RED + "Sorry, but you have to be a player to use this command.");
-				return false;
-			} else if (this.cmd.consoleOnly() && sender instanceof Player) {
-				sender.sendMessage(ChatColor.RED + "Sorry, but you have to be the console to use this command.");
-				return false;
-			} else if (args.length == 0) {
-				if (this.register.getSubCommands(this.clazz).size() > 0) {
-					sender.sendMessage(ChatColor.RED + this.cmd.usage());
-					return false;
-				} else if (this.register.getSubCommands(this.clazz).size() == 0 && !this.isDefault()) {
-					try {
-						throw new DefaultAnnotationNotFoundException();
-					} catch (DefaultAnnotationNotFoundException e) {
-						e.printStackTrace();
-					}
-					return false;
-				}
-				method.invoke(this.o, sender);
-				return true;
+		} finally {
+			long nanos = System.nanoTime() - start;
+			if (outcome != null) {
+				this.record(match, outcome, nanos);
+			} else {
+				this.recordDispatch(match, nanos);
 			}
-			if (method == null) {
-				method = this.register.getMethodBySubName(this.clazz, args[0]);
-			}
-			TabCompletion completion = this.register.getTabCompletion(method);
-			if (!this.canExecute(sender, args, completion)) {
-				return false;
-			}
-			Object[] argArray = new Object[this.register.getParameterSize(method, true) + 1];
-			if (this.register.hasOptionalArgs(method)) {
-				argArray[argArray.length - 1] = null;
-			}
-			argArray[0] = sender;
-			TabCompletion tabCompletion = this.register.getTabCompletion(method);
-			for (int i = 0; i < argArray.length; i++) {
-				if (i == argArray.length - 1 || (i == argArray.length - 1 && this.register.hasOptionalArgs(method))) {
-					break;
-				}
-				if (this.isDefault()) {
-					if (i == args.length) {
-						break;
-					}
-					argArray[i + 1] = CompletionId.getObjArgsFrom(tabCompletion, i, args[i]);
-				} else {
-					if (i + 1 == args.length) {
-						break;
-					}
-					argArray[i + 1] = CompletionId.getObjArgsFrom(tabCompletion, i, args[i + 1]);
-				}
-			}
-			method.invoke(this.o, argArray);
-			this.manager.add(sender, this.register.getCooldowmManager().getCooldown(this.clazz));
-			return true;
-		} catch (InvocationTargetException | IllegalAccessException e) {
-			e.printStackTrace();
 		}
-		return false;
+		return outcome == null || outcome == CommandMetrics.Outcome.SUCCESS;
 	}
 
-	private boolean canExecute(CommandSender sender, String[] args, TabCompletion completion) {
-		Method method = this.register.getDefaultHandler(this.clazz);
-		if (!this.isDefault()) {
-			method = this.register.getMethodBySubName(this.clazz, args[0]);
+	private void record(CommandGraph.Match match, CommandMetrics.Outcome outcome, long nanos) {
+		this.metrics.record(outcome, nanos);
+		if (match != null && match.getSubCommand() != null) {
+			this.metrics.getSubCommand(match.getSubCommand()).record(outcome, nanos);
 		}
-		SubCommand subCommand = this.register.getSubCommandByName(this.clazz, args[0]);
-		Permission perm = this.register.getSubCommandPermByName(this.clazz, args[0]);
+	}
 
-		if (perm != null && Register.sendNoPermMessage(sender, perm)) {
-			return false;
-		} else if (!this.hasExactValues(method, args, completion)) {
-			String message = subCommand == null ? this.cmd.usage() : subCommand.usage();
-			sender.sendMessage(ChatColor.RED + message);
-			return false;
+	private void recordDispatch(CommandGraph.Match match, long nanos) {
+		this.metrics.recordDispatch(nanos);
+		if (match.getSubCommand() != null) {
+			this.metrics.getSubCommand(match.getSubCommand()).recordDispatch(nanos);
 		}
-		return true;
 	}
 
-	private boolean canTabCompleteValues(CommandSender sender, String[] args, boolean isCompletingCommands) {
-		Permission perm = isDefault() ? this.register.getDefaultHanlderPermission(this.clazz) :
-				this.register.getSubCommandPermByName(this.clazz, args[0]);
-		if (isCompletingCommands) {
-			if (perm == null) return true;
-			return Register.hasPermission(sender, perm);
-		}
-		if (this.isDefault()) {
-			TabCompletion tabComplete = this.register.getTabCompletion(this.register.getDefaultHandler(this.clazz));
-			if (tabComplete == null) return false;
-			return tabComplete.value().length >= args.length - 1;
-		} else {
-			if (!this.register.getSubCommandNames(this.clazz).contains(args[0])) {
-				return false;
-			}
-			TabCompletion tabComplete = this.register.getTabCompletion(this.register.getMethodBySubName(
-					this.clazz,
-					args[0]
-			));
-			if (tabComplete == null) return false;
-			return tabComplete.value().length >= args.length - 1;
+	private void recordAsync(CommandGraph.Match match, CommandMetrics.Outcome outcome, long nanos) {
+		this.metrics.recordAsync(outcome, nanos);
+		if (match.getSubCommand() != null) {
+			this.metrics.getSubCommand(match.getSubCommand()).recordAsync(outcome, nanos);
 		}
 	}
 
-	private boolean isDefault() {
-		return this.register.getDefaultHandler(this.clazz) != null;
+	/**
+	 * Returns the outcome of the command, or null if the handler was dispatched asynchronously and records its
+	 * outcome itself once it completes. Only the dispatch is recorded as time on the calling thread then.
+	 */
+	private CommandMetrics.Outcome executeHandler(CommandSender sender, CommandGraph.Match match, long start) {
+		if (this.permission != null && this.register.getPermissionCache().sendNoPermMessage(sender, this.permission)) {
+			return CommandMetrics.Outcome.DENIED;
+		}
+		if (this.manager.isInCoolDown(sender, this.cmd.value())) {
+			return CommandMetrics.Outcome.COOLDOWN;
+		}
+		if (this.cmd.playerOnly() && sender instanceof ConsoleCommandSender) {
+			sender.sendMessage(ChatColor.RED + "Sorry, but you have to be a player to use this command.");
+			return CommandMetrics.Outcome.DENIED;
+		} else if (this.cmd.consoleOnly() && sender instanceof Player) {
+			sender.sendMessage(ChatColor.RED + "Sorry, but you have to be the console to use this command.");
+			return CommandMetrics.Outcome.DENIED;
+		} else if (match.getOutcome() != CommandMetrics.Outcome.SUCCESS) {
+			sender.sendMessage(ChatColor.RED + match.getMessage());
+			return match.getOutcome();
+		}
+		CommandHandler handler = match.getHandler();
+		if (handler.isAsync()) {
+			return this.dispatch(sender, match, start);
+		}
+		try {
+			this.call(handler, match.getArguments());
+		} catch (InvocationTargetException | IllegalAccessException e) {
+			this.logFailure(e);
+			return CommandMetrics.Outcome.ERROR;
+		}
+		this.manager.add(sender, this.cmd.value(), this.manager.getCooldown(this.clazz));
+		return CommandMetrics.Outcome.SUCCESS;
 	}
 
-	private boolean hasExactValues(Method method, String[] args, TabCompletion completion) {
-		int argLen = args.length - 1;
-		int paramSizeNoOpt = this.register.getParameterSize(method, true);
-		if (this.isDefault()) {
-			argLen += 1;
-		}
-		if (this.register.hasOptionalArgs(method)) {
-			if (argLen == paramSizeNoOpt - 1 || argLen == paramSizeNoOpt) {
-				return true;
-			} else if (argLen > paramSizeNoOpt || argLen < paramSizeNoOpt - 1) {
-				return false;
+	/**
+	 * Runs the handler on the AsyncCommandDispatcher. The cooldown is applied right away, so the sender can't run the
+	 * command again while the handler is still running, and removed if the handler fails. The outcome is recorded
+	 * once the handler completes.
+	 */
+	private CommandMetrics.Outcome dispatch(CommandSender sender, CommandGraph.Match match, long start) {
+		Cooldown cooldown = this.manager.getCooldown(this.clazz);
+		this.manager.add(sender, this.cmd.value(), cooldown);
+		boolean dispatched = this.register.getAsyncDispatcher().dispatch(() -> {
+			CommandMetrics.Outcome outcome = CommandMetrics.Outcome.ERROR;
+			try {
+				this.call(match.getHandler(), match.getArguments());
+				outcome = CommandMetrics.Outcome.SUCCESS;
+			} catch (InvocationTargetException | IllegalAccessException e) {
+				this.logFailure(e);
+			} finally {
+				this.recordAsync(match, outcome, System.nanoTime() - start);
+			}
+			if (outcome != CommandMetrics.Outcome.SUCCESS && cooldown != null) {
+				this.register.runSync(() -> this.manager.remove(sender, this.cmd.value()));
 			}
-		} else {
-			return argLen <= paramSizeNoOpt && argLen >= paramSizeNoOpt;
+		});
+		if (!dispatched) {
+			if (cooldown != null) {
+				this.manager.remove(sender, this.cmd.value());
+			}
+			sender.sendMessage(ChatColor.RED + "The server is busy, please try again in a moment.");
+			return CommandMetrics.Outcome.DENIED;
 		}
-		return false;
+		return null;
 	}
 
-	@Override
-	public List<String> tabComplete(CommandSender sender, String alias, String[] args) throws IllegalArgumentException {
-		if (this.permission != null && !Register.hasPermission(sender, this.permission)) return new ArrayList<>();
-		if (this.register.getSubCommands(this.clazz).size() > 0 && !args[0].matches("\\s")) {
-			if (args.length == 1) {
-				return this.register.getSubCommands(this.clazz).stream().map(SubCommand::value).filter(value -> this.canTabCompleteValues(sender, new String[]{value}, true)).collect(Collectors.toList());
-			}
+	private void logFailure(Exception e) {
+		Throwable cause = e instanceof InvocationTargetException && e.getCause() != null ? e.getCause() : e;
+		this.register.getPlugin().getLogger().log(Level.SEVERE, "An error occurred while executing the command " +
+				this.cmd.value() + ".", cause);
+	}
 
-			String subCommand = args[0];
+	private void call(CommandHandler handler, Object[] args) throws InvocationTargetException, IllegalAccessException {
+		if (this.dispatcher == null) {
+			handler.getMethod().invoke(this.o, args);
+			return;
+		}
+		try {
+			this.dispatcher.dispatch(this.o, handler.getSubCommand() == null ? "" : handler.getSubCommand(), args);
+		} catch (Exception e) {
+			throw new InvocationTargetException(e);
+		}
+	}
 
-			if (!this.canTabCompleteValues(sender, args, false)) {
-				return new ArrayList<>();
-			}
+	@Override
+	public List<String> tabComplete(CommandSender sender, String alias, String[] args) throws IllegalArgumentException {
+		long start = System.nanoTime();
+		try {
+			return this.completeArgs(sender, args);
+		} finally {
+			this.metrics.recordTabComplete(System.nanoTime() - start);
+		}
+	}
 
-			return CompletionId.getArgsFromObj(this.register.getTabCompletion(this.register.getMethodBySubName(this.clazz, subCommand)), args.length - 2);
-		} else if (this.register.getSubCommands(this.clazz).size() == 0 && this.isDefault()) {
-			if (!this.canTabCompleteValues(sender, args, true)) {
-				return new ArrayList<>();
-			}
-			TabCompletion completion = this.register.getTabCompletion(this.register.getDefaultHandler(this.clazz));
-			if (completion == null || args.length > completion.value().length) return new ArrayList<>();
-			return CompletionId.getArgsFromObj(completion, args.length - 1);
+	private List<String> completeArgs(CommandSender sender, String[] args) {
+		if (this.rateLimit != null && !this.register.getRateLimiter().tryTabComplete(sender, this.cmd.value(),
+				this.rateLimit)) {
+			return new ArrayList<>();
+		}
+		if (this.permission != null && !this.register.getPermissionCache().hasPermission(sender, this.permission)) {
+			return new ArrayList<>();
 		}
-		return new ArrayList<>();
+		return this.graph.suggest(sender, args);
+	}
+
+	/**
+	 * Returns the graph the command was compiled into.
+	 *
+	 * @return CommandGraph.
+	 */
+	public CommandGraph getGraph() {
+		return this.graph;
 	}
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import org.bukkit.command.CommandSender;
+
+/**
+ * Converts an argument typed by the sender into the type of the handler parameter. Parsers validate and convert in
+ * one pass and return null instead of throwing when the argument is invalid.
+ *
+ * @param <T> Type of the parsed argument.
+ * @see ArgumentParsers
+ */
+@FunctionalInterface
+public interface ArgumentParser<T> {
+
+	/**
+	 * Parses the argument.
+	 *
+	 * @param sender CommandSender that typed the argument.
+	 * @param input  The argument.
+	 * @return The parsed argument, null if it is invalid.
+	 */
+	T parse(CommandSender sender, String input);
+
+	/**
+	 * The message sent to the sender when the argument is invalid.
+	 *
+	 * @return Error message.
+	 */
+	default String getErrorMessage() {
+		return "Sorry, but that's an invalid parameter.";
+	}
+
+	/**
+	 * Creates a parser with a custom error message.
+	 *
+	 * @param parser       The parser.
+	 * @param errorMessage The message sent when the argument is invalid.
+	 * @param <T>          Type of the parsed argument.
+	 * @return ArgumentParser.
+	 */
+	static <T> ArgumentParser<T> of(ArgumentParser<T> parser, String errorMessage) {
+		return new ArgumentParser<T>() {
+			@Override
+			public T parse(CommandSender sender, String input) {
+				return parser.parse(sender, input);
+			}
+
+			@Override
+			public String getErrorMessage() {
+				return errorMessage;
+			}
+		};
+	}
+}
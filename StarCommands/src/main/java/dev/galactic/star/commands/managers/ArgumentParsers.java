@@ -0,0 +1,240 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import dev.galactic.star.commands.annotations.TabCompletion;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Sound;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The registry of ArgumentParsers. Parsers are looked up by the @TabCompletion ID first and by the parameter type
+ * second, once per handler parameter when the command is registered, so executing a command doesn't match any IDs.
+ *
+ * @see ArgumentParser
+ */
+public class ArgumentParsers {
+	private static final Pattern DECIMAL = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+	private static final ArgumentParser<String> STRING = (sender, input) -> input;
+	private final Map<String, ArgumentParser<?>> byId = new ConcurrentHashMap<>();
+	private final Map<Class<?>, ArgumentParser<?>> byType = new ConcurrentHashMap<>();
+	private final CompletionRegistry completions;
+
+	/**
+	 * Creates a registry with the parsers of the built-in IDs and common types.
+	 *
+	 * @param completions The custom tab completions whose options are accepted for custom IDs. Null to accept any
+	 *                    input for custom IDs.
+	 */
+	public ArgumentParsers(CompletionRegistry completions) {
+		this.completions = completions;
+		ArgumentParser<Integer> integer = ArgumentParser.of((sender, input) -> {
+			Long value = parseLong(input);
+			return value == null || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? null :
+					value.intValue();
+		}, "Invalid parameters. It needs to be a number.");
+		ArgumentParser<Long> longParser = ArgumentParser.of((sender, input) -> parseLong(input),
+				"Invalid parameters. It needs to be a number.");
+		ArgumentParser<Double> doubleParser = ArgumentParser.of((sender, input) ->
+				DECIMAL.matcher(input).matches() ? Double.parseDouble(input) : null,
+				"Invalid parameters. It needs to be a number.");
+		ArgumentParser<Float> floatParser = ArgumentParser.of((sender, input) ->
+				DECIMAL.matcher(input).matches() ? Float.parseFloat(input) : null,
+				"Invalid parameters. It needs to be a number.");
+		ArgumentParser<Boolean> bool = ArgumentParser.of((sender, input) -> {
+			if (input.equalsIgnoreCase("true")) return Boolean.TRUE;
+			if (input.equalsIgnoreCase("false")) return Boolean.FALSE;
+			return null;
+		}, "Invalid parameters. It needs to be true or false.");
+		ArgumentParser<Player> player = ArgumentParser.of((sender, input) -> Bukkit.getPlayer(input),
+				"Invalid parameters. This player doesn't exist.");
+		ArgumentParser<World> world = ArgumentParser.of((sender, input) -> Bukkit.getWorld(input),
+				"Invalid parameters. This world doesn't exist.");
+		ArgumentParser<Material> material = ArgumentParser.of(enumParser(Material.class),
+				"Invalid parameters. This type of material doesn't exist.");
+		ArgumentParser<Sound> sound = ArgumentParser.of(enumParser(Sound.class),
+				"Invalid parameters. This sound doesn't exist.");
+		ArgumentParser<EntityType> entity = ArgumentParser.of(enumParser(EntityType.class),
+				"Invalid parameters. This entity type doesn't exist");
+
+		this.registerType(String.class, STRING);
+		this.registerType(Object.class, STRING);
+		this.registerType(Integer.class, integer);
+		this.registerType(int.class, integer);
+		this.registerType(Long.class, longParser);
+		this.registerType(long.class, longParser);
+		this.registerType(Double.class, doubleParser);
+		this.registerType(double.class, doubleParser);
+		this.registerType(Float.class, floatParser);
+		this.registerType(float.class, floatParser);
+		this.registerType(Boolean.class, bool);
+		this.registerType(boolean.class, bool);
+		this.registerType(Player.class, player);
+		this.registerType(World.class, world);
+		this.registerType(Material.class, material);
+		this.registerType(Sound.class, sound);
+		this.registerType(EntityType.class, entity);
+
+		this.byId.put(CompletionId.PLAYER.name(), player);
+		this.byId.put(CompletionId.RANGE.name(), integer);
+		this.byId.put(CompletionId.MATERIAL.name(), material);
+		this.byId.put(CompletionId.BOOLEAN.name(), bool);
+		this.byId.put(CompletionId.SOUND.name(), sound);
+		this.byId.put(CompletionId.WORLD.name(), world);
+		this.byId.put(CompletionId.ENTITY.name(), entity);
+		this.byId.put(CompletionId.CONFIG.name(), STRING);
+		this.byId.put(CompletionId.EMPTY.name(), STRING);
+	}
+
+	/**
+	 * Parses a whole number without throwing on invalid input.
+	 *
+	 * @param input The text to parse.
+	 * @return The number, null if it isn't a valid long.
+	 */
+	public static Long parseLong(String input) {
+		int length = input.length();
+		if (length == 0) {
+			return null;
+		}
+		int i = 0;
+		boolean negative = false;
+		char first = input.charAt(0);
+		if (first == '-' || first == '+') {
+			if (length == 1) {
+				return null;
+			}
+			negative = first == '-';
+			i++;
+		}
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long multiplyLimit = limit / 10;
+		long result = 0;
+		for (; i < length; i++) {
+			int digit = input.charAt(i) - '0';
+			if (digit < 0 || digit > 9 || result < multiplyLimit) {
+				return null;
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				return null;
+			}
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+
+	private static <E extends Enum<E>> ArgumentParser<E> enumParser(Class<E> type) {
+		Map<String, E> constants = new HashMap<>();
+		for (E constant : type.getEnumConstants()) {
+			constants.put(constant.name(), constant);
+		}
+		return (sender, input) -> constants.get(input.toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * Registers a parser for a custom @TabCompletion ID. It takes precedence over the parameter type.
+	 *
+	 * @param id     ID of the tab completion.
+	 * @param parser The parser.
+	 */
+	public void registerId(String id, ArgumentParser<?> parser) {
+		this.byId.put(id, parser);
+	}
+
+	/**
+	 * Registers a parser for the parameter type.
+	 *
+	 * @param type   Type of the handler parameter.
+	 * @param parser The parser.
+	 * @param <T>    Type of the parsed argument.
+	 */
+	public <T> void registerType(Class<T> type, ArgumentParser<? extends T> parser) {
+		this.byType.put(type, parser);
+	}
+
+	/**
+	 * Resolves the parser of one argument.
+	 *
+	 * @param id   The @TabCompletion ID, may be null.
+	 * @param type Type of the handler parameter.
+	 * @return ArgumentParser, never null.
+	 */
+	public ArgumentParser<?> resolve(String id, Class<?> type) {
+		if (id != null) {
+			ArgumentParser<?> parser = this.byId.get(id);
+			if (parser != null) {
+				return parser;
+			}
+			CompletionId completionId = CompletionId.of(id);
+			if (completionId != null) {
+				return this.byId.get(completionId.name());
+			}
+			if (type == String.class || type == Object.class) {
+				return this.customOptionParser(id);
+			}
+		}
+		ArgumentParser<?> parser = this.byType.get(type);
+		if (parser == null && type.isEnum()) {
+			parser = this.enumTypeParser(type);
+		}
+		return parser == null ? STRING : parser;
+	}
+
+	/**
+	 * Resolves the parsers of every argument of the handler. The sender parameter is skipped, so index 0 is the
+	 * first argument.
+	 *
+	 * @param method     The handler method.
+	 * @param completion The @TabCompletion annotation of the handler, may be null.
+	 * @return Array of parsers.
+	 */
+	public ArgumentParser<?>[] resolve(Method method, TabCompletion completion) {
+		Class<?>[] types = method.getParameterTypes();
+		String[] ids = completion == null ? new String[0] : completion.value();
+		ArgumentParser<?>[] parsers = new ArgumentParser<?>[Math.max(0, types.length - 1)];
+		for (int i = 0; i < parsers.length; i++) {
+			parsers[i] = this.resolve(i < ids.length ? ids[i] : null, types[i + 1]);
+		}
+		return parsers;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private ArgumentParser<?> enumTypeParser(Class<?> type) {
+		ArgumentParser<?> parser = enumParser((Class) type);
+		this.byType.putIfAbsent(type, parser);
+		return parser;
+	}
+
+	private ArgumentParser<String> customOptionParser(String id) {
+		return (sender, input) -> {
+			List<String> options = this.completions == null ? null : this.completions.getOptions(id);
+			return options == null || options.contains(input) ? input : null;
+		};
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the handlers of async commands off the main thread. The amount of handlers that can be running or waiting at
+ * once is bounded, so a burst of commands can't pile up work without limit. Virtual threads are used when the JVM
+ * supports them, else a fixed pool of daemon threads.
+ */
+public class AsyncCommandDispatcher {
+	private static final long SHUTDOWN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	private final ExecutorService executor;
+	private final Semaphore capacity;
+	private final boolean virtual;
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicInteger peakQueued = new AtomicInteger();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * Creates a dispatcher.
+	 *
+	 * @param threads       Amount of worker threads if virtual threads aren't available.
+	 * @param queueCapacity Amount of handlers that can wait for a thread before new ones are rejected.
+	 */
+	public AsyncCommandDispatcher(int threads, int queueCapacity) {
+		if (threads < 1 || queueCapacity < 0) {
+			throw new IllegalArgumentException("There must be at least one thread and the queue can't be negative.");
+		}
+		ExecutorService virtualExecutor = createVirtualExecutor();
+		this.virtual = virtualExecutor != null;
+		this.capacity = new Semaphore(threads + queueCapacity);
+		if (this.virtual) {
+			this.executor = virtualExecutor;
+		} else {
+			AtomicInteger count = new AtomicInteger();
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), r -> {
+				Thread thread = new Thread(r, "StarCommands-Async-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			pool.allowCoreThreadTimeOut(true);
+			this.executor = pool;
+		}
+	}
+
+	private static ExecutorService createVirtualExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (ReflectiveOperationException | UnsupportedOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Runs the task on a worker.
+	 *
+	 * @param task The handler invocation.
+	 * @return True if it was accepted, false if the dispatcher is full.
+	 */
+	public boolean dispatch(Runnable task) {
+		if (!this.capacity.tryAcquire()) {
+			this.rejected.increment();
+			return false;
+		}
+		int depth = this.queued.incrementAndGet();
+		this.peakQueued.accumulateAndGet(depth, Math::max);
+		try {
+			this.executor.execute(() -> {
+				this.queued.decrementAndGet();
+				this.active.incrementAndGet();
+				try {
+					task.run();
+				} finally {
+					this.active.decrementAndGet();
+					this.completed.increment();
+					this.capacity.release();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			this.queued.decrementAndGet();
+			this.capacity.release();
+			this.rejected.increment();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the amount of handlers that are waiting for a worker.
+	 *
+	 * @return Queue depth.
+	 */
+	public int getQueueDepth() {
+		return this.queued.get();
+	}
+
+	/**
+	 * Returns the highest queue depth that has been reached.
+	 *
+	 * @return Peak queue depth.
+	 */
+	public int getPeakQueueDepth() {
+		return this.peakQueued.get();
+	}
+
+	/**
+	 * Returns the amount of handlers that are running.
+	 *
+	 * @return Active handlers.
+	 */
+	public int getActiveCount() {
+		return this.active.get();
+	}
+
+	/**
+	 * Returns the amount of handlers that finished running.
+	 *
+	 * @return Completed handlers.
+	 */
+	public long getCompletedCount() {
+		return this.completed.sum();
+	}
+
+	/**
+	 * Returns the amount of handlers that were rejected because the dispatcher was full.
+	 *
+	 * @return Rejected handlers.
+	 */
+	public long getRejectedCount() {
+		return this.rejected.sum();
+	}
+
+	/**
+	 * Checks whether the handlers run on virtual threads.
+	 *
+	 * @return True if they do, false if they run on the thread pool.
+	 */
+	public boolean isVirtual() {
+		return this.virtual;
+	}
+
+	/**
+	 * Stops accepting handlers and waits up to the timeout for the running ones to finish.
+	 *
+	 * @param timeout Time to wait.
+	 * @param unit    TimeUnit of the timeout.
+	 */
+	public void shutdown(long timeout, TimeUnit unit) {
+		this.shutdown(timeout, unit, () -> {
+		});
+	}
+
+	/**
+	 * Stops accepting handlers and waits up to the timeout for the running ones to finish, running the task every few
+	 * milliseconds while waiting, e.g. to run the main thread tasks the handlers wait for.
+	 *
+	 * @param timeout      Time to wait.
+	 * @param unit         TimeUnit of the timeout.
+	 * @param whileWaiting Task run while waiting.
+	 */
+	public void shutdown(long timeout, TimeUnit unit, Runnable whileWaiting) {
+		this.executor.shutdown();
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		try {
+			while (true) {
+				whileWaiting.run();
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0 ||
+						this.executor.awaitTermination(Math.min(remaining, SHUTDOWN_POLL_NANOS), TimeUnit.NANOSECONDS)) {
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Wraps a CompletionProvider with a TTL cache and, optionally, asynchronous lookups.
+ * <p>
+ * Results are cached per provider and previous arguments. The argument being completed isn't part of the key, as the
+ * options are filtered by what was typed afterwards, so the provider should return every option. If the options
+ * depend on who is typing, enable per sender caching so a sender never gets the result of another sender.
+ * <p>
+ * An asynchronous lookup runs off the calling thread, which waits for it up to the timeout. If it takes longer, the
+ * expired result of the same key is returned if there is one, else no options, and the cache is filled once the
+ * lookup completes.
+ *
+ * @see CompletionProvider
+ */
+public class CachedCompletionProvider implements CompletionProvider {
+	/**
+	 * How long the calling thread waits for an asynchronous lookup by default, in milliseconds.
+	 */
+	public static final long DEFAULT_TIMEOUT_MILLIS = 50;
+	private static final int MAX_ENTRIES = 512;
+	private static final ExecutorService EXECUTOR = createExecutor();
+	private final CompletionProvider provider;
+	private final long ttlMillis;
+	private final boolean async;
+	private final long timeoutMillis;
+	private final boolean perSender;
+	private final Logger logger;
+	private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, CompletableFuture<List<String>>> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a synchronous cached provider.
+	 *
+	 * @param provider The provider to wrap.
+	 * @param ttl      How long a result stays cached.
+	 * @param unit     TimeUnit of the ttl.
+	 */
+	public CachedCompletionProvider(CompletionProvider provider, long ttl, TimeUnit unit) {
+		this(provider, ttl, unit, false, null);
+	}
+
+	/**
+	 * Creates a cached provider shared by all senders, whose asynchronous lookups are waited for up to
+	 * {@value #DEFAULT_TIMEOUT_MILLIS} milliseconds.
+	 *
+	 * @param provider The provider to wrap.
+	 * @param ttl      How long a result stays cached.
+	 * @param unit     TimeUnit of the ttl.
+	 * @param async    Whether to run the provider off the calling thread.
+	 * @param logger   Logger of the asynchronous lookups that fail, e.g. the plugin logger.
+	 */
+	public CachedCompletionProvider(CompletionProvider provider, long ttl, TimeUnit unit, boolean async,
+	                                Logger logger) {
+		this(provider, ttl, unit, async, DEFAULT_TIMEOUT_MILLIS, false, logger);
+	}
+
+	/**
+	 * Creates a cached provider.
+	 *
+	 * @param provider      The provider to wrap.
+	 * @param ttl           How long a result stays cached.
+	 * @param unit          TimeUnit of the ttl.
+	 * @param async         Whether to run the provider off the calling thread.
+	 * @param timeoutMillis How long the calling thread waits for an asynchronous lookup, 0 to never wait.
+	 * @param perSender     Whether the results are cached per sender instead of shared by all senders.
+	 * @param logger        Logger of the asynchronous lookups that fail, e.g. the plugin logger.
+	 */
+	public CachedCompletionProvider(CompletionProvider provider, long ttl, TimeUnit unit, boolean async,
+	                                long timeoutMillis, boolean perSender, Logger logger) {
+		if (provider == null) {
+			throw new IllegalArgumentException("The completion provider can't be null.");
+		}
+		if (timeoutMillis < 0) {
+			throw new IllegalArgumentException("The timeout can't be negative.");
+		}
+		this.provider = provider;
+		this.ttlMillis = unit.toMillis(ttl);
+		this.async = async;
+		this.timeoutMillis = timeoutMillis;
+		this.perSender = perSender;
+		this.logger = logger == null ? Logger.getLogger(CachedCompletionProvider.class.getName()) : logger;
+	}
+
+	private static ExecutorService createExecutor() {
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(4, 4, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(256), r -> {
+			Thread thread = new Thread(r, "StarCommands-Completion-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Returns the key of the arguments before the one being completed, prefixed by the sender if cached per sender.
+	 */
+	private String key(CommandSender sender, String[] args) {
+		StringBuilder key = new StringBuilder();
+		if (this.perSender) {
+			key.append(sender instanceof Player ? ((Player) sender).getUniqueId().toString() : sender.getName());
+		}
+		for (int i = 0; i < args.length - 1; i++) {
+			key.append('\0').append(args[i]);
+		}
+		return key.toString();
+	}
+
+	@Override
+	public List<String> complete(CommandSender sender, String[] args, String token) {
+		String key = this.key(sender, args);
+		long now = System.currentTimeMillis();
+		Entry entry = this.cache.get(key);
+		if (entry != null && entry.expiresAt > now) {
+			return entry.options;
+		}
+		if (!this.async) {
+			return this.store(key, this.provider.complete(sender, args, token), now);
+		}
+		List<String> stale = entry != null ? entry.options : Collections.emptyList();
+		CompletableFuture<List<String>> lookup = new CompletableFuture<>();
+		CompletableFuture<List<String>> running = this.pending.putIfAbsent(key, lookup);
+		if (running == null) {
+			try {
+				EXECUTOR.execute(() -> this.lookup(key, lookup, sender, args, token));
+			} catch (RejectedExecutionException e) {
+				this.pending.remove(key, lookup);
+				return stale;
+			}
+			running = lookup;
+		}
+		if (this.timeoutMillis == 0) {
+			return stale;
+		}
+		try {
+			return running.get(this.timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException | ExecutionException e) {
+			return stale;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return stale;
+		}
+	}
+
+	private void lookup(String key, CompletableFuture<List<String>> lookup, CommandSender sender, String[] args,
+	                    String token) {
+		try {
+			List<String> options = this.provider.complete(sender, args, token);
+			lookup.complete(this.store(key, options, System.currentTimeMillis()));
+		} catch (Throwable t) {
+			this.logger.log(Level.WARNING, "The completion provider failed.", t);
+			lookup.completeExceptionally(t);
+		} finally {
+			this.pending.remove(key, lookup);
+		}
+	}
+
+	/**
+	 * Clears all the cached results.
+	 */
+	public void invalidate() {
+		this.cache.clear();
+	}
+	private List<String> store(String key, List<String> options, long now) {
+		List<String> result = options == null ? Collections.emptyList() :
+				Collections.unmodifiableList(new ArrayList<>(options));
+		if (this.cache.size() >= MAX_ENTRIES) {
+			this.cache.values().removeIf(e -> e.expiresAt <= now);
+			if (this.cache.size() >= MAX_ENTRIES) {
+				this.cache.clear();
+			}
+		}
+		this.cache.put(key, new Entry(result, now + this.ttlMillis));
+		return result;
+	}
+
+	private static final class Entry {
+		private final List<String> options;
+		private final long expiresAt;
+
+		private Entry(List<String> options, long expiresAt) {
+			this.options = options;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution metrics of a command and its subcommands. The latency is the time spent on the calling thread, which for
+ * an async handler is only the time it took to dispatch it; the time until an async handler completes is kept in a
+ * separate histogram. All the counters are striped, so recording doesn't contend between threads.
+ */
+public class CommandMetrics {
+	private final String name;
+	private final LongAdder invocations = new LongAdder();
+	private final LongAdder successes = new LongAdder();
+	private final LongAdder denied = new LongAdder();
+	private final LongAdder usageErrors = new LongAdder();
+	private final LongAdder cooldownRejections = new LongAdder();
+	private final LongAdder rateLimited = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LatencyHistogram asyncLatency = new LatencyHistogram();
+	private final LatencyHistogram tabCompleteLatency = new LatencyHistogram();
+	private final ConcurrentHashMap<String, CommandMetrics> subCommands = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates empty metrics.
+	 *
+	 * @param name Name of the command or subcommand.
+	 */
+	public CommandMetrics(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Records an execution.
+	 *
+	 * @param outcome The outcome of the execution.
+	 * @param nanos   Time it took on the calling thread.
+	 */
+	public void record(Outcome outcome, long nanos) {
+		this.count(outcome);
+		this.latency.record(nanos);
+	}
+
+	/**
+	 * Records the time it took to dispatch an async handler on the calling thread. Its outcome is recorded with
+	 * {@link #recordAsync(Outcome, long)} once it completes.
+	 *
+	 * @param nanos Time it took on the calling thread.
+	 */
+	public void recordDispatch(long nanos) {
+		this.latency.record(nanos);
+	}
+
+	/**
+	 * Records the completion of an async handler.
+	 *
+	 * @param outcome The outcome of the execution.
+	 * @param nanos   Time from the dispatch until it completed, including the time it waited for a worker.
+	 */
+	public void recordAsync(Outcome outcome, long nanos) {
+		this.count(outcome);
+		this.asyncLatency.record(nanos);
+	}
+
+	private void count(Outcome outcome) {
+		this.invocations.increment();
+		switch (outcome) {
+			case SUCCESS: {
+				this.successes.increment();
+				break;
+			}
+			case DENIED: {
+				this.denied.increment();
+				break;
+			}
+			case USAGE_ERROR: {
+				this.usageErrors.increment();
+				break;
+			}
+			case COOLDOWN: {
+				this.cooldownRejections.increment();
+				break;
+			}
+			case RATE_LIMITED: {
+				this.rateLimited.increment();
+				break;
+			}
+			default: {
+				this.errors.increment();
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Records a tab completion.
+	 *
+	 * @param nanos Time it took.
+	 */
+	public void recordTabComplete(long nanos) {
+		this.tabCompleteLatency.record(nanos);
+	}
+
+	/**
+	 * Returns the metrics of the subcommand, creating them if they don't exist.
+	 *
+	 * @param name Name of the subcommand.
+	 * @return CommandMetrics of the subcommand.
+	 */
+	public CommandMetrics getSubCommand(String name) {
+		return this.subCommands.computeIfAbsent(name, subCommand -> new CommandMetrics(this.name + " " + subCommand));
+	}
+
+	/**
+	 * Returns the name of the command.
+	 *
+	 * @return Name.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns an immutable copy of the metrics.
+	 *
+	 * @return Snapshot.
+	 */
+	public Snapshot snapshot() {
+		Map<String, Snapshot> subCommands = new LinkedHashMap<>();
+		this.subCommands.forEach((name, metrics) -> subCommands.put(name, metrics.snapshot()));
+		return new Snapshot(this.name, this.invocations.sum(), this.successes.sum(), this.denied.sum(),
+				this.usageErrors.sum(), this.cooldownRejections.sum(), this.rateLimited.sum(), this.errors.sum(),
+				this.latency.snapshot(), this.asyncLatency.snapshot(), this.tabCompleteLatency.snapshot(),
+				Collections.unmodifiableMap(subCommands));
+	}
+
+	/**
+	 * The outcome of an execution. COOLDOWN is a rejection by the @Cooldown, RATE_LIMITED one by the @RateLimit.
+	 */
+	public enum Outcome {
+		SUCCESS,
+		DENIED,
+		USAGE_ERROR,
+		COOLDOWN,
+		RATE_LIMITED,
+		ERROR
+	}
+
+	/**
+	 * An immutable copy of CommandMetrics.
+	 */
+	public static final class Snapshot {
+		private final String name;
+		private final long invocations;
+		private final long successes;
+		private final long denied;
+		private final long usageErrors;
+		private final long cooldownRejections;
+		private final long rateLimited;
+		private final long errors;
+		private final LatencyHistogram.Snapshot latency;
+		private final LatencyHistogram.Snapshot asyncLatency;
+		private final LatencyHistogram.Snapshot tabCompleteLatency;
+		private final Map<String, Snapshot> subCommands;
+
+		private Snapshot(String name, long invocations, long successes, long denied, long usageErrors,
+		                 long cooldownRejections, long rateLimited, long errors, LatencyHistogram.Snapshot latency,
+		                 LatencyHistogram.Snapshot asyncLatency, LatencyHistogram.Snapshot tabCompleteLatency,
+		                 Map<String, Snapshot> subCommands) {
+			this.name = name;
+			this.invocations = invocations;
+			this.successes = successes;
+			this.denied = denied;
+			this.usageErrors = usageErrors;
+			this.cooldownRejections = cooldownRejections;
+			this.rateLimited = rateLimited;
+			this.errors = errors;
+			this.latency = latency;
+			this.asyncLatency = asyncLatency;
+			this.tabCompleteLatency = tabCompleteLatency;
+			this.subCommands = subCommands;
+		}
+
+		/**
+		 * Returns the name of the command or subcommand.
+		 *
+		 * @return Name.
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Returns the amount of executions, whatever their outcome.
+		 *
+		 * @return Count.
+		 */
+		public long getInvocations() {
+			return this.invocations;
+		}
+
+		/**
+		 * Returns the amount of executions that succeeded.
+		 *
+		 * @return Count.
+		 */
+		public long getSuccesses() {
+			return this.successes;
+		}
+
+		/**
+		 * Returns the amount of executions denied for a missing permission or the wrong kind of sender.
+		 *
+		 * @return Count.
+		 */
+		public long getDenied() {
+			return this.denied;
+		}
+
+		/**
+		 * Returns the amount of executions with wrong arguments.
+		 *
+		 * @return Count.
+		 */
+		public long getUsageErrors() {
+			return this.usageErrors;
+		}
+
+		/**
+		 * Returns the amount of executions rejected by the @Cooldown.
+		 *
+		 * @return Count.
+		 */
+		public long getCooldownRejections() {
+			return this.cooldownRejections;
+		}
+
+		/**
+		 * Returns the amount of executions rejected by the @RateLimit.
+		 *
+		 * @return Count.
+		 */
+		public long getRateLimited() {
+			return this.rateLimited;
+		}
+
+		/**
+		 * Returns the amount of executions that failed.
+		 *
+		 * @return Count.
+		 */
+		public long getErrors() {
+			return this.errors;
+		}
+
+		/**
+		 * Returns the latencies of the executions on the calling thread.
+		 *
+		 * @return LatencyHistogram.Snapshot.
+		 */
+		public LatencyHistogram.Snapshot getLatency() {
+			return this.latency;
+		}
+
+		/**
+		 * Returns the times from dispatching an async handler until it completed.
+		 *
+		 * @return LatencyHistogram.Snapshot.
+		 */
+		public LatencyHistogram.Snapshot getAsyncLatency() {
+			return this.asyncLatency;
+		}
+
+		/**
+		 * Returns the latencies of the tab completions.
+		 *
+		 * @return LatencyHistogram.Snapshot.
+		 */
+		public LatencyHistogram.Snapshot getTabCompleteLatency() {
+			return this.tabCompleteLatency;
+		}
+
+		/**
+		 * Returns the snapshots of the subcommands.
+		 *
+		 * @return Unmodifiable Map of the subcommand names to their snapshots.
+		 */
+		public Map<String, Snapshot> getSubCommands() {
+			return this.subCommands;
+		}
+	}
+}
@@ -21,13 +21,13 @@ import dev.galactic.star.commands.annotations.TabCompletion;
 import dev.galactic.star.commands.exceptions.UnknownCompletionIdException;
 import org.bukkit.*;
 import org.bukkit.command.CommandSender;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public enum CompletionId {
@@ -76,20 +76,60 @@ public enum CompletionId {
 	 */
 	EMPTY("\\.empty");
 
-	private final String id;
+	private static final ArgumentParsers PARSERS = new ArgumentParsers(null);
+	private final Pattern id;
 
 	CompletionId(String id) {
-		this.id = id;
+		this.id = Pattern.compile(id);
 	}
 
 	/**
-	 * Returns a HashMap of the type and options.
+	 * Returns the built-in ID the @TabCompletion value matches.
+	 *
+	 * @param value The @TabCompletion value.
+	 * @return CompletionId, null if it is a custom ID.
+	 */
+	public static CompletionId of(String value) {
+		for (CompletionId completionId : values()) {
+			if (completionId.id.matcher(value).matches()) {
+				return completionId;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a HashMap of the type and options. The custom options are read from Register.customOptions and the
+	 * config completions from Register.config; completion providers aren't known here.
 	 *
 	 * @param completion TabCompletion annotation.
 	 * @param index      The index of the TabCompletion values.
 	 * @return HashMap&lt;String, List&lt;String&gt;&gt;
+	 * @deprecated Use {@link #getArgsFromObj(CommandSender, String[], TabCompletion, int, CompletionRegistry)} with
+	 * Register#getCompletionRegistry(), which also completes the providers.
 	 */
+	@Deprecated
 	public static List<String> getArgsFromObj(TabCompletion completion, int index) {
+		CompletionRegistry completions = new CompletionRegistry();
+		Register.customOptions.forEach(completions::registerOptions);
+		if (Register.config != null) {
+			completions.getConfigCompletions().reload(Register.config);
+		}
+		return getArgsFromObj(null, new String[0], completion, index, completions);
+	}
+
+	/**
+	 * Returns a HashMap of the type and options.
+	 *
+	 * @param sender      CommandSender that is tab completing.
+	 * @param args        The arguments typed so far.
+	 * @param completion  TabCompletion annotation.
+	 * @param index       The index of the TabCompletion values.
+	 * @param completions The custom tab completions of the Register.
+	 * @return HashMap&lt;String, List&lt;String&gt;&gt;
+	 */
+	public static List<String> getArgsFromObj(CommandSender sender, String[] args, TabCompletion completion,
+	                                          int index, CompletionRegistry completions) {
 		if (completion == null) {
 			return new ArrayList<>();
 		}
@@ -99,59 +139,71 @@ public enum CompletionId {
 			throw new IllegalArgumentException("Please specify a type of tab completion. It can't be blank.");
 		}
 		String val = values[index];
-		if (val.matches(PLAYER.id)) {
-			return Bukkit.getOnlinePlayers()
-					.stream()
-					.map(Player::getName)
-					.sorted()
-					.collect(Collectors.toList());
-		} else if (val.matches(RANGE.id)) {
-			String[] splitLowerCase = val.replaceAll("(\\.range|[\\(\\)])", "")
-					.split("-");
-			int fromRange = Integer.parseInt(splitLowerCase[0]);
-			int toRange = Integer.parseInt(splitLowerCase[1]);
-			List<String> lis = new ArrayList<>();
-			for (int i = fromRange; i < toRange; i++) {
-				lis.add(String.valueOf(i));
-			}
-			return lis;
-		} else if (val.matches(MATERIAL.id)) {
-			return Arrays.stream(Material.values())
-					.map(Enum::name)
-					.sorted()
-					.collect(Collectors.toList());
-		} else if (val.matches(BOOLEAN.id)) {
-			return Arrays.asList("true", "false");
-		} else if (val.matches(SOUND.id)) {
-			return Arrays.stream(Sound.values())
-					.map(Enum::name)
-					.sorted()
-					.collect(Collectors.toList());
-		} else if (val.matches(WORLD.id)) {
-			return Bukkit.getWorlds()
-					.stream()
-					.map(World::getName)
-					.sorted()
-					.collect(Collectors.toList());
-		} else if (val.matches(ENTITY.id)) {
-			return Arrays.stream(EntityType.values())
-					.map(EntityType::name)
-					.sorted()
-					.collect(Collectors.toList());
-		} else if (val.matches(EMPTY.id)) {
-			return new ArrayList<>();
-		} else if (val.matches(CONFIG.id)) {
-			String configPath = val.replaceAll("(\\.config|[\\(\\)])", "");
-			System.out.println(configPath);
-			FileConfiguration config = Register.config;
-			if (config == null) {
-				System.out.println("NO CONFIG");
-				return new ArrayList<>();
+		CompletionId completionId = of(val);
+		if (completionId != null) {
+			switch (completionId) {
+				case PLAYER: {
+					return Bukkit.getOnlinePlayers()
+							.stream()
+							.map(Player::getName)
+							.sorted()
+							.collect(Collectors.toList());
+				}
+				case RANGE: {
+					String[] splitLowerCase = val.replaceAll("(\\.range|[\\(\\)])", "")
+							.split("-");
+					int fromRange = Integer.parseInt(splitLowerCase[0]);
+					int toRange = Integer.parseInt(splitLowerCase[1]);
+					List<String> lis = new ArrayList<>();
+					for (int i = fromRange; i < toRange; i++) {
+						lis.add(String.valueOf(i));
+					}
+					return lis;
+				}
+				case MATERIAL: {
+					return Arrays.stream(Material.values())
+							.map(Enum::name)
+							.sorted()
+							.collect(Collectors.toList());
+				}
+				case BOOLEAN: {
+					return Arrays.asList("true", "false");
+				}
+				case SOUND: {
+					return Arrays.stream(Sound.values())
+							.map(Enum::name)
+							.sorted()
+							.collect(Collectors.toList());
+				}
+				case WORLD: {
+					return Bukkit.getWorlds()
+							.stream()
+							.map(World::getName)
+							.sorted()
+							.collect(Collectors.toList());
+				}
+				case ENTITY: {
+					return Arrays.stream(EntityType.values())
+							.map(EntityType::name)
+							.sorted()
+							.collect(Collectors.toList());
+				}
+				case CONFIG: {
+					return completions.getConfigCompletions()
+							.get(val.substring(".config(".length(), val.length() - 1));
+				}
+				default: {
+					return new ArrayList<>();
+				}
 			}
-			return config.getStringList(configPath);
 		}
-		if (Register.customOptions.containsKey(val)) {
-			return Register.customOptions.get(val);
+		List<String> options = completions.getOptions(val);
+		if (options != null) {
+			return options;
+		}
+		CompletionProvider provider = completions.getProvider(val);
+		if (provider != null) {
+			return provider.complete(sender, args, args.length == 0 ? "" : args[args.length - 1]);
 		}
 		try {
 			throw new UnknownCompletionIdException("Illegal @TabCompletion ID \"" + val + "\"");
@@ -161,14 +213,33 @@ public enum CompletionId {
 	}
 
 	/**
-	 * Gets the Object of the specified option.
+	 * Gets the Object of the specified option. Only the built-in IDs are parsed; custom IDs and parsers registered on
+	 * the Register aren't known here.
 	 *
 	 * @param completion TabCompletion annotation.
 	 * @param index      Index of the type of tab complete.
 	 * @param option     Option the user chose.
-	 * @return Object of option type.
+	 * @return Object of option type, null if the option is invalid.
+	 * @deprecated Use {@link #getObjArgsFrom(ArgumentParsers, TabCompletion, int, String)} with
+	 * Register#getArgumentParsers(), which also parses the custom IDs.
 	 */
+	@Deprecated
 	public static Object getObjArgsFrom(TabCompletion completion, int index, String option) {
+		return getObjArgsFrom(PARSERS, completion, index, option);
+	}
+
+	/**
+	 * Gets the Object of the specified option.
+	 *
+	 * @param parsers    ArgumentParsers of the Register, see Register#getArgumentParsers().
+	 * @param completion TabCompletion annotation.
+	 * @param index      Index of the type of tab complete.
+	 * @param option     Option the user chose.
+	 * @return Object of option type, null if the option is invalid.
+	 * @see ArgumentParsers
+	 */
+	public static Object getObjArgsFrom(ArgumentParsers parsers, TabCompletion completion, int index,
+	                                    String option) {
 		String[] values = completion.value();
 		if (values.length == 0) {
 			throw new IllegalArgumentException("Please specify a type of tab completion. It can't be blank.");
@@ -176,74 +247,42 @@ public enum CompletionId {
 		if (completion.value().length <= index) {
 			return option;
 		}
-		String val = values[index];
-		if (val.matches(PLAYER.id)) {
-			return Bukkit.getPlayer(option);
-		} else if (val.matches(RANGE.id)) {
-			return Integer.valueOf(option);
-		} else if (val.matches(MATERIAL.id)) {
-			return Material.getMaterial(option);
-		} else if (val.equals(BOOLEAN.id)) {
-			return Boolean.getBoolean(option);
-		} else if (val.equals(SOUND.id)) {
-			return Sound.valueOf(option.toUpperCase());
-		} else if (val.equals(WORLD.id)) {
-			return Bukkit.getWorld(option);
-		} else if (val.equals(ENTITY.id)) {
-			return EntityType.valueOf(option.toUpperCase());
-		}
-		return option;
+		return parsers.resolve(values[index], String.class).parse(null, option);
 	}
 
 	/**
-	 * Checks whether the options are a valid tab complete option.
+	 * Checks whether the options are a valid tab complete option. Only the built-in IDs are checked; custom IDs and
+	 * parsers registered on the Register aren't known here and accept any option.
 	 *
 	 * @param sender     CommandSender.
 	 * @param completion TabCompletion annotation.
 	 * @param index      Index of the type of tab complete.
 	 * @param option     Option the sender chose.
 	 * @return True if valid, false if not.
+	 * @deprecated Use {@link #isValid(ArgumentParsers, CommandSender, TabCompletion, int, String)} with
+	 * Register#getArgumentParsers(), which also checks the custom IDs.
 	 */
+	@Deprecated
 	public static boolean isValid(CommandSender sender, TabCompletion completion, int index, String option) {
-		String[] values = completion.value();
-		String val = values[index];
-		try {
-			if (val.matches(PLAYER.id)) {
-				if (Bukkit.getPlayer(option) == null) {
-					sender.sendMessage(ChatColor.RED + "Invalid parameters. This player doesn't exist.");
-					return false;
-				}
-			} else if (val.matches(RANGE.id)) {
-				Integer.valueOf(option);
-			} else if (val.matches(MATERIAL.id)) {
-				boolean anyMatch = Arrays.stream(Material.values())
-						.anyMatch(e -> e.name().equals(option.toUpperCase()));
-				if (!anyMatch) {
-					sender.sendMessage(ChatColor.RED + "Invalid parameters. This type of material doesn't exist.");
-					return false;
-				}
-			} else if (val.equals(BOOLEAN.id)) {
-				return Boolean.getBoolean(option);
-			} else if (val.equals(SOUND.id)) {
-				Sound.valueOf(option.toUpperCase());
-			} else if (val.equals(WORLD.id)) {
-				return Bukkit.getWorld(option) != null;
-			} else if (val.equals(ENTITY.id)) {
-				boolean anyMatch = Arrays.stream(EntityType.values())
-						.anyMatch(e -> e.name().equals(option.toUpperCase()));
-				if (!anyMatch) {
-					sender.sendMessage(ChatColor.RED + "Invalid parameters. This entity type doesn't exist");
-					return false;
-				}
-			} else if (Register.customOptions.containsKey(val)) {
-				List<String> options = Register.customOptions.get(val);
-				if (!options.contains(option)) {
-					sender.sendMessage(ChatColor.RED + "Sorry, but that's an invalid parameter.");
-					return false;
-				}
-			}
-		} catch (NumberFormatException e) {
-			sender.sendMessage(ChatColor.RED + "Invalid parameters. It needs to be a number.");
+		return isValid(PARSERS, sender, completion, index, option);
+	}
+
+	/**
+	 * Checks whether the options are a valid tab complete option, sending the error message of the parser if not.
+	 *
+	 * @param parsers    ArgumentParsers of the Register, see Register#getArgumentParsers().
+	 * @param sender     CommandSender.
+	 * @param completion TabCompletion annotation.
+	 * @param index      Index of the type of tab complete.
+	 * @param option     Option the sender chose.
+	 * @return True if valid, false if not.
+	 * @see ArgumentParsers
+	 */
+	public static boolean isValid(ArgumentParsers parsers, CommandSender sender, TabCompletion completion, int index,
+	                              String option) {
+		ArgumentParser<?> parser = parsers.resolve(completion.value()[index], String.class);
+		if (parser.parse(sender, option) == null) {
+			sender.sendMessage(ChatColor.RED + parser.getErrorMessage());
 			return false;
 		}
 		return true;
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+
+/**
+ * Supplies tab completions for a custom @TabCompletion ID at the moment the sender is typing.
+ *
+ * @see CachedCompletionProvider
+ */
+@FunctionalInterface
+public interface CompletionProvider {
+
+	/**
+	 * Returns the options for the argument that is currently being completed.
+	 *
+	 * @param sender CommandSender that is tab completing.
+	 * @param args   All the arguments typed so far.
+	 * @param token  The partial argument being completed.
+	 * @return List&lt;String&gt; of the options.
+	 */
+	List<String> complete(CommandSender sender, String[] args, String token);
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The custom tab completions of one Register. Every plugin has its own registry, so plugins shading StarCommands
+ * don't see or clear each other's IDs.
+ * <p>
+ * The IDs are kept in immutable snapshots that are replaced as a whole when an ID is registered, so completing never
+ * locks and always sees a consistent set of IDs. Registering copies the snapshot, which is fine as it only happens
+ * while the plugin is enabling.
+ *
+ * @see CompletionProvider
+ * @see ConfigCompletions
+ */
+public class CompletionRegistry {
+	private final ConfigCompletions config = new ConfigCompletions();
+	private volatile Map<String, List<String>> options = Collections.emptyMap();
+	private volatile Map<String, CompletionProvider> providers = Collections.emptyMap();
+
+	/**
+	 * Registers a fixed list of options.
+	 *
+	 * @param id      ID of the tab completion.
+	 * @param options List&lt;String&gt; of the options, copied.
+	 */
+	public synchronized void registerOptions(String id, List<String> options) {
+		Map<String, List<String>> copy = new HashMap<>(this.options);
+		copy.put(id, Collections.unmodifiableList(new ArrayList<>(options)));
+		this.options = Collections.unmodifiableMap(copy);
+	}
+
+	/**
+	 * Registers a provider that completes the ID each time the sender tab completes.
+	 *
+	 * @param id       ID of the tab completion.
+	 * @param provider CompletionProvider of the options.
+	 */
+	public synchronized void registerProvider(String id, CompletionProvider provider) {
+		if (provider == null) {
+			throw new IllegalArgumentException("The completion provider can't be null.");
+		}
+		Map<String, CompletionProvider> copy = new HashMap<>(this.providers);
+		copy.put(id, provider);
+		this.providers = Collections.unmodifiableMap(copy);
+	}
+
+	/**
+	 * Removes the options and the provider of the ID.
+	 *
+	 * @param id ID of the tab completion.
+	 */
+	public synchronized void unregister(String id) {
+		if (this.options.containsKey(id)) {
+			Map<String, List<String>> copy = new HashMap<>(this.options);
+			copy.remove(id);
+			this.options = Collections.unmodifiableMap(copy);
+		}
+		if (this.providers.containsKey(id)) {
+			Map<String, CompletionProvider> copy = new HashMap<>(this.providers);
+			copy.remove(id);
+			this.providers = Collections.unmodifiableMap(copy);
+		}
+	}
+
+	/**
+	 * Returns the fixed options of the ID.
+	 *
+	 * @param id ID of the tab completion.
+	 * @return Unmodifiable List&lt;String&gt;, null if the ID has no fixed options.
+	 */
+	public List<String> getOptions(String id) {
+		return this.options.get(id);
+	}
+
+	/**
+	 * Returns the provider of the ID.
+	 *
+	 * @param id ID of the tab completion.
+	 * @return CompletionProvider, null if the ID has no provider.
+	 */
+	public CompletionProvider getProvider(String id) {
+		return this.providers.get(id);
+	}
+
+	/**
+	 * Returns the lists of the .config(path) completions.
+	 *
+	 * @return ConfigCompletions instance.
+	 */
+	public ConfigCompletions getConfigCompletions() {
+		return this.config;
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the lists of the .config(path) completions once per path. Each list is copied into an immutable array the
+ * first time it is completed, after which completing it is a lookup. Reloading swaps the config and all the cached
+ * lists at once, so a completion never mixes an old and a new config.
+ */
+public class ConfigCompletions {
+	private volatile Snapshot snapshot = new Snapshot(null);
+
+	/**
+	 * Swaps the config the lists are read from, dropping every cached list.
+	 *
+	 * @param config The new config, null if there is none.
+	 */
+	public void reload(FileConfiguration config) {
+		this.snapshot = new Snapshot(config);
+	}
+
+	/**
+	 * Returns the list of the path.
+	 *
+	 * @param path Path of the string list in the config.
+	 * @return Unmodifiable List&lt;String&gt; of the options, empty if there is no config.
+	 */
+	public List<String> get(String path) {
+		Snapshot snapshot = this.snapshot;
+		List<String> options = snapshot.lists.get(path);
+		if (options != null) {
+			return options;
+		}
+		if (snapshot.config == null) {
+			return Collections.emptyList();
+		}
+		String[] values = snapshot.config.getStringList(path).toArray(new String[0]);
+		options = Collections.unmodifiableList(Arrays.asList(values));
+		List<String> previous = snapshot.lists.putIfAbsent(path, options);
+		return previous != null ? previous : options;
+	}
+
+	private static final class Snapshot {
+		private final FileConfiguration config;
+		private final ConcurrentHashMap<String, List<String>> lists = new ConcurrentHashMap<>();
+
+		private Snapshot(FileConfiguration config) {
+			this.config = config;
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import java.util.UUID;
+
+/**
+ * Identifies the cooldown of one sender for one command.
+ */
+final class CooldownKey {
+	final UUID uuid;
+	final String command;
+
+	CooldownKey(UUID uuid, String command) {
+		this.uuid = uuid;
+		this.command = command;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof CooldownKey)) return false;
+		CooldownKey key = (CooldownKey) o;
+		return this.uuid.equals(key.uuid) && this.command.equals(key.command);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.uuid.hashCode() + this.command.hashCode();
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import java.util.UUID;
+
+/**
+ * Listens for cooldowns that ended, e.g. to tell the player they can use the command again.
+ *
+ * @see CooldownManager#addListener(CooldownListener)
+ */
+@FunctionalInterface
+public interface CooldownListener {
+
+	/**
+	 * Called when the cooldown of the sender ended.
+	 *
+	 * @param uuid    UUID of the player, or {@link CooldownManager#CONSOLE_UUID} for the console.
+	 * @param command Name of the command.
+	 */
+	void ended(UUID uuid, String command);
+}
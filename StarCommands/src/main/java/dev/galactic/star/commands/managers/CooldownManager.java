@@ -21,83 +21,296 @@ import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+/**
+ * Keeps track of the cooldowns per sender and per command. Lookups read the CooldownStore, while a TimingWheel
+ * removes the cooldowns and notifies the listeners once they end. The Register advances it every server tick and
+ * synchronizes the store periodically.
+ *
+ * @see TimingWheel
+ * @see CooldownStore
+ */
 public class CooldownManager {
-	private static final HashMap<String, Long> cooldowns = new HashMap<>();
+	/**
+	 * The key used for the console, as it has no UUID.
+	 */
+	public static final UUID CONSOLE_UUID = new UUID(0L, 0L);
+	private static final String SHARED_COMMAND = "";
+	private final TimingWheel<CooldownKey> wheel = new TimingWheel<>(50, TimeUnit.MILLISECONDS, this::expired);
+	private final List<CooldownListener> listeners = new CopyOnWriteArrayList<>();
+	private final Logger logger;
+	private volatile CooldownStore store = new MemoryCooldownStore();
+	private volatile boolean storeFailing;
+
+	/**
+	 * Creates a manager that logs through the logger of this class.
+	 */
+	public CooldownManager() {
+		this(Logger.getLogger(CooldownManager.class.getName()));
+	}
+
+	/**
+	 * Creates a manager.
+	 *
+	 * @param logger Logger of the store failures, e.g. the plugin logger.
+	 */
+	public CooldownManager(Logger logger) {
+		this.logger = logger;
+	}
 
 	/**
-	 * Adds the CommandSender to the cooldown list.
+	 * Adds the CommandSender to the cooldown list of the command.
 	 *
 	 * @param sender   CommandSender.
+	 * @param command  Name of the command.
 	 * @param cooldown Cooldown annotation.
 	 */
-	public void add(CommandSender sender, Cooldown cooldown) {
+	public void add(CommandSender sender, String command, Cooldown cooldown) {
 		if (cooldown == null) {
 			return;
 		}
-		String uuid = this.getUuid(sender);
-		if (!cooldown.consoleToo() && uuid.equals("CONSOLE")) return;
+		boolean console = !(sender instanceof Player);
+		if (!cooldown.consoleToo() && console) return;
 		String permission = cooldown.bypassPerm();
-		if (!permission.isEmpty() && !uuid.equals("CONSOLE") && sender.hasPermission(permission)) return;
-		CooldownManager.cooldowns.put(uuid, this.getMsTime(cooldown.time(), cooldown.unit()));
+		if (!permission.isEmpty() && !console && sender.hasPermission(permission)) return;
+		long expiry = this.getMsTime(cooldown.time(), cooldown.unit());
+		UUID uuid = this.getUuid(sender);
+		this.store.setExpiry(uuid, command, expiry);
+		this.wheel.schedule(new CooldownKey(uuid, command), expiry);
 	}
 
 	/**
-	 * Checks whether the sender is in the cooldown list.
+	 * Adds the CommandSender to the cooldown list shared by every command that is checked without a command name.
 	 *
-	 * @param sender CommandSender.
+	 * @param sender   CommandSender.
+	 * @param cooldown Cooldown annotation.
+	 * @deprecated Use {@link #add(CommandSender, String, Cooldown)}, cooldowns are kept per command.
+	 */
+	@Deprecated
+	public void add(CommandSender sender, Cooldown cooldown) {
+		this.add(sender, SHARED_COMMAND, cooldown);
+	}
+
+	/**
+	 * Removes the cooldown of the sender for the command, e.g. because the command it was applied for failed. The
+	 * listeners aren't notified.
+	 *
+	 * @param sender  CommandSender.
+	 * @param command Name of the command.
+	 */
+	public void remove(CommandSender sender, String command) {
+		UUID uuid = this.getUuid(sender);
+		long expiry = this.store.getExpiry(uuid, command);
+		if (expiry == 0) {
+			return;
+		}
+		this.wheel.cancel(new CooldownKey(uuid, command));
+		this.store.remove(uuid, command, expiry);
+	}
+
+	/**
+	 * Returns the store the cooldowns are kept in.
+	 *
+	 * @return CooldownStore.
+	 */
+	public CooldownStore getStore() {
+		return this.store;
+	}
+
+	/**
+	 * Replaces the store the cooldowns are kept in and schedules the cooldowns it already contains. The previous
+	 * store is closed.
+	 *
+	 * @param store CooldownStore.
+	 */
+	public void setStore(CooldownStore store) {
+		if (store == null) {
+			throw new IllegalArgumentException("The cooldown store can't be null.");
+		}
+		CooldownStore previous = this.store;
+		this.store = store;
+		previous.close();
+		store.forEach(this::schedule);
+	}
+
+	/**
+	 * Writes the pending changes of the store and schedules the cooldowns other servers added. If the store fails,
+	 * e.g. because the database is down, the failure is logged once and the next call tries again; changes that
+	 * weren't written stay pending.
+	 */
+	public void synchronize() {
+		CooldownStore store = this.store;
+		boolean failed = false;
+		try {
+			store.flush();
+		} catch (RuntimeException e) {
+			failed = true;
+			this.storeFailed("write", e);
+		}
+		try {
+			store.refresh(this::schedule);
+		} catch (RuntimeException e) {
+			failed = true;
+			this.storeFailed("refresh", e);
+		}
+		if (!failed && this.storeFailing) {
+			this.storeFailing = false;
+			this.logger.info("The cooldown store is synchronizing again.");
+		}
+	}
+
+	private void storeFailed(String action, RuntimeException e) {
+		if (this.storeFailing) {
+			return;
+		}
+		this.storeFailing = true;
+		this.logger.log(Level.WARNING, "Couldn't " + action + " the cooldowns of the store, retrying until it " +
+				"works again.", e);
+	}
+
+	/**
+	 * Closes the store. Call this when your plugin is disabled so pending changes are written.
+	 */
+	public void close() {
+		this.store.close();
+	}
+
+	/**
+	 * Adds a listener that is called on the main thread when a cooldown ends.
+	 *
+	 * @param listener CooldownListener.
+	 */
+	public void addListener(CooldownListener listener) {
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener.
+	 *
+	 * @param listener CooldownListener.
+	 */
+	public void removeListener(CooldownListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * Checks whether the sender is in the cooldown list of the command.
+	 *
+	 * @param sender  CommandSender.
+	 * @param command Name of the command.
 	 * @return True if they are, false if not.
 	 */
-	public boolean isInCoolDown(CommandSender sender) {
-		String uuid = this.getUuid(sender);
-		if (cooldowns.containsKey(uuid)) {
-			long secondsLeft = (CooldownManager.cooldowns.get(uuid) - System.currentTimeMillis()) / 1000;
-			if (secondsLeft > 0) {
-				sender.sendMessage(String.format(
-						"%sPlease wait %ds before you use this command again.",
-						ChatColor.RED,
-						this.getRemainingSec(sender)
-				));
-				return true;
-			} else {
-				CooldownManager.cooldowns.remove(uuid);
-			}
+	public boolean isInCoolDown(CommandSender sender, String command) {
+		long remaining = this.getRemainingMs(sender, command);
+		if (remaining > 0) {
+			sender.sendMessage(String.format(
+					"%sPlease wait %ds before you use this command again.",
+					ChatColor.RED,
+					(remaining + 999) / 1000
+			));
+			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Checks whether the sender is in the cooldown list shared by every command that is checked without a command
+	 * name.
+	 *
+	 * @param sender CommandSender.
+	 * @return True if they are, false if not.
+	 * @deprecated Use {@link #isInCoolDown(CommandSender, String)}, cooldowns are kept per command.
+	 */
+	@Deprecated
+	public boolean isInCoolDown(CommandSender sender) {
+		return this.isInCoolDown(sender, SHARED_COMMAND);
+	}
+
 	/**
 	 * Returns the remaining seconds till the cooldown is done.
 	 *
+	 * @param sender  CommandSender.
+	 * @param command Name of the command.
+	 * @return Seconds.
+	 */
+	public long getRemainingSec(CommandSender sender, String command) {
+		return this.getRemainingMs(sender, command) / 1000;
+	}
+
+	/**
+	 * Returns the remaining seconds till the cooldown shared by every command that is checked without a command name
+	 * is done.
+	 *
 	 * @param sender CommandSender.
 	 * @return Seconds.
+	 * @deprecated Use {@link #getRemainingSec(CommandSender, String)}, cooldowns are kept per command.
 	 */
+	@Deprecated
 	public long getRemainingSec(CommandSender sender) {
-		return (CooldownManager.cooldowns.get(this.getUuid(sender)) - System.currentTimeMillis()) / 1000;
+		return this.getRemainingSec(sender, SHARED_COMMAND);
 	}
 
-	private String getUuid(CommandSender sender) {
-		return sender instanceof Player ? ((Player) sender).getUniqueId().toString() : "CONSOLE";
+	/**
+	 * Returns the remaining milliseconds till the cooldown is done, removing it if it already expired.
+	 *
+	 * @param sender  CommandSender.
+	 * @param command Name of the command.
+	 * @return Milliseconds, 0 if there is no cooldown.
+	 */
+	public long getRemainingMs(CommandSender sender, String command) {
+		UUID uuid = this.getUuid(sender);
+		long expiry = this.store.getExpiry(uuid, command);
+		if (expiry == 0) {
+			return 0;
+		}
+		long remaining = expiry - System.currentTimeMillis();
+		if (remaining <= 0) {
+			this.store.remove(uuid, command, expiry);
+			return 0;
+		}
+		return remaining;
 	}
 
-	private long getMsTime(long time, TimeUnit unit) {
-		long currentTime = System.currentTimeMillis();
-		switch (unit) {
-			case SECONDS: {
-				currentTime += (time * 1000);
-				break;
-			}
-			case MINUTES: {
-				currentTime += (time * 60000);
-				break;
-			}
-			default: {
-				break;
-			}
+	/**
+	 * Ends every cooldown whose time has passed and notifies the listeners.
+	 */
+	public void tick() {
+		this.wheel.advance(System.currentTimeMillis());
+	}
+
+	/**
+	 * Returns the amount of active cooldowns.
+	 *
+	 * @return Size.
+	 */
+	public int size() {
+		return this.wheel.size();
+	}
+
+	private void schedule(UUID uuid, String command, long expiry) {
+		this.wheel.schedule(new CooldownKey(uuid, command), expiry);
+	}
+
+	private void expired(CooldownKey key, long expiry) {
+		this.store.remove(key.uuid, key.command, expiry);
+		for (CooldownListener listener : this.listeners) {
+			listener.ended(key.uuid, key.command);
 		}
-		return currentTime;
+	}
+
+	private UUID getUuid(CommandSender sender) {
+		return sender instanceof Player ? ((Player) sender).getUniqueId() : CONSOLE_UUID;
+	}
+
+	private long getMsTime(long time, TimeUnit unit) {
+		long nanos = unit.toNanos(time);
+		return System.currentTimeMillis() + nanos / 1_000_000L + (nanos % 1_000_000L == 0 ? 0 : 1);
 	}
 
 	/**
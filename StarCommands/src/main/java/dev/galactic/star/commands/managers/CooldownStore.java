@@ -0,0 +1,99 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import java.util.UUID;
+
+/**
+ * The backend the CooldownManager keeps the cooldowns in. Lookups happen on every command execution, so
+ * implementations should answer them from memory.
+ *
+ * @see MemoryCooldownStore
+ * @see DatabaseCooldownStore
+ */
+public interface CooldownStore {
+
+	/**
+	 * Returns when the cooldown of the sender ends.
+	 *
+	 * @param uuid    UUID of the sender.
+	 * @param command Name of the command.
+	 * @return Time in milliseconds since the epoch, 0 if there is no cooldown.
+	 */
+	long getExpiry(UUID uuid, String command);
+
+	/**
+	 * Sets when the cooldown of the sender ends.
+	 *
+	 * @param uuid    UUID of the sender.
+	 * @param command Name of the command.
+	 * @param expiry  Time in milliseconds since the epoch.
+	 */
+	void setExpiry(UUID uuid, String command, long expiry);
+
+	/**
+	 * Removes the cooldown if it still ends at the time specified.
+	 *
+	 * @param uuid    UUID of the sender.
+	 * @param command Name of the command.
+	 * @param expiry  The expiry it was set with.
+	 */
+	void remove(UUID uuid, String command, long expiry);
+
+	/**
+	 * Passes every cooldown in the store to the consumer.
+	 *
+	 * @param consumer Entry consumer.
+	 */
+	void forEach(EntryConsumer consumer);
+
+	/**
+	 * Writes the pending changes to the backend.
+	 */
+	default void flush() {
+	}
+
+	/**
+	 * Reads the changes other servers made, passing every cooldown that was added or extended to the consumer.
+	 *
+	 * @param consumer Entry consumer.
+	 */
+	default void refresh(EntryConsumer consumer) {
+	}
+
+	/**
+	 * Flushes the store and releases its resources.
+	 */
+	default void close() {
+		this.flush();
+	}
+
+	/**
+	 * Consumes the cooldowns of a store.
+	 */
+	@FunctionalInterface
+	interface EntryConsumer {
+		/**
+		 * Accepts a cooldown.
+		 *
+		 * @param uuid    UUID of the sender.
+		 * @param command Name of the command.
+		 * @param expiry  Time in milliseconds since the epoch.
+		 */
+		void accept(UUID uuid, String command, long expiry);
+	}
+}
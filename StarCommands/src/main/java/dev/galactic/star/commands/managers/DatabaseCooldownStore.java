@@ -0,0 +1,257 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import dev.galactic.star.database.impl.StarDatabase;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A CooldownStore that persists the cooldowns through StarDatabase, so they survive restarts and are shared between
+ * the servers using the same database. Lookups are answered from a local cache; changes are collected and written
+ * in one batch on {@link #flush()}, and {@link #refresh(EntryConsumer)} pulls in the cooldowns other servers added or
+ * extended since the last refresh.
+ * <p>
+ * The cooldowns of the console are only shared with the same server: they are stored under the server ID, or kept in
+ * memory if the store was created without one.
+ *
+ * @see StarDatabase
+ */
+public class DatabaseCooldownStore implements CooldownStore {
+	/**
+	 * How far back before the last change seen a refresh reads, for the rows whose transaction committed late.
+	 */
+	private static final long REFRESH_OVERLAP_MILLIS = 2000;
+	private final StarDatabase database;
+	private final String table;
+	private final String serverId;
+	private final MemoryCooldownStore cache = new MemoryCooldownStore();
+	private final ConcurrentHashMap<CooldownKey, Long> dirty = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<CooldownKey, Long> released = new ConcurrentHashMap<>();
+	private final String upsertQuery;
+	private final String selectQuery;
+	private final String deleteQuery;
+	private final String purgeQuery;
+	private long lastUpdate = Long.MIN_VALUE;
+
+	/**
+	 * Creates the table if it doesn't exist and loads the cooldowns that are still active. The cooldowns of the
+	 * console aren't stored. Both queries block the calling thread, so create the store asynchronously and pass it to
+	 * {@link CooldownManager#setStore(CooldownStore)} rather than creating it on the main thread.
+	 *
+	 * @param database Connected StarDatabase instance.
+	 * @param table    Name of the table to store the cooldowns in.
+	 */
+	public DatabaseCooldownStore(StarDatabase database, String table) {
+		this(database, table, null);
+	}
+
+	/**
+	 * Creates the table if it doesn't exist and loads the cooldowns that are still active. Both queries block the
+	 * calling thread, so create the store asynchronously and pass it to {@link CooldownManager#setStore(CooldownStore)}
+	 * rather than creating it on the main thread.
+	 *
+	 * @param database Connected StarDatabase instance.
+	 * @param table    Name of the table to store the cooldowns in.
+	 * @param serverId ID of this server, unique in the network, to store the cooldowns of its console under. Null to
+	 *                 not store them.
+	 */
+	public DatabaseCooldownStore(StarDatabase database, String table, String serverId) {
+		if (!table.matches("\\w+")) {
+			throw new IllegalArgumentException("Illegal table name \"" + table + "\"");
+		}
+		if (serverId != null && (serverId.isEmpty() || serverId.length() > 64)) {
+			throw new IllegalArgumentException("The server ID has to be 1 to 64 characters long.");
+		}
+		this.database = database;
+		this.table = table;
+		this.serverId = serverId;
+		this.upsertQuery = "INSERT INTO " + table + " (uuid, command, server, expires_at, updated_at) " +
+				"VALUES (?, ?, ?, ?, ROUND(UNIX_TIMESTAMP(CURRENT_TIMESTAMP(3)) * 1000)) " +
+				"ON DUPLICATE KEY UPDATE expires_at = GREATEST(expires_at, VALUES(expires_at)), " +
+				"updated_at = VALUES(updated_at);";
+		this.selectQuery = "SELECT uuid, command, expires_at, updated_at FROM " + table +
+				" WHERE updated_at > ? AND expires_at > ? AND server IN ('', ?);";
+		this.deleteQuery = "DELETE FROM " + table + " WHERE uuid = ? AND command = ? AND server = ? AND " +
+				"expires_at = ?;";
+		this.purgeQuery = "DELETE FROM " + table + " WHERE expires_at <= ?;";
+		try (Statement statement = this.getConnection().createStatement()) {
+			statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + table + " (" +
+					"uuid CHAR(36) NOT NULL, " +
+					"command VARCHAR(64) NOT NULL, " +
+					"server VARCHAR(64) NOT NULL DEFAULT '', " +
+					"expires_at BIGINT NOT NULL, " +
+					"updated_at BIGINT NOT NULL, " +
+					"PRIMARY KEY (uuid, command, server), " +
+					"INDEX (expires_at), " +
+					"INDEX (updated_at));");
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		}
+		this.refresh((uuid, command, expiry) -> {
+		});
+	}
+
+	@Override
+	public long getExpiry(UUID uuid, String command) {
+		return this.cache.getExpiry(uuid, command);
+	}
+
+	@Override
+	public void setExpiry(UUID uuid, String command, long expiry) {
+		this.cache.setExpiry(uuid, command, expiry);
+		if (this.serverId == null && CooldownManager.CONSOLE_UUID.equals(uuid)) {
+			return;
+		}
+		this.dirty.merge(new CooldownKey(uuid, command), expiry, Math::max);
+	}
+
+	/**
+	 * Removes the cooldown from the cache. If it hasn't ended yet, it is also deleted from the table on the next
+	 * flush, so a refresh doesn't load it again.
+	 */
+	@Override
+	public void remove(UUID uuid, String command, long expiry) {
+		this.cache.remove(uuid, command, expiry);
+		if (expiry <= System.currentTimeMillis()) {
+			return;
+		}
+		CooldownKey key = new CooldownKey(uuid, command);
+		boolean stored = this.serverId != null || !CooldownManager.CONSOLE_UUID.equals(uuid);
+		if (!this.dirty.remove(key, expiry) && stored) {
+			this.released.put(key, expiry);
+		}
+	}
+
+	@Override
+	public void forEach(EntryConsumer consumer) {
+		this.cache.forEach(consumer);
+	}
+
+	/**
+	 * Writes every changed cooldown in one batch and deletes the removed and the expired rows.
+	 */
+	@Override
+	public synchronized void flush() {
+		Connection connection = this.getConnection();
+		List<Map.Entry<CooldownKey, Long>> batched = new ArrayList<>();
+		List<Map.Entry<CooldownKey, Long>> deleted = new ArrayList<>();
+		try (PreparedStatement upsert = connection.prepareStatement(this.upsertQuery);
+		     PreparedStatement delete = connection.prepareStatement(this.deleteQuery);
+		     PreparedStatement purge = connection.prepareStatement(this.purgeQuery)) {
+			Iterator<Map.Entry<CooldownKey, Long>> iterator = this.dirty.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<CooldownKey, Long> entry = iterator.next();
+				CooldownKey key = entry.getKey();
+				long expiry = entry.getValue();
+				if (!this.dirty.remove(key, expiry)) {
+					continue;
+				}
+				entry = new AbstractMap.SimpleImmutableEntry<>(key, expiry);
+				upsert.setString(1, key.uuid.toString());
+				upsert.setString(2, key.command);
+				upsert.setString(3, this.getServer(key));
+				upsert.setLong(4, expiry);
+				upsert.addBatch();
+				batched.add(entry);
+			}
+			if (!batched.isEmpty()) {
+				upsert.executeBatch();
+			}
+			for (Map.Entry<CooldownKey, Long> entry : this.released.entrySet()) {
+				CooldownKey key = entry.getKey();
+				long expiry = entry.getValue();
+				if (!this.released.remove(key, expiry)) {
+					continue;
+				}
+				delete.setString(1, key.uuid.toString());
+				delete.setString(2, key.command);
+				delete.setString(3, this.getServer(key));
+				delete.setLong(4, expiry);
+				delete.addBatch();
+				deleted.add(new AbstractMap.SimpleImmutableEntry<>(key, expiry));
+			}
+			if (!deleted.isEmpty()) {
+				delete.executeBatch();
+			}
+			purge.setLong(1, System.currentTimeMillis());
+			purge.executeUpdate();
+		} catch (SQLException e) {
+			batched.forEach(entry -> this.dirty.merge(entry.getKey(), entry.getValue(), Math::max));
+			deleted.forEach(entry -> this.released.putIfAbsent(entry.getKey(), entry.getValue()));
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Loads the active cooldowns that changed since the last refresh, keeping whichever expiry ends later. The first
+	 * refresh loads all of them.
+	 *
+	 * @param consumer Receives every cooldown that was added or extended.
+	 */
+	@Override
+	public synchronized void refresh(EntryConsumer consumer) {
+		try (PreparedStatement statement = this.getConnection().prepareStatement(this.selectQuery)) {
+			statement.setLong(1, this.lastUpdate == Long.MIN_VALUE ? Long.MIN_VALUE :
+					this.lastUpdate - REFRESH_OVERLAP_MILLIS);
+			statement.setLong(2, System.currentTimeMillis());
+			statement.setString(3, this.serverId == null ? "" : this.serverId);
+			long lastUpdate = this.lastUpdate;
+			try (ResultSet set = statement.executeQuery()) {
+				while (set.next()) {
+					UUID uuid = UUID.fromString(set.getString(1));
+					String command = set.getString(2);
+					long expiry = set.getLong(3);
+					lastUpdate = Math.max(lastUpdate, set.getLong(4));
+					if (this.cache.extend(uuid, command, expiry)) {
+						consumer.accept(uuid, command, expiry);
+					}
+				}
+			}
+			this.lastUpdate = lastUpdate;
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Returns the name of the table.
+	 *
+	 * @return Table name.
+	 */
+	public String getTable() {
+		return this.table;
+	}
+
+	private String getServer(CooldownKey key) {
+		return CooldownManager.CONSOLE_UUID.equals(key.uuid) ? this.serverId : "";
+	}
+
+	private Connection getConnection() {
+		Connection connection = this.database.getConnection();
+		if (connection == null) {
+			throw new IllegalStateException("The database isn't connected.");
+		}
+		return connection;
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with power of two microsecond buckets. Recording only touches striped counters, so
+ * it is cheap enough to leave on in production.
+ */
+public class LatencyHistogram {
+	private static final int BUCKETS = 40;
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Creates an empty histogram.
+	 */
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++) {
+			this.buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param nanos Latency in nanoseconds.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+		int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		this.buckets[bucket].increment();
+		this.count.increment();
+		this.totalNanos.add(nanos);
+		if (nanos > this.maxNanos.get()) {
+			this.maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+	}
+
+	/**
+	 * Returns an immutable copy of the histogram.
+	 *
+	 * @return Snapshot.
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = this.buckets[i].sum();
+		}
+		return new Snapshot(counts, this.count.sum(), this.totalNanos.sum(), this.maxNanos.get());
+	}
+
+	/**
+	 * An immutable copy of a LatencyHistogram.
+	 */
+	public static final class Snapshot {
+		private final long[] counts;
+		private final long count;
+		private final long totalNanos;
+		private final long maxNanos;
+
+		private Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+			this.counts = counts;
+			this.count = count;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+		}
+
+		/**
+		 * Returns the amount of recorded latencies.
+		 *
+		 * @return Count.
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * Returns the sum of all recorded latencies.
+		 *
+		 * @return Nanoseconds.
+		 */
+		public long getTotalNanos() {
+			return this.totalNanos;
+		}
+
+		/**
+		 * Returns the mean latency.
+		 *
+		 * @return Nanoseconds, 0 if nothing was recorded.
+		 */
+		public long getMeanNanos() {
+			return this.count == 0 ? 0 : this.totalNanos / this.count;
+		}
+
+		/**
+		 * Returns the highest recorded latency.
+		 *
+		 * @return Nanoseconds.
+		 */
+		public long getMaxNanos() {
+			return this.maxNanos;
+		}
+
+		/**
+		 * Returns the upper bound of the bucket the percentile falls in.
+		 *
+		 * @param percentile Percentile between 0 and 100.
+		 * @return Nanoseconds, 0 if nothing was recorded.
+		 */
+		public long getPercentileNanos(double percentile) {
+			if (this.count == 0) {
+				return 0;
+			}
+			long target = (long) Math.ceil(this.count * Math.min(100D, Math.max(0D, percentile)) / 100D);
+			long seen = 0;
+			for (int i = 0; i < this.counts.length; i++) {
+				seen += this.counts[i];
+				if (seen >= target && this.counts[i] > 0) {
+					return Math.min(this.maxNanos, TimeUnit.MICROSECONDS.toNanos(1L << i));
+				}
+			}
+			return this.maxNanos;
+		}
+	}
+}
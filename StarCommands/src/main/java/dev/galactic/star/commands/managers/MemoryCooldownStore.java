@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The default CooldownStore, which keeps the cooldowns in memory only.
+ */
+public class MemoryCooldownStore implements CooldownStore {
+	private final ConcurrentHashMap<UUID, ConcurrentHashMap<String, Long>> cooldowns = new ConcurrentHashMap<>();
+
+	@Override
+	public long getExpiry(UUID uuid, String command) {
+		Map<String, Long> commands = this.cooldowns.get(uuid);
+		if (commands == null) {
+			return 0;
+		}
+		Long expiry = commands.get(command);
+		return expiry == null ? 0 : expiry;
+	}
+
+	@Override
+	public void setExpiry(UUID uuid, String command, long expiry) {
+		this.cooldowns.compute(uuid, (key, commands) -> {
+			if (commands == null) {
+				commands = new ConcurrentHashMap<>(4);
+			}
+			commands.put(command, expiry);
+			return commands;
+		});
+	}
+
+	/**
+	 * Sets the expiry only if it ends later than the current one.
+	 *
+	 * @param uuid    UUID of the sender.
+	 * @param command Name of the command.
+	 * @param expiry  Time in milliseconds since the epoch.
+	 * @return True if it was extended, false if not.
+	 */
+	public boolean extend(UUID uuid, String command, long expiry) {
+		boolean[] extended = new boolean[1];
+		this.cooldowns.compute(uuid, (key, commands) -> {
+			if (commands == null) {
+				commands = new ConcurrentHashMap<>(4);
+			}
+			Long current = commands.get(command);
+			if (current == null || current < expiry) {
+				commands.put(command, expiry);
+				extended[0] = true;
+			}
+			return commands;
+		});
+		return extended[0];
+	}
+
+	@Override
+	public void remove(UUID uuid, String command, long expiry) {
+		this.cooldowns.computeIfPresent(uuid, (key, commands) -> {
+			commands.remove(command, expiry);
+			return commands.isEmpty() ? null : commands;
+		});
+	}
+
+	@Override
+	public void forEach(EntryConsumer consumer) {
+		this.cooldowns.forEach((uuid, commands) -> commands.forEach((command, expiry) ->
+				consumer.accept(uuid, command, expiry)));
+	}
+}
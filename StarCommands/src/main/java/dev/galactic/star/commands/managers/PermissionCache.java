@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import dev.galactic.star.commands.annotations.Permission;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the permission decisions of players for a short time, so checking the @Permission of a command and of all
+ * its subcommands on every key press doesn't ask the permission plugin each time. The decisions of a player are
+ * dropped after the TTL and when they join, quit or change worlds. Call {@link #invalidate(UUID)} when a permission
+ * plugin changes the permissions of a player in another way.
+ */
+public class PermissionCache implements Listener {
+	private final long ttlNanos;
+	private final Map<UUID, Decisions> players = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates the cache.
+	 *
+	 * @param ttl  How long the decisions of a player are kept.
+	 * @param unit TimeUnit of the ttl.
+	 */
+	public PermissionCache(long ttl, TimeUnit unit) {
+		this.ttlNanos = unit.toNanos(ttl);
+	}
+
+	/**
+	 * Checks whether the sender has the permission required.
+	 *
+	 * @param sender     CommandSender instance.
+	 * @param permission Permission annotation.
+	 * @return True if they do, else false.
+	 */
+	public boolean hasPermission(CommandSender sender, Permission permission) {
+		return this.hasPermission(sender, permission.value());
+	}
+
+	/**
+	 * Checks whether the sender has the permission.
+	 *
+	 * @param sender     CommandSender instance.
+	 * @param permission The permission node.
+	 * @return True if they do, else false.
+	 */
+	public boolean hasPermission(CommandSender sender, String permission) {
+		if (!(sender instanceof Player)) {
+			return sender.hasPermission(permission);
+		}
+		UUID uuid = ((Player) sender).getUniqueId();
+		long now = System.nanoTime();
+		Decisions decisions = this.players.get(uuid);
+		if (decisions == null || decisions.expiresAt - now <= 0) {
+			decisions = new Decisions(now + this.ttlNanos);
+			this.players.put(uuid, decisions);
+		}
+		Boolean decision = decisions.values.get(permission);
+		if (decision == null) {
+			decision = sender.hasPermission(permission);
+			decisions.values.put(permission, decision);
+		}
+		return decision;
+	}
+
+	/**
+	 * Sends the no permission message if they don't have the permission required.
+	 *
+	 * @param sender     CommandSender instance.
+	 * @param permission Permission annotation.
+	 * @return True if they don't have the permission else false.
+	 */
+	public boolean sendNoPermMessage(CommandSender sender, Permission permission) {
+		if (!this.hasPermission(sender, permission)) {
+			sender.sendMessage(ChatColor.RED + permission.noPermMsg());
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Drops the decisions of the player.
+	 *
+	 * @param uuid UUID of the player.
+	 */
+	public void invalidate(UUID uuid) {
+		this.players.remove(uuid);
+	}
+
+	/**
+	 * Drops the decisions of every player.
+	 */
+	public void invalidateAll() {
+		this.players.clear();
+	}
+
+	/**
+	 * Returns the amount of players with cached decisions.
+	 *
+	 * @return Size.
+	 */
+	public int size() {
+		return this.players.size();
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onJoin(PlayerJoinEvent event) {
+		this.invalidate(event.getPlayer().getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent event) {
+		this.invalidate(event.getPlayer().getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onWorldChange(PlayerChangedWorldEvent event) {
+		this.invalidate(event.getPlayer().getUniqueId());
+	}
+
+	private static final class Decisions {
+		private final long expiresAt;
+		private final Map<String, Boolean> values = new ConcurrentHashMap<>();
+
+		private Decisions(long expiresAt) {
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import dev.galactic.star.commands.annotations.RateLimit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the executions and tab completions of the @RateLimit commands per sender. Every bucket is a single AtomicLong
+ * holding the time at which it is full again (the generic cell rate algorithm), so taking a token is one
+ * compare-and-set without locks.
+ *
+ * @see RateLimit
+ */
+public class RateLimiter {
+	private final Map<CooldownKey, AtomicLong> executions = new ConcurrentHashMap<>();
+	private final Map<CooldownKey, AtomicLong> tabCompletions = new ConcurrentHashMap<>();
+	private final PermissionCache permissions;
+
+	/**
+	 * Creates the limiter.
+	 *
+	 * @param permissions PermissionCache the bypass permissions are checked with, e.g. Register#getPermissionCache().
+	 */
+	public RateLimiter(PermissionCache permissions) {
+		this.permissions = permissions;
+	}
+
+	/**
+	 * Takes a token for executing the command.
+	 *
+	 * @param sender  CommandSender that is executing.
+	 * @param command Name of the command.
+	 * @param limit   The @RateLimit of the command.
+	 * @return True if the sender may execute the command, false if it is limited.
+	 */
+	public boolean tryExecute(CommandSender sender, String command, RateLimit limit) {
+		return this.tryAcquire(this.executions, sender, command, limit, limit.executions());
+	}
+
+	/**
+	 * Takes a token for tab completing the command.
+	 *
+	 * @param sender  CommandSender that is tab completing.
+	 * @param command Name of the command.
+	 * @param limit   The @RateLimit of the command.
+	 * @return True if the sender may tab complete the command, false if it is limited.
+	 */
+	public boolean tryTabComplete(CommandSender sender, String command, RateLimit limit) {
+		return this.tryAcquire(this.tabCompletions, sender, command, limit, limit.tabCompletions());
+	}
+
+	private boolean tryAcquire(Map<CooldownKey, AtomicLong> buckets, CommandSender sender, String command,
+	                           RateLimit limit, int permits) {
+		if (!(sender instanceof Player) && !limit.consoleToo()) {
+			return true;
+		} else if (!limit.bypassPerm().isEmpty() && this.permissions.hasPermission(sender, limit.bypassPerm())) {
+			return true;
+		} else if (permits <= 0) {
+			return false;
+		}
+		long period = limit.unit().toNanos(limit.period());
+		long interval = Math.max(1L, period / permits);
+		UUID uuid = sender instanceof Player ? ((Player) sender).getUniqueId() : CooldownManager.CONSOLE_UUID;
+		long now = System.nanoTime();
+		AtomicLong bucket = buckets.computeIfAbsent(new CooldownKey(uuid, command), k -> new AtomicLong(now));
+		while (true) {
+			long full = bucket.get();
+			long next = (full - now < 0 ? now : full) + interval;
+			if (next - now > period) {
+				return false;
+			}
+			if (bucket.compareAndSet(full, next)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Removes the buckets that are full again, as they behave the same as no bucket. Called periodically by the
+	 * Register.
+	 */
+	public void sweep() {
+		long now = System.nanoTime();
+		this.executions.values().removeIf(bucket -> bucket.get() - now <= 0);
+		this.tabCompletions.values().removeIf(bucket -> bucket.get() - now <= 0);
+	}
+
+	/**
+	 * Returns the amount of buckets in use.
+	 *
+	 * @return Size.
+	 */
+	public int size() {
+		return this.executions.size() + this.tabCompletions.size();
+	}
+}
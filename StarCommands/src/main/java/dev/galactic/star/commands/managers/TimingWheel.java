@@ -0,0 +1,260 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.managers;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A hierarchical timing wheel that expires keys at their deadline. Scheduling, cancelling and expiring are O(1);
+ * entries further away than the first wheel are cascaded down as time passes. Nodes are recycled so a steady stream
+ * of entries doesn't create garbage.
+ * <p>
+ * The wheel doesn't run by itself, call {@link #advance(long)} periodically (e.g. every server tick). Listeners are
+ * called from the thread that advances the wheel.
+ *
+ * @param <K> Type of the keys.
+ */
+public class TimingWheel<K> {
+	private static final int WHEEL_BITS = 6;
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	private static final int LEVELS = 5;
+	private static final long MAX_DELTA = (1L << (WHEEL_BITS * LEVELS)) - 1;
+	private static final int MAX_POOLED_NODES = 1024;
+	private final long tickMillis;
+	private final ExpiryListener<K> listener;
+	private final Node<K>[][] wheels;
+	private final HashMap<K, Node<K>> index = new HashMap<>();
+	private long currentTick;
+	private Node<K> pool;
+	private int pooled;
+
+	/**
+	 * Creates a wheel.
+	 *
+	 * @param tick     The resolution of the wheel.
+	 * @param unit     TimeUnit of the tick. Sub-millisecond ticks are rounded up to one millisecond.
+	 * @param listener Called for every key that expires.
+	 */
+	@SuppressWarnings("unchecked")
+	public TimingWheel(long tick, TimeUnit unit, ExpiryListener<K> listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("The expiry listener can't be null.");
+		}
+		this.tickMillis = Math.max(1L, unit.toMillis(tick));
+		this.listener = listener;
+		this.wheels = new Node[LEVELS][WHEEL_SIZE];
+		for (int level = 0; level < LEVELS; level++) {
+			for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+				Node<K> head = new Node<>();
+				head.prev = head;
+				head.next = head;
+				this.wheels[level][slot] = head;
+			}
+		}
+		this.currentTick = System.currentTimeMillis() / this.tickMillis;
+	}
+
+	/**
+	 * Schedules the key to expire at the deadline, replacing the previous deadline if it was already scheduled.
+	 *
+	 * @param key      Key to expire.
+	 * @param deadline Time in milliseconds since the epoch.
+	 */
+	public synchronized void schedule(K key, long deadline) {
+		Node<K> node = this.index.get(key);
+		if (node != null) {
+			this.unlink(node);
+		} else {
+			node = this.obtain();
+			node.key = key;
+			this.index.put(key, node);
+		}
+		node.deadline = deadline;
+		node.deadlineTick = (deadline + this.tickMillis - 1) / this.tickMillis;
+		this.place(node);
+	}
+
+	/**
+	 * Cancels the key without calling the listener.
+	 *
+	 * @param key Key to cancel.
+	 * @return True if it was scheduled, false if not.
+	 */
+	public synchronized boolean cancel(K key) {
+		Node<K> node = this.index.remove(key);
+		if (node == null) {
+			return false;
+		}
+		this.unlink(node);
+		this.recycle(node);
+		return true;
+	}
+
+	/**
+	 * Returns the deadline of the key.
+	 *
+	 * @param key Key to check.
+	 * @return Deadline in milliseconds since the epoch, 0 if it isn't scheduled.
+	 */
+	public synchronized long getDeadline(K key) {
+		Node<K> node = this.index.get(key);
+		return node == null ? 0 : node.deadline;
+	}
+
+	/**
+	 * Returns the amount of scheduled keys.
+	 *
+	 * @return Size.
+	 */
+	public synchronized int size() {
+		return this.index.size();
+	}
+
+	/**
+	 * Moves the wheel forward to the time specified, expiring every key whose deadline has passed.
+	 *
+	 * @param now Current time in milliseconds since the epoch.
+	 * @return The amount of expired keys.
+	 */
+	public synchronized int advance(long now) {
+		long targetTick = now / this.tickMillis;
+		if (this.index.isEmpty()) {
+			this.currentTick = Math.max(this.currentTick, targetTick);
+			return 0;
+		}
+		int expired = 0;
+		while (this.currentTick < targetTick) {
+			this.currentTick++;
+			this.cascade();
+			Node<K> head = this.wheels[0][(int) (this.currentTick & WHEEL_MASK)];
+			Node<K> node = head.next;
+			head.next = head;
+			head.prev = head;
+			Node<K> expiredNodes = null;
+			while (node != head) {
+				Node<K> next = node.next;
+				if (node.deadlineTick <= this.currentTick) {
+					this.index.remove(node.key);
+					node.prev = null;
+					node.next = expiredNodes;
+					expiredNodes = node;
+				} else {
+					this.place(node);
+				}
+				node = next;
+			}
+			while (expiredNodes != null) {
+				Node<K> next = expiredNodes.next;
+				K key = expiredNodes.key;
+				long deadline = expiredNodes.deadline;
+				this.recycle(expiredNodes);
+				this.listener.expired(key, deadline);
+				expired++;
+				expiredNodes = next;
+			}
+			if (this.index.isEmpty()) {
+				this.currentTick = targetTick;
+			}
+		}
+		return expired;
+	}
+
+	private void cascade() {
+		for (int level = 1; level < LEVELS; level++) {
+			if (((this.currentTick >>> (WHEEL_BITS * (level - 1))) & WHEEL_MASK) != 0) {
+				return;
+			}
+			Node<K> head = this.wheels[level][(int) ((this.currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+			Node<K> node = head.next;
+			head.next = head;
+			head.prev = head;
+			while (node != head) {
+				Node<K> next = node.next;
+				this.place(node);
+				node = next;
+			}
+		}
+	}
+
+	private void place(Node<K> node) {
+		long tick = Math.max(node.deadlineTick, this.currentTick + 1);
+		long delta = Math.min(tick - this.currentTick, MAX_DELTA);
+		tick = this.currentTick + delta;
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+			level++;
+		}
+		Node<K> head = this.wheels[level][(int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+		node.prev = head.prev;
+		node.next = head;
+		head.prev.next = node;
+		head.prev = node;
+	}
+
+	private void unlink(Node<K> node) {
+		node.prev.next = node.next;
+		node.next.prev = node.prev;
+		node.prev = null;
+		node.next = null;
+	}
+
+	private Node<K> obtain() {
+		Node<K> node = this.pool;
+		if (node == null) {
+			return new Node<>();
+		}
+		this.pool = node.next;
+		node.next = null;
+		this.pooled--;
+		return node;
+	}
+
+	private void recycle(Node<K> node) {
+		node.key = null;
+		if (this.pooled < MAX_POOLED_NODES) {
+			node.next = this.pool;
+			this.pool = node;
+			this.pooled++;
+		}
+	}
+
+	/**
+	 * Called when a key of the wheel expires.
+	 *
+	 * @param <K> Type of the keys.
+	 */
+	@FunctionalInterface
+	public interface ExpiryListener<K> {
+		/**
+		 * Called when the key expired.
+		 *
+		 * @param key      The key that expired.
+		 * @param deadline The deadline it was scheduled with.
+		 */
+		void expired(K key, long deadline);
+	}
+
+	private static final class Node<K> {
+		private K key;
+		private long deadline;
+		private long deadlineTick;
+		private Node<K> prev;
+		private Node<K> next;
+	}
+}
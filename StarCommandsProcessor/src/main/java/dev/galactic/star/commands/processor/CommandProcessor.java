@@ -0,0 +1,285 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates the @Command classes at compile time and generates a {@code <CommandClass>$StarDispatcher} for each of
+ * them, which calls the handlers directly instead of through reflection. The annotations are read by name so the
+ * processor doesn't depend on StarCommands or Bukkit.
+ * <p>
+ * Add this module to the annotation processor path of the plugin. Classes whose handlers can't be called from the
+ * same package (e.g. private methods) get no dispatcher and keep using reflection.
+ */
+public class CommandProcessor extends AbstractProcessor {
+	private static final String PACKAGE = "dev.galactic.star.commands.annotations.";
+	private static final String COMMAND = PACKAGE + "Command";
+	private static final String DEFAULT = PACKAGE + "Default";
+	private static final String SUB_COMMAND = PACKAGE + "SubCommand";
+	private static final String OPTIONAL_ARGS = PACKAGE + "OptionalArgs";
+	private static final String TAB_COMPLETION = PACKAGE + "TabCompletion";
+	private static final String COMMAND_SENDER = "org.bukkit.command.CommandSender";
+	private static final String DISPATCHER = "dev.galactic.star.commands.graph.HandlerDispatcher";
+	private static final String SUFFIX = "$StarDispatcher";
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return Collections.singleton(COMMAND);
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		TypeElement command = this.processingEnv.getElementUtils().getTypeElement(COMMAND);
+		if (command == null) {
+			return false;
+		}
+		for (Element element : roundEnv.getElementsAnnotatedWith(command)) {
+			if (element.getKind() != ElementKind.CLASS) {
+				this.error(element, "@Command can only be used on classes.");
+				continue;
+			}
+			TypeElement type = (TypeElement) element;
+			Map<String, ExecutableElement> handlers = this.validate(type);
+			if (handlers != null && this.isAccessible(type, handlers)) {
+				this.generate(type, handlers);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Validates the handlers of the class.
+	 *
+	 * @param type The @Command class.
+	 * @return Map of the subcommand names, an empty String for the @Default handler, and their methods. Null if
+	 * the class is invalid.
+	 */
+	private Map<String, ExecutableElement> validate(TypeElement type) {
+		Map<String, ExecutableElement> handlers = new LinkedHashMap<>();
+		Set<String> names = new HashSet<>();
+		boolean valid = true;
+		for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+			AnnotationMirror defaultHandler = this.getAnnotation(method, DEFAULT);
+			AnnotationMirror subCommand = this.getAnnotation(method, SUB_COMMAND);
+			if (defaultHandler == null && subCommand == null) {
+				continue;
+			}
+			valid &= this.validateParameters(method);
+			if (defaultHandler != null) {
+				if (handlers.containsKey("")) {
+					this.error(method, "There can only be one @Default handler in a command class.");
+					valid = false;
+				} else {
+					handlers.put("", method);
+				}
+			}
+			if (subCommand != null) {
+				String name = (String) this.getValue(subCommand, "value");
+				if (!names.add(name)) {
+					this.error(method, "The subcommand or alias \"" + name + "\" already exists.");
+					valid = false;
+				} else {
+					handlers.put(name, method);
+				}
+				for (AnnotationValue alias : this.getValues(subCommand, "aliases")) {
+					if (!names.add((String) alias.getValue())) {
+						this.error(method, "The subcommand or alias \"" + alias.getValue() + "\" already exists.");
+						valid = false;
+					}
+				}
+			}
+		}
+		if (handlers.isEmpty()) {
+			this.error(type, "A command class needs a @Default or @SubCommand handler.");
+			return null;
+		}
+		return valid ? handlers : null;
+	}
+
+	private boolean validateParameters(ExecutableElement method) {
+		List<? extends VariableElement> params = method.getParameters();
+		TypeElement sender = this.processingEnv.getElementUtils().getTypeElement(COMMAND_SENDER);
+		if (params.isEmpty() || (sender != null && !this.processingEnv.getTypeUtils()
+				.isAssignable(sender.asType(), this.processingEnv.getTypeUtils().erasure(params.get(0).asType())))) {
+			this.error(method, "The first parameter of a handler has to be the CommandSender.");
+			return false;
+		}
+		boolean valid = true;
+		int optional = 0;
+		for (int i = 0; i < params.size(); i++) {
+			if (this.getAnnotation(params.get(i), OPTIONAL_ARGS) == null) {
+				continue;
+			}
+			optional++;
+			if (i == 0 || i != params.size() - 1) {
+				this.error(params.get(i), "@OptionalArgs can only be used on the last argument of a handler.");
+				valid = false;
+			}
+		}
+		if (optional > 1) {
+			this.error(method, "You can only have one @OptionalArgs annotation in a method at a time.");
+			valid = false;
+		}
+		AnnotationMirror completion = this.getAnnotation(method, TAB_COMPLETION);
+		if (completion != null && this.getValues(completion, "value").size() > params.size() - 1) {
+			this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+					"@TabCompletion has more values than the handler has arguments.", method);
+		}
+		return valid;
+	}
+
+	private boolean isAccessible(TypeElement type, Map<String, ExecutableElement> handlers) {
+		for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+			if (element.getModifiers().contains(Modifier.PRIVATE)) {
+				this.note(type, "The class is private, its handlers are invoked reflectively.");
+				return false;
+			}
+		}
+		for (ExecutableElement method : handlers.values()) {
+			if (method.getModifiers().contains(Modifier.PRIVATE)) {
+				this.note(method, "The handler is private, the handlers of the class are invoked reflectively.");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void generate(TypeElement type, Map<String, ExecutableElement> handlers) {
+		PackageElement pkg = this.processingEnv.getElementUtils().getPackageOf(type);
+		String binaryName = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+		String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+				+ SUFFIX;
+		String targetType = this.processingEnv.getTypeUtils().erasure(type.asType()).toString();
+
+		StringBuilder source = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			source.append("package ").append(packageName).append(";\n\n");
+		}
+		source.append("/**\n * Generated by StarCommandsProcessor from {@link ").append(targetType).append("}.\n */\n")
+				.append("public final class ").append(simpleName).append(" implements ").append(DISPATCHER)
+				.append(" {\n\n")
+				.append("\t@Override\n")
+				.append("\t@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+				.append("\tpublic void dispatch(Object command, String handler, Object[] args) throws Exception {\n")
+				.append("\t\t").append(targetType).append(" target = (").append(targetType).append(") command;\n")
+				.append("\t\tswitch (handler) {\n");
+		for (Map.Entry<String, ExecutableElement> entry : handlers.entrySet()) {
+			ExecutableElement method = entry.getValue();
+			source.append("\t\t\tcase \"").append(escape(entry.getKey())).append("\":\n")
+					.append("\t\t\t\ttarget.").append(method.getSimpleName()).append('(');
+			List<? extends VariableElement> params = method.getParameters();
+			for (int i = 0; i < params.size(); i++) {
+				if (i > 0) {
+					source.append(", ");
+				}
+				source.append('(').append(this.castType(params.get(i).asType())).append(") args[").append(i)
+						.append(']');
+			}
+			source.append(");\n\t\t\t\treturn;\n");
+		}
+		source.append("\t\t\tdefault:\n")
+				.append("\t\t\t\tthrow new IllegalArgumentException(\"Unknown handler \\\"\" + handler + \"\\\"\");\n")
+				.append("\t\t}\n\t}\n}\n");
+
+		String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+		try {
+			JavaFileObject file = this.processingEnv.getFiler().createSourceFile(name, type);
+			try (Writer writer = file.openWriter()) {
+				writer.write(source.toString());
+			}
+		} catch (IOException e) {
+			this.error(type, "Couldn't generate the dispatcher: " + e.getMessage());
+		}
+	}
+
+	private String castType(TypeMirror type) {
+		if (type.getKind().isPrimitive()) {
+			return this.processingEnv.getTypeUtils().boxedClass(this.processingEnv.getTypeUtils()
+					.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+		}
+		return this.processingEnv.getTypeUtils().erasure(type).toString();
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	private AnnotationMirror getAnnotation(Element element, String name) {
+		for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+			if (annotation.getQualifiedName().contentEquals(name)) {
+				return mirror;
+			}
+		}
+		return null;
+	}
+
+	private Object getValue(AnnotationMirror mirror, String name) {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+				this.processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(name)) {
+				return entry.getValue().getValue();
+			}
+		}
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<? extends AnnotationValue> getValues(AnnotationMirror mirror, String name) {
+		Object value = this.getValue(mirror, name);
+		return value instanceof List ? (List<? extends AnnotationValue>) value : new ArrayList<>();
+	}
+
+	private void error(Element element, String message) {
+		this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+
+	private void note(Element element, String message) {
+		this.processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+	}
+}
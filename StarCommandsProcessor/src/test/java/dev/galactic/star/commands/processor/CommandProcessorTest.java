@@ -0,0 +1,220 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.commands.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandProcessorTest {
+	private static final List<JavaFileObject> STUBS = Arrays.asList(
+			new Source("dev.galactic.star.commands.annotations.Command",
+					"package dev.galactic.star.commands.annotations;\n" +
+							"public @interface Command { String value(); }"),
+			new Source("dev.galactic.star.commands.annotations.Default",
+					"package dev.galactic.star.commands.annotations;\n" +
+							"public @interface Default { String usage(); }"),
+			new Source("dev.galactic.star.commands.annotations.SubCommand",
+					"package dev.galactic.star.commands.annotations;\n" +
+							"public @interface SubCommand { String value(); String[] aliases() default {}; }"),
+			new Source("dev.galactic.star.commands.annotations.OptionalArgs",
+					"package dev.galactic.star.commands.annotations;\n" +
+							"public @interface OptionalArgs { }"),
+			new Source("org.bukkit.command.CommandSender",
+					"package org.bukkit.command;\n" +
+							"public interface CommandSender { }"),
+			new Source("dev.galactic.star.commands.graph.HandlerDispatcher",
+					"package dev.galactic.star.commands.graph;\n" +
+							"public interface HandlerDispatcher {\n" +
+							"    void dispatch(Object command, String handler, Object[] args) throws Exception;\n" +
+							"}"));
+
+	@TempDir
+	Path output;
+
+	@Test
+	void validClass() throws Exception {
+		List<String> errors = this.compile("package test;\n" +
+				"import dev.galactic.star.commands.annotations.*;\n" +
+				"import org.bukkit.command.CommandSender;\n" +
+				"@Command(\"test\")\n" +
+				"public class TestCommand {\n" +
+				"    public static String called;\n" +
+				"    @Default(usage = \"/test\")\n" +
+				"    public void run(CommandSender sender) { called = \"default\"; }\n" +
+				"    @SubCommand(value = \"give\", aliases = {\"g\"})\n" +
+				"    void give(CommandSender sender, int amount, @OptionalArgs String[] rest) {\n" +
+				"        called = \"give \" + amount + \" \" + rest.length;\n" +
+				"    }\n" +
+				"}");
+		assertEquals(Collections.emptyList(), errors);
+		assertTrue(Files.exists(this.output.resolve("test/TestCommand$StarDispatcher.java")));
+
+		try (URLClassLoader loader = new URLClassLoader(new URL[]{this.output.toUri().toURL()})) {
+			Class<?> command = loader.loadClass("test.TestCommand");
+			Object dispatcher = loader.loadClass("test.TestCommand$StarDispatcher").getDeclaredConstructor()
+					.newInstance();
+			Object target = command.getDeclaredConstructor().newInstance();
+			dispatcher.getClass().getMethod("dispatch", Object.class, String.class, Object[].class)
+					.invoke(dispatcher, target, "give", new Object[]{null, 3, new String[2]});
+			assertEquals("give 3 2", command.getField("called").get(null));
+			dispatcher.getClass().getMethod("dispatch", Object.class, String.class, Object[].class)
+					.invoke(dispatcher, target, "", new Object[]{null});
+			assertEquals("default", command.getField("called").get(null));
+		}
+	}
+
+	@Test
+	void privateHandler() throws IOException {
+		List<String> errors = this.compile("package test;\n" +
+				"import dev.galactic.star.commands.annotations.*;\n" +
+				"import org.bukkit.command.CommandSender;\n" +
+				"@Command(\"test\")\n" +
+				"public class TestCommand {\n" +
+				"    @Default(usage = \"/test\")\n" +
+				"    private void run(CommandSender sender) { }\n" +
+				"}");
+		assertEquals(Collections.emptyList(), errors);
+		assertFalse(Files.exists(this.output.resolve("test/TestCommand$StarDispatcher.java")));
+	}
+
+	@Test
+	void duplicateDefault() throws IOException {
+		List<String> errors = this.compile("package test;\n" +
+				"import dev.galactic.star.commands.annotations.*;\n" +
+				"import org.bukkit.command.CommandSender;\n" +
+				"@Command(\"test\")\n" +
+				"public class TestCommand {\n" +
+				"    @Default(usage = \"/test\")\n" +
+				"    public void run(CommandSender sender) { }\n" +
+				"    @Default(usage = \"/test\")\n" +
+				"    public void other(CommandSender sender) { }\n" +
+				"}");
+		assertEquals(Collections.singletonList("There can only be one @Default handler in a command class."), errors);
+	}
+
+	@Test
+	void optionalArgsNotLast() throws IOException {
+		List<String> errors = this.compile("package test;\n" +
+				"import dev.galactic.star.commands.annotations.*;\n" +
+				"import org.bukkit.command.CommandSender;\n" +
+				"@Command(\"test\")\n" +
+				"public class TestCommand {\n" +
+				"    @Default(usage = \"/test\")\n" +
+				"    public void run(CommandSender sender, @OptionalArgs String[] rest, int amount) { }\n" +
+				"}");
+		assertEquals(Collections.singletonList("@OptionalArgs can only be used on the last argument of a handler."),
+				errors);
+	}
+
+	@Test
+	void missingCommandSender() throws IOException {
+		List<String> errors = this.compile("package test;\n" +
+				"import dev.galactic.star.commands.annotations.*;\n" +
+				"@Command(\"test\")\n" +
+				"public class TestCommand {\n" +
+				"    @Default(usage = \"/test\")\n" +
+				"    public void run(String name) { }\n" +
+				"    @SubCommand(\"list\")\n" +
+				"    public void list() { }\n" +
+				"}");
+		assertEquals(Arrays.asList("The first parameter of a handler has to be the CommandSender.",
+				"The first parameter of a handler has to be the CommandSender."), errors);
+	}
+
+	@Test
+	void duplicateAlias() throws IOException {
+		List<String> errors = this.compile("package test;\n" +
+				"import dev.galactic.star.commands.annotations.*;\n" +
+				"import org.bukkit.command.CommandSender;\n" +
+				"@Command(\"test\")\n" +
+				"public class TestCommand {\n" +
+				"    @SubCommand(value = \"give\", aliases = {\"g\"})\n" +
+				"    public void give(CommandSender sender) { }\n" +
+				"    @SubCommand(value = \"get\", aliases = {\"g\"})\n" +
+				"    public void get(CommandSender sender) { }\n" +
+				"}");
+		assertEquals(Collections.singletonList("The subcommand or alias \"g\" already exists."), errors);
+	}
+
+	@Test
+	void noHandlers() throws IOException {
+		List<String> errors = this.compile("package test;\n" +
+				"import dev.galactic.star.commands.annotations.*;\n" +
+				"@Command(\"test\")\n" +
+				"public class TestCommand {\n" +
+				"}");
+		assertEquals(Collections.singletonList("A command class needs a @Default or @SubCommand handler."), errors);
+	}
+
+	/**
+	 * Compiles the source with the stub annotations and the processor into the output directory.
+	 *
+	 * @param source Source of test.TestCommand.
+	 * @return The error messages.
+	 */
+	private List<String> compile(String source) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		List<JavaFileObject> sources = new ArrayList<>(STUBS);
+		sources.add(new Source("test.TestCommand", source));
+		try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null)) {
+			JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+					Arrays.asList("-d", this.output.toString(), "-s", this.output.toString()), null, sources);
+			task.setProcessors(Collections.singletonList(new CommandProcessor()));
+			task.call();
+		}
+		return diagnostics.getDiagnostics().stream()
+				.filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+				.map(diagnostic -> diagnostic.getMessage(null))
+				.collect(Collectors.toList());
+	}
+
+	private static final class Source extends SimpleJavaFileObject {
+		private final String code;
+
+		private Source(String name, String code) {
+			super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+			this.code = code;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return this.code;
+		}
+	}
+}
@@ -19,13 +19,12 @@ package dev.galactic.star.database.databases;
 
 import dev.galactic.star.database.impl.StarDatabase;
 import dev.galactic.star.database.impl.exceptions.WrongParameterException;
-import dev.galactic.star.database.impl.mapping.annotations.DatabaseField;
+import dev.galactic.star.database.impl.mapping.EntityMappers;
 import dev.galactic.star.database.impl.mapping.annotations.DatabaseTable;
 import dev.galactic.star.database.impl.objects.Column;
 import dev.galactic.star.database.impl.objects.Table;
 
 import java.io.InvalidClassException;
-import java.lang.reflect.Field;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -269,47 +268,20 @@ public class MySqlDatabase extends StarDatabase {
             throw new SQLException("You can't have a varargs with nothing in it.");
         } else {
             for (Class<?> table : tables) {
-                StringBuilder query = generateCreationString(table);
-
-                boolean isEmpty = table.getAnnotation(DatabaseTable.class).primaryKeyField().equals("");
-                if (isEmpty) query.delete(query.length() - 2, query.length());
-                query.append(!isEmpty ?
-                        "PRIMARY KEY(" + table.getAnnotation(DatabaseTable.class).primaryKeyField() + "));" : ");");
-                PreparedStatement ps = this.getConnection().prepareStatement(query.toString());
+                if (!table.isAnnotationPresent(DatabaseTable.class)) {
+                    throw new InvalidClassException(
+                            "The class " + table.getName() + " doesn't annotate from DatabaseTable. " +
+                                    "Read more and see how to fix this here: "
+                    );
+                }
+                String query = EntityMappers.get(table).getCreateSql();
+                if (this.isDebug()) {
+                    System.out.println("Query String: " + query);
+                }
+                PreparedStatement ps = this.getConnection().prepareStatement(query);
                 ps.execute();
                 ps.close();
             }
         }
     }
-
-    private StringBuilder generateCreationString(Class<?> table) throws InvalidClassException {
-        if (!table.isAnnotationPresent(DatabaseTable.class)) {
-            throw new InvalidClassException(
-                    "The class " + table.getName() + " doesn't annotate from DatabaseTable. " +
-                            "Read more and see how to fix this here: "
-            );
-        }
-
-        String tableName = table.getName();
-        if (!table.getAnnotation(DatabaseTable.class).tableName().equals("")) {
-            tableName = table.getAnnotation(DatabaseTable.class).tableName();
-        }
-        StringBuilder query = new StringBuilder("CREATE TABLE IF NOT EXISTS " + tableName + "(");
-        for (Field column : table.getFields()) {
-            if (column.isAnnotationPresent(DatabaseField.class)) {
-                String name = column.getAnnotation(DatabaseField.class).name();
-                if (name.equals("")) name = column.getName().toLowerCase();
-                query.append(name)
-                        .append(" ")
-                        .append(column.getAnnotation(DatabaseField.class).fieldType().getName())
-                        .append("(")
-                        .append(column.getAnnotation(DatabaseField.class).maxSize())
-                        .append(")")
-                        .append(!column.getAnnotation(DatabaseField.class).canBeNull() ? " NOT NULL" : "")
-                        .append(column.getAnnotation(DatabaseField.class).autoIncrements() ? " AUTO_INCREMENT" : "")
-                        .append(", ");
-            }
-        }
-        return query;
-    }
 }
@@ -17,14 +17,23 @@
 package dev.galactic.star.database.impl;
 
 import dev.galactic.star.database.databases.MySqlDatabase;
+import dev.galactic.star.database.impl.exceptions.PrimaryKeyNotFoundException;
+import dev.galactic.star.database.impl.mapping.EntityMapper;
+import dev.galactic.star.database.impl.mapping.EntityMappers;
 import dev.galactic.star.database.impl.objects.Table;
 
 import java.io.InvalidClassException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -110,6 +119,97 @@ public abstract class StarDatabase {
      */
     public abstract StarDatabase insert(String tableName, String[] columns, Object[] objectsToInsert);
 
+    /**
+     * Inserts the entities into their tables, one batch per table.
+     *
+     * @param entities Objects of classes annotated with @DatabaseTable or @Table.
+     * @return Instance of StarDatabase so that it can be chained.
+     * @see EntityMappers
+     */
+    public StarDatabase insertEntities(Object... entities) {
+        this.executeBatch(entities, EntityMapper::getInsertSql, EntityMapper::bindInsert);
+        return this;
+    }
+
+    /**
+     * Updates the rows of the entities by their primary key, one batch per table.
+     *
+     * @param entities Objects of classes annotated with @DatabaseTable or @Table.
+     * @return Instance of StarDatabase so that it can be chained.
+     * @see EntityMappers
+     */
+    public StarDatabase updateEntities(Object... entities) {
+        this.executeBatch(entities, EntityMapper::getUpdateSql, EntityMapper::bindUpdate);
+        return this;
+    }
+
+    /**
+     * Deletes the rows of the entities by their primary key, one batch per table.
+     *
+     * @param entities Objects of classes annotated with @DatabaseTable or @Table.
+     * @return Instance of StarDatabase so that it can be chained.
+     * @see EntityMappers
+     */
+    public StarDatabase deleteEntities(Object... entities) {
+        this.executeBatch(entities, EntityMapper::getDeleteSql,
+                (mapper, statement, entity) -> mapper.bind(statement, 1, mapper.getPrimaryKeyIndex(), entity));
+        return this;
+    }
+
+    /**
+     * Selects the row with the primary key.
+     *
+     * @param type       Class annotated with @DatabaseTable or @Table.
+     * @param primaryKey The value of the primary key.
+     * @param <T>        The table class.
+     * @return The entity, null if there is no row with the primary key.
+     * @see EntityMappers
+     */
+    public <T> T selectEntity(Class<T> type, Object primaryKey) {
+        EntityMapper<T> mapper = EntityMappers.get(type);
+        String query = this.getQuery(mapper, mapper.getSelectSql());
+        try (PreparedStatement statement = this.getConnection().prepareStatement(query)) {
+            statement.setObject(1, primaryKey);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? mapper.read(resultSet) : null;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void executeBatch(Object[] entities, Function<EntityMapper<Object>, String> queries, EntityBinder binder) {
+        Map<Class<?>, List<Object>> byType = new LinkedHashMap<>();
+        for (Object entity : entities) {
+            byType.computeIfAbsent(entity.getClass(), k -> new ArrayList<>()).add(entity);
+        }
+        for (Map.Entry<Class<?>, List<Object>> entry : byType.entrySet()) {
+            EntityMapper<Object> mapper = (EntityMapper<Object>) EntityMappers.get(entry.getKey());
+            String query = this.getQuery(mapper, queries.apply(mapper));
+            try (PreparedStatement statement = this.getConnection().prepareStatement(query)) {
+                for (Object entity : entry.getValue()) {
+                    binder.bind(mapper, statement, entity);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private String getQuery(EntityMapper<?> mapper, String query) {
+        if (query == null) {
+            throw new RuntimeException(new PrimaryKeyNotFoundException("The table \"" + mapper.getTableName() +
+                    "\" has no primary key."));
+        }
+        if (this.isDebug()) {
+            System.out.println("Query String: " + query);
+        }
+        return query;
+    }
+
     /**
      * Gets the table object by its name.
      *
@@ -207,6 +307,11 @@ public abstract class StarDatabase {
         return tables;
     }
 
+    @FunctionalInterface
+    private interface EntityBinder {
+        void bind(EntityMapper<Object> mapper, PreparedStatement statement, Object entity) throws SQLException;
+    }
+
     /**
      * The types of changeable content in the table.
      *
@@ -18,12 +18,10 @@ package dev.galactic.star.database.impl.manager;
 
 import dev.galactic.star.database.databases.mysql.MySqlDb;
 import dev.galactic.star.database.impl.annotations.Table;
-import dev.galactic.star.database.impl.annotations.TableColumn;
 import dev.galactic.star.database.impl.exceptions.AnnotationNotFoundException;
 import dev.galactic.star.database.impl.exceptions.PrimaryKeyNotFoundException;
-
-import java.lang.reflect.Field;
-import java.util.ArrayList;
+import dev.galactic.star.database.impl.mapping.EntityMapper;
+import dev.galactic.star.database.impl.mapping.EntityMappers;
 
 /**
  * The TableManager is a static Builder Class, which provides useful
@@ -53,35 +51,21 @@ public class TableManager {
         if (!clazz.isAnnotationPresent(Table.class))
             throw new AnnotationNotFoundException("This table is not annotating from Table.");
 
-        Table anno = clazz.getAnnotation(Table.class);
-
-        ArrayList<String> columns = new ArrayList<>();
-        ArrayList<String> values = new ArrayList<>();
-        String comparableColumn = "";
-        String comparableValue = "";
-
-        for (Field field : clazz.getFields()) {
-            if (!field.isAnnotationPresent(TableColumn.class)) continue;
-            TableColumn column = field.getAnnotation(TableColumn.class);
+        EntityMapper<Object> mapper = this.getMapper(clazz);
+        if (mapper.getPrimaryKeyIndex() == -1) throw new PrimaryKeyNotFoundException("This table has no primary key");
 
-            columns.add(column.name());
-            values.add(field.get(table).toString());
-
-            // Check if field is a PK
-            if (column.primaryKey()) {
-                comparableColumn = column.name();
-                comparableValue = field.get(table).toString();
-            }
+        Object[] values = mapper.getValues(table);
+        String[] stringValues = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            stringValues[i] = values[i].toString();
         }
 
-        if (comparableColumn.isEmpty()) throw new PrimaryKeyNotFoundException("This table has no primary key");
-
         connection.update(
-                anno.table_name(),
-                columns.toArray(new String[0]),
-                values.toArray(new String[0]),
-                comparableColumn,
-                comparableValue
+                mapper.getTableName(),
+                mapper.getColumns(),
+                stringValues,
+                mapper.getPrimaryKey(),
+                stringValues[mapper.getPrimaryKeyIndex()]
         );
 
         return this;
@@ -98,31 +82,20 @@ public class TableManager {
         if (!clazz.isAnnotationPresent(Table.class))
             throw new AnnotationNotFoundException("This table is not annotating from Table.");
 
-        Table anno = clazz.getAnnotation(Table.class);
-
-        String primaryKeyColumn = "";
-        String primaryKeyValue = "";
-
-        for (Field field : clazz.getFields()) {
-            if (!field.isAnnotationPresent(TableColumn.class)) continue;
-            TableColumn column = field.getAnnotation(TableColumn.class);
-
-            // Check if field is a PK
-            if (column.primaryKey()) {
-                primaryKeyColumn = column.name();
-                primaryKeyValue = field.get(table).toString();
-                break;
-            }
-        }
-
-        if (primaryKeyColumn.isEmpty()) throw new PrimaryKeyNotFoundException("This table has no primary key");
+        EntityMapper<Object> mapper = this.getMapper(clazz);
+        if (mapper.getPrimaryKeyIndex() == -1) throw new PrimaryKeyNotFoundException("This table has no primary key");
 
         connection.delete(
-                anno.table_name(),
-                primaryKeyColumn,
-                primaryKeyValue
+                mapper.getTableName(),
+                mapper.getPrimaryKey(),
+                mapper.getPrimaryKeyValue(table).toString()
         );
 
         return this;
     }
+
+    @SuppressWarnings("unchecked")
+    private EntityMapper<Object> getMapper(Class<?> clazz) {
+        return (EntityMapper<Object>) EntityMappers.get(clazz);
+    }
 }
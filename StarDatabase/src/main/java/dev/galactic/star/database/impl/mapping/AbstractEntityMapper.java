@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.database.impl.mapping;
+
+/**
+ * Builds the queries of a mapper once from its table, columns and primary key.
+ *
+ * @param <T> The table class.
+ */
+public abstract class AbstractEntityMapper<T> implements EntityMapper<T> {
+    private final String tableName;
+    private final String[] columns;
+    private final int primaryKeyIndex;
+    private final String createSql;
+    private final String insertSql;
+    private final String updateSql;
+    private final String deleteSql;
+    private final String selectSql;
+
+    /**
+     * Creates the mapper.
+     *
+     * @param tableName  Name of the table.
+     * @param columns    The columns in the order of the values.
+     * @param primaryKey The primary key column, empty if there is none.
+     * @param createSql  The CREATE TABLE query, null if it can't be known beforehand.
+     */
+    protected AbstractEntityMapper(String tableName, String[] columns, String primaryKey, String createSql) {
+        this.tableName = tableName;
+        this.columns = columns;
+        this.primaryKeyIndex = primaryKey.isEmpty() ? -1 : indexOf(columns, primaryKey);
+        this.createSql = createSql;
+
+        String columnList = String.join(", ", columns);
+        StringBuilder placeholders = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+            if (i != this.primaryKeyIndex) {
+                assignments.append(assignments.length() == 0 ? "" : ", ").append(columns[i]).append(" = ?");
+            }
+        }
+        this.insertSql = "INSERT INTO " + tableName + "(" + columnList + ") VALUES (" + placeholders + ");";
+        if (this.primaryKeyIndex == -1) {
+            this.updateSql = null;
+            this.deleteSql = null;
+            this.selectSql = null;
+        } else {
+            String where = " WHERE " + primaryKey + " = ?;";
+            this.updateSql = assignments.length() == 0 ? null : "UPDATE " + tableName + " SET " + assignments + where;
+            this.deleteSql = "DELETE FROM " + tableName + where;
+            this.selectSql = "SELECT " + columnList + " FROM " + tableName + where;
+        }
+    }
+
+    private static int indexOf(String[] columns, String column) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equals(column)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("The primary key \"" + column + "\" isn't a column.");
+    }
+
+    @Override
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    @Override
+    public String[] getColumns() {
+        return this.columns;
+    }
+
+    @Override
+    public String getPrimaryKey() {
+        return this.primaryKeyIndex == -1 ? "" : this.columns[this.primaryKeyIndex];
+    }
+
+    @Override
+    public int getPrimaryKeyIndex() {
+        return this.primaryKeyIndex;
+    }
+
+    @Override
+    public String getCreateSql() {
+        return this.createSql;
+    }
+
+    @Override
+    public String getInsertSql() {
+        return this.insertSql;
+    }
+
+    @Override
+    public String getUpdateSql() {
+        return this.updateSql;
+    }
+
+    @Override
+    public String getDeleteSql() {
+        return this.deleteSql;
+    }
+
+    @Override
+    public String getSelectSql() {
+        return this.selectSql;
+    }
+}
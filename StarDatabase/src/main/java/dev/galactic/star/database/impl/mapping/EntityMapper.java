@@ -0,0 +1,162 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.database.impl.mapping;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps a {@link dev.galactic.star.database.impl.mapping.annotations.DatabaseTable} or
+ * {@link dev.galactic.star.database.impl.annotations.Table} class to its table.
+ *
+ * @param <T> The table class.
+ * @see EntityMappers
+ */
+public interface EntityMapper<T> {
+
+    /**
+     * Returns the name of the table.
+     *
+     * @return Table name.
+     */
+    String getTableName();
+
+    /**
+     * Returns the columns in the order the values are bound. The array must not be modified.
+     *
+     * @return Column names.
+     */
+    String[] getColumns();
+
+    /**
+     * Returns the primary key column.
+     *
+     * @return Column name, empty if there is none.
+     */
+    String getPrimaryKey();
+
+    /**
+     * Returns the index of the primary key column.
+     *
+     * @return Index, -1 if there is none.
+     */
+    int getPrimaryKeyIndex();
+
+    /**
+     * Returns the CREATE TABLE query.
+     *
+     * @return Query, null if the column types are only known at runtime.
+     */
+    String getCreateSql();
+
+    /**
+     * Returns the INSERT query with a placeholder for every column.
+     *
+     * @return Query.
+     */
+    String getInsertSql();
+
+    /**
+     * Returns the UPDATE query, setting every column but the primary key which is the last placeholder.
+     *
+     * @return Query, null if there is no primary key.
+     */
+    String getUpdateSql();
+
+    /**
+     * Returns the DELETE query with a placeholder for the primary key.
+     *
+     * @return Query, null if there is no primary key.
+     */
+    String getDeleteSql();
+
+    /**
+     * Returns the SELECT query with a placeholder for the primary key.
+     *
+     * @return Query, null if there is no primary key.
+     */
+    String getSelectSql();
+
+    /**
+     * Returns the values of the entity in the order of the columns.
+     *
+     * @param entity The entity.
+     * @return Object[] of the values.
+     */
+    Object[] getValues(T entity);
+
+    /**
+     * Returns the value of the primary key.
+     *
+     * @param entity The entity.
+     * @return The value, null if there is no primary key.
+     */
+    default Object getPrimaryKeyValue(T entity) {
+        return this.getPrimaryKeyIndex() == -1 ? null : this.getValues(entity)[this.getPrimaryKeyIndex()];
+    }
+
+    /**
+     * Binds the value of a column to the statement.
+     *
+     * @param statement The statement to bind to.
+     * @param index     The index of the placeholder.
+     * @param column    The index of the column.
+     * @param entity    The entity.
+     * @throws SQLException If the value can't be bound.
+     */
+    void bind(PreparedStatement statement, int index, int column, T entity) throws SQLException;
+
+    /**
+     * Binds every column to the statement of {@link #getInsertSql()}.
+     *
+     * @param statement The statement to bind to.
+     * @param entity    The entity.
+     * @throws SQLException If a value can't be bound.
+     */
+    default void bindInsert(PreparedStatement statement, T entity) throws SQLException {
+        for (int i = 0; i < this.getColumns().length; i++) {
+            this.bind(statement, i + 1, i, entity);
+        }
+    }
+
+    /**
+     * Binds every column to the statement of {@link #getUpdateSql()}, the primary key last.
+     *
+     * @param statement The statement to bind to.
+     * @param entity    The entity.
+     * @throws SQLException If a value can't be bound.
+     */
+    default void bindUpdate(PreparedStatement statement, T entity) throws SQLException {
+        int index = 1;
+        for (int i = 0; i < this.getColumns().length; i++) {
+            if (i != this.getPrimaryKeyIndex()) {
+                this.bind(statement, index++, i, entity);
+            }
+        }
+        this.bind(statement, index, this.getPrimaryKeyIndex(), entity);
+    }
+
+    /**
+     * Reads the current row into a new entity.
+     *
+     * @param resultSet The result set.
+     * @return The entity.
+     * @throws SQLException If a column can't be read.
+     */
+    T read(ResultSet resultSet) throws SQLException;
+}
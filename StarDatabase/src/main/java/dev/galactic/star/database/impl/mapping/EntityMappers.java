@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.database.impl.mapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Looks up the mapper of a table class once. The mapper generated by the StarDatabaseProcessor annotation processor,
+ * named {@code <TableClass>$StarMapper}, is used when it exists, else a {@link ReflectiveEntityMapper}.
+ */
+public final class EntityMappers {
+    private static final Map<Class<?>, EntityMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+
+    private EntityMappers() {
+    }
+
+    /**
+     * Returns the mapper of the class.
+     *
+     * @param type Class annotated with @DatabaseTable or @Table.
+     * @param <T>  The table class.
+     * @return EntityMapper instance.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMapper<T> get(Class<T> type) {
+        return (EntityMapper<T>) MAPPERS.computeIfAbsent(type, EntityMappers::load);
+    }
+
+    /**
+     * Registers a mapper for the class, replacing the generated or reflective one.
+     *
+     * @param type   The table class.
+     * @param mapper The mapper to use.
+     * @param <T>    The table class.
+     */
+    public static <T> void register(Class<T> type, EntityMapper<T> mapper) {
+        MAPPERS.put(type, mapper);
+    }
+
+    private static EntityMapper<?> load(Class<?> type) {
+        try {
+            Class<?> generated = Class.forName(type.getName() + "$StarMapper", true, type.getClassLoader());
+            return (EntityMapper<?>) generated.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return new ReflectiveEntityMapper<>(type);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            e.printStackTrace();
+            return new ReflectiveEntityMapper<>(type);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.database.impl.mapping;
+
+import dev.galactic.star.database.impl.annotations.Table;
+import dev.galactic.star.database.impl.annotations.TableColumn;
+import dev.galactic.star.database.impl.mapping.annotations.DatabaseField;
+import dev.galactic.star.database.impl.mapping.annotations.DatabaseTable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The mapper used when no mapper was generated for the class. The annotations are read once, the fields are then
+ * accessed reflectively.
+ *
+ * @param <T> The table class.
+ */
+public class ReflectiveEntityMapper<T> extends AbstractEntityMapper<T> {
+    private final Class<T> type;
+    private final Field[] fields;
+    private volatile Constructor<T> constructor;
+
+    /**
+     * Reads the annotations of the class.
+     *
+     * @param type Class annotated with @DatabaseTable or @Table.
+     */
+    public ReflectiveEntityMapper(Class<T> type) {
+        this(type, getFields(type));
+    }
+
+    private ReflectiveEntityMapper(Class<T> type, Field[] fields) {
+        super(getTableName(type), getColumns(fields), getPrimaryKey(type, fields), getCreateSql(type, fields));
+        this.type = type;
+        this.fields = fields;
+        for (Field field : fields) {
+            field.setAccessible(true);
+        }
+    }
+
+    private static Field[] getFields(Class<?> type) {
+        Class<? extends java.lang.annotation.Annotation> annotation;
+        if (type.isAnnotationPresent(DatabaseTable.class)) {
+            annotation = DatabaseField.class;
+        } else if (type.isAnnotationPresent(Table.class)) {
+            annotation = TableColumn.class;
+        } else {
+            throw new IllegalArgumentException("The class " + type.getName() + " doesn't annotate from " +
+                    "DatabaseTable or Table.");
+        }
+        List<Field> fields = new ArrayList<>();
+        for (Field field : type.getFields()) {
+            if (field.isAnnotationPresent(annotation)) {
+                fields.add(field);
+            }
+        }
+        return fields.toArray(new Field[0]);
+    }
+
+    private static String getTableName(Class<?> type) {
+        DatabaseTable table = type.getAnnotation(DatabaseTable.class);
+        if (table != null) {
+            return table.tableName().isEmpty() ? type.getName() : table.tableName();
+        }
+        return type.getAnnotation(Table.class).table_name();
+    }
+
+    private static String getColumnName(Field field) {
+        DatabaseField column = field.getAnnotation(DatabaseField.class);
+        if (column != null) {
+            return column.name().isEmpty() ? field.getName().toLowerCase() : column.name();
+        }
+        return field.getAnnotation(TableColumn.class).name();
+    }
+
+    private static String[] getColumns(Field[] fields) {
+        String[] columns = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            columns[i] = getColumnName(fields[i]);
+        }
+        return columns;
+    }
+
+    private static String getPrimaryKey(Class<?> type, Field[] fields) {
+        DatabaseTable table = type.getAnnotation(DatabaseTable.class);
+        if (table != null) {
+            return table.primaryKeyField();
+        }
+        for (Field field : fields) {
+            if (field.getAnnotation(TableColumn.class).primaryKey()) {
+                return getColumnName(field);
+            }
+        }
+        return "";
+    }
+
+    private static String getCreateSql(Class<?> type, Field[] fields) {
+        DatabaseTable table = type.getAnnotation(DatabaseTable.class);
+        if (table == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder("CREATE TABLE IF NOT EXISTS " + getTableName(type) + "(");
+        for (Field field : fields) {
+            DatabaseField column = field.getAnnotation(DatabaseField.class);
+            query.append(getColumnName(field))
+                    .append(" ")
+                    .append(column.fieldType().getName())
+                    .append("(")
+                    .append(column.maxSize())
+                    .append(")")
+                    .append(!column.canBeNull() ? " NOT NULL" : "")
+                    .append(column.autoIncrements() ? " AUTO_INCREMENT" : "")
+                    .append(", ");
+        }
+        boolean isEmpty = table.primaryKeyField().isEmpty();
+        if (isEmpty) query.delete(query.length() - 2, query.length());
+        query.append(!isEmpty ? "PRIMARY KEY(" + table.primaryKeyField() + "));" : ");");
+        return query.toString();
+    }
+
+    @Override
+    public Object[] getValues(T entity) {
+        Object[] values = new Object[this.fields.length];
+        try {
+            for (int i = 0; i < this.fields.length; i++) {
+                values[i] = this.fields[i].get(entity);
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        return values;
+    }
+
+    @Override
+    public void bind(PreparedStatement statement, int index, int column, T entity) throws SQLException {
+        try {
+            statement.setObject(index, this.fields[column].get(entity));
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public T read(ResultSet resultSet) throws SQLException {
+        try {
+            if (this.constructor == null) {
+                Constructor<T> constructor = this.type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                this.constructor = constructor;
+            }
+            T entity = this.constructor.newInstance();
+            String[] columns = this.getColumns();
+            for (int i = 0; i < this.fields.length; i++) {
+                Class<?> fieldType = this.fields[i].getType();
+                Object value = resultSet.getObject(columns[i], wrap(fieldType));
+                if (value != null || !fieldType.isPrimitive()) {
+                    this.fields[i].set(entity, value);
+                }
+            }
+            return entity;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        }
+        return Character.class;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.database.impl.mapping;
+
+import dev.galactic.star.database.impl.mapping.annotations.DatabaseField;
+import dev.galactic.star.database.impl.mapping.annotations.DatabaseTable;
+import dev.galactic.star.database.impl.objects.ColumnType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class EntityMappersTest {
+
+    @Test
+    void buildsQueries() {
+        EntityMapper<PlayerTable> mapper = EntityMappers.get(PlayerTable.class);
+        assertEquals("players", mapper.getTableName());
+        assertEquals("uuid", mapper.getPrimaryKey());
+        assertEquals("CREATE TABLE IF NOT EXISTS players(uuid VARCHAR(36) NOT NULL, coins INT(11), PRIMARY KEY(uuid));",
+                mapper.getCreateSql());
+        assertEquals("INSERT INTO players(uuid, coins) VALUES (?, ?);", mapper.getInsertSql());
+        assertEquals("UPDATE players SET coins = ? WHERE uuid = ?;", mapper.getUpdateSql());
+        assertEquals("DELETE FROM players WHERE uuid = ?;", mapper.getDeleteSql());
+        assertEquals("SELECT uuid, coins FROM players WHERE uuid = ?;", mapper.getSelectSql());
+    }
+
+    @Test
+    void readsValues() {
+        PlayerTable player = new PlayerTable();
+        player.uuid = "uuid";
+        player.money = 5;
+        EntityMapper<PlayerTable> mapper = EntityMappers.get(PlayerTable.class);
+        assertArrayEquals(new Object[]{"uuid", 5}, mapper.getValues(player));
+        assertEquals("uuid", mapper.getPrimaryKeyValue(player));
+    }
+
+    @Test
+    void noPrimaryKey() {
+        EntityMapper<LogTable> mapper = EntityMappers.get(LogTable.class);
+        assertEquals("CREATE TABLE IF NOT EXISTS logs(message TEXT(65535));", mapper.getCreateSql());
+        assertNull(mapper.getUpdateSql());
+        assertNull(mapper.getPrimaryKeyValue(new LogTable()));
+    }
+
+    @DatabaseTable(tableName = "players", primaryKeyField = "uuid")
+    public static class PlayerTable {
+        @DatabaseField(maxSize = 36, fieldType = ColumnType.VARCHAR)
+        public String uuid;
+
+        @DatabaseField(name = "coins", maxSize = 11, fieldType = ColumnType.INT, canBeNull = true)
+        public int money;
+    }
+
+    @DatabaseTable(tableName = "logs")
+    public static class LogTable {
+        @DatabaseField(maxSize = 65535, fieldType = ColumnType.TEXT, canBeNull = true)
+        public String message;
+    }
+}
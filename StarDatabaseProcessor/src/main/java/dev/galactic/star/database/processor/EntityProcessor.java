@@ -0,0 +1,390 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.database.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code <TableClass>$StarMapper} for every class annotated with @DatabaseTable or @Table. The mapper
+ * has the queries as constants and reads and writes the fields directly, so EntityMappers doesn't have to fall back
+ * to reflection. The annotations are read by name so the processor doesn't depend on StarDatabase.
+ */
+public class EntityProcessor extends AbstractProcessor {
+    private static final String DATABASE_TABLE = "dev.galactic.star.database.impl.mapping.annotations.DatabaseTable";
+    private static final String DATABASE_FIELD = "dev.galactic.star.database.impl.mapping.annotations.DatabaseField";
+    private static final String TABLE = "dev.galactic.star.database.impl.annotations.Table";
+    private static final String TABLE_COLUMN = "dev.galactic.star.database.impl.annotations.TableColumn";
+    private static final String MAPPER = "dev.galactic.star.database.impl.mapping.AbstractEntityMapper";
+    private static final String FALLBACK = "dev.galactic.star.database.impl.mapping.ReflectiveEntityMapper";
+    private static final String SUFFIX = "$StarMapper";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(DATABASE_TABLE, TABLE));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                // @Table is also used on the fields of @Database classes, those aren't tables themselves.
+                if (element.getKind() != ElementKind.CLASS) {
+                    continue;
+                }
+                TypeElement type = (TypeElement) element;
+                if (this.isAccessible(type)) {
+                    this.generate(type, this.getAnnotation(type, DATABASE_TABLE) != null);
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isAccessible(TypeElement type) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "The class is private, it is mapped reflectively.", type);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type, boolean databaseTable) {
+        String fieldAnnotation = databaseTable ? DATABASE_FIELD : TABLE_COLUMN;
+        List<VariableElement> fields = new ArrayList<>();
+        for (TypeElement current = type; current != null; current = this.getSuperclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (this.getAnnotation(field, fieldAnnotation) == null) {
+                    continue;
+                }
+                if (!field.getModifiers().contains(Modifier.PUBLIC) || field.getModifiers().contains(Modifier.STATIC)) {
+                    this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                            "Only public instance fields are columns, this one is ignored.", field);
+                    continue;
+                }
+                fields.add(field);
+            }
+        }
+        String binaryName = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+        List<String> columns = new ArrayList<>();
+        for (VariableElement field : fields) {
+            columns.add(this.getColumnName(field, databaseTable));
+        }
+        String tableName;
+        String primaryKey = "";
+        String createSql = null;
+        if (databaseTable) {
+            AnnotationMirror table = this.getAnnotation(type, DATABASE_TABLE);
+            tableName = (String) this.getValue(table, "tableName");
+            if (tableName.isEmpty()) {
+                tableName = binaryName;
+            }
+            primaryKey = (String) this.getValue(table, "primaryKeyField");
+            if (!primaryKey.isEmpty() && !columns.contains(primaryKey)) {
+                this.error(type, "The primary key field \"" + primaryKey + "\" isn't a column of the table.");
+                return;
+            }
+            createSql = this.getCreateSql(tableName, fields, columns, primaryKey);
+        } else {
+            tableName = (String) this.getValue(this.getAnnotation(type, TABLE), "table_name");
+            for (int i = 0; i < fields.size(); i++) {
+                if ((Boolean) this.getValue(this.getAnnotation(fields.get(i), TABLE_COLUMN), "primaryKey")) {
+                    if (primaryKey.isEmpty()) {
+                        primaryKey = columns.get(i);
+                    } else {
+                        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                                "Only the first primary key column \"" + primaryKey + "\" is used.", fields.get(i));
+                    }
+                }
+            }
+        }
+        this.write(type, binaryName, fields, columns, tableName, primaryKey, createSql);
+    }
+
+    private String getCreateSql(String tableName, List<VariableElement> fields, List<String> columns,
+                                String primaryKey) {
+        StringBuilder expression = new StringBuilder();
+        StringBuilder query = new StringBuilder("CREATE TABLE IF NOT EXISTS " + tableName + "(");
+        for (int i = 0; i < fields.size(); i++) {
+            AnnotationMirror column = this.getAnnotation(fields.get(i), DATABASE_FIELD);
+            // The query is a Java expression, the SQL name of the ColumnType is read with getName() at runtime.
+            VariableElement fieldType = (VariableElement) this.getValue(column, "fieldType");
+            query.append(columns.get(i))
+                    .append(" ");
+            expression.append(literal(query.toString()))
+                    .append(" + ")
+                    .append(((TypeElement) fieldType.getEnclosingElement()).getQualifiedName())
+                    .append('.')
+                    .append(fieldType.getSimpleName())
+                    .append(".getName() + ");
+            query.setLength(0);
+            query.append("(")
+                    .append(this.getValue(column, "maxSize"))
+                    .append(")")
+                    .append(!(Boolean) this.getValue(column, "canBeNull") ? " NOT NULL" : "")
+                    .append((Boolean) this.getValue(column, "autoIncrements") ? " AUTO_INCREMENT" : "")
+                    .append(", ");
+        }
+        boolean isEmpty = primaryKey.isEmpty();
+        if (isEmpty) query.delete(query.length() - 2, query.length());
+        query.append(!isEmpty ? "PRIMARY KEY(" + primaryKey + "));" : ");");
+        return expression.append(literal(query.toString())).toString();
+    }
+
+    private void write(TypeElement type, String binaryName, List<VariableElement> fields, List<String> columns,
+                       String tableName, String primaryKey, String createSql) {
+        PackageElement pkg = this.processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                + SUFFIX;
+        String entityType = this.processingEnv.getTypeUtils().erasure(type.asType()).toString();
+        boolean readable = this.isReadable(type, fields);
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import java.sql.PreparedStatement;\n")
+                .append("import java.sql.ResultSet;\n")
+                .append("import java.sql.SQLException;\n\n")
+                .append("/**\n * Generated by StarDatabaseProcessor from {@link ").append(entityType).append("}.\n */\n")
+                .append("public final class ").append(simpleName).append(" extends ").append(MAPPER).append('<')
+                .append(entityType).append("> {\n")
+                .append("    private static final String TABLE = ").append(literal(tableName)).append(";\n")
+                .append("    private static final String[] COLUMNS = {");
+        for (int i = 0; i < columns.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append(literal(columns.get(i)));
+        }
+        source.append("};\n")
+                .append("    private static final String PRIMARY_KEY = ").append(literal(primaryKey)).append(";\n")
+                .append("    private static final String CREATE_SQL = ").append(createSql == null ? "null" : createSql)
+                .append(";\n");
+        if (!readable) {
+            source.append("    private volatile ").append(FALLBACK).append('<').append(entityType)
+                    .append("> fallback;\n");
+        }
+        source.append("\n    public ").append(simpleName).append("() {\n")
+                .append("        super(TABLE, COLUMNS, PRIMARY_KEY, CREATE_SQL);\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public Object[] getValues(").append(entityType).append(" entity) {\n")
+                .append("        return new Object[]{");
+        for (int i = 0; i < fields.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append("entity.").append(fields.get(i).getSimpleName());
+        }
+        source.append("};\n    }\n\n")
+                .append("    @Override\n")
+                .append("    public void bind(PreparedStatement statement, int index, int column, ").append(entityType)
+                .append(" entity) throws SQLException {\n")
+                .append("        switch (column) {\n");
+        for (int i = 0; i < fields.size(); i++) {
+            source.append("            case ").append(i).append(":\n")
+                    .append("                statement.").append(this.setter(fields.get(i))).append(";\n")
+                    .append("                return;\n");
+        }
+        source.append("            default:\n")
+                .append("                throw new IndexOutOfBoundsException(\"Column \" + column);\n")
+                .append("        }\n    }\n\n")
+                .append("    @Override\n")
+                .append("    public ").append(entityType).append(" read(ResultSet resultSet) throws SQLException {\n");
+        if (readable) {
+            source.append("        ").append(entityType).append(" entity = new ").append(entityType).append("();\n");
+            for (int i = 0; i < fields.size(); i++) {
+                source.append(this.reader(fields.get(i), literal(columns.get(i))));
+            }
+            source.append("        return entity;\n");
+        } else {
+            source.append("        if (this.fallback == null) {\n")
+                    .append("            this.fallback = new ").append(FALLBACK).append("<>(").append(entityType)
+                    .append(".class);\n")
+                    .append("        }\n")
+                    .append("        return this.fallback.read(resultSet);\n");
+        }
+        source.append("    }\n}\n");
+
+        String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            JavaFileObject file = this.processingEnv.getFiler().createSourceFile(name, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            this.error(type, "Couldn't generate the mapper: " + e.getMessage());
+        }
+    }
+
+    private boolean isReadable(TypeElement type, List<VariableElement> fields) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)
+                || (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC))) {
+            return false;
+        }
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.FINAL)) {
+                return false;
+            }
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                return !constructor.getModifiers().contains(Modifier.PRIVATE);
+            }
+        }
+        return false;
+    }
+
+    private String setter(VariableElement field) {
+        String value = "entity." + field.getSimpleName();
+        TypeMirror type = field.asType();
+        switch (type.getKind()) {
+            case INT:
+                return "setInt(index, " + value + ")";
+            case LONG:
+                return "setLong(index, " + value + ")";
+            case BOOLEAN:
+                return "setBoolean(index, " + value + ")";
+            case DOUBLE:
+                return "setDouble(index, " + value + ")";
+            case FLOAT:
+                return "setFloat(index, " + value + ")";
+            case SHORT:
+                return "setShort(index, " + value + ")";
+            case BYTE:
+                return "setByte(index, " + value + ")";
+            case CHAR:
+                return "setString(index, String.valueOf(" + value + "))";
+            default:
+                return this.isString(type) ? "setString(index, " + value + ")" : "setObject(index, " + value + ")";
+        }
+    }
+
+    private String reader(VariableElement field, String column) {
+        String target = "        entity." + field.getSimpleName() + " = ";
+        TypeMirror type = field.asType();
+        switch (type.getKind()) {
+            case INT:
+                return target + "resultSet.getInt(" + column + ");\n";
+            case LONG:
+                return target + "resultSet.getLong(" + column + ");\n";
+            case BOOLEAN:
+                return target + "resultSet.getBoolean(" + column + ");\n";
+            case DOUBLE:
+                return target + "resultSet.getDouble(" + column + ");\n";
+            case FLOAT:
+                return target + "resultSet.getFloat(" + column + ");\n";
+            case SHORT:
+                return target + "resultSet.getShort(" + column + ");\n";
+            case BYTE:
+                return target + "resultSet.getByte(" + column + ");\n";
+            case CHAR:
+                String variable = field.getSimpleName() + "Value";
+                return "        Character " + variable + " = resultSet.getObject(" + column + ", Character.class);\n"
+                        + "        if (" + variable + " != null) {\n"
+                        + "    " + target + variable + ";\n"
+                        + "        }\n";
+            default:
+                if (this.isString(type)) {
+                    return target + "resultSet.getString(" + column + ");\n";
+                }
+                String erased = this.processingEnv.getTypeUtils().erasure(type).toString();
+                return target + "resultSet.getObject(" + column + ", " + erased + ".class);\n";
+        }
+    }
+
+    private boolean isString(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals("java.lang.String");
+    }
+
+    private String getColumnName(VariableElement field, boolean databaseTable) {
+        if (databaseTable) {
+            String name = (String) this.getValue(this.getAnnotation(field, DATABASE_FIELD), "name");
+            return name.isEmpty() ? field.getSimpleName().toString().toLowerCase() : name;
+        }
+        return (String) this.getValue(this.getAnnotation(field, TABLE_COLUMN), "name");
+    }
+
+    private TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    private static String literal(String value) {
+        if (value == null) {
+            return "null";
+        }
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private AnnotationMirror getAnnotation(Element element, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotation.getQualifiedName().contentEquals(name)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object getValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                this.processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private void error(Element element, String message) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
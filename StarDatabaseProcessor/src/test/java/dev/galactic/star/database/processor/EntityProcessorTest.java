@@ -0,0 +1,215 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.database.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityProcessorTest {
+    private static final List<JavaFileObject> STUBS = Arrays.asList(
+            new Source("dev.galactic.star.database.impl.mapping.annotations.DatabaseTable",
+                    "package dev.galactic.star.database.impl.mapping.annotations;\n" +
+                            "public @interface DatabaseTable {\n" +
+                            "    String tableName() default \"\";\n" +
+                            "    String primaryKeyField() default \"\";\n" +
+                            "}"),
+            new Source("dev.galactic.star.database.impl.mapping.annotations.DatabaseField",
+                    "package dev.galactic.star.database.impl.mapping.annotations;\n" +
+                            "import dev.galactic.star.database.impl.objects.ColumnType;\n" +
+                            "public @interface DatabaseField {\n" +
+                            "    String name() default \"\";\n" +
+                            "    boolean autoIncrements() default false;\n" +
+                            "    boolean canBeNull() default false;\n" +
+                            "    int maxSize();\n" +
+                            "    ColumnType fieldType();\n" +
+                            "}"),
+            new Source("dev.galactic.star.database.impl.annotations.Table",
+                    "package dev.galactic.star.database.impl.annotations;\n" +
+                            "public @interface Table { String table_name() default \"no_name_table\"; }"),
+            new Source("dev.galactic.star.database.impl.annotations.TableColumn",
+                    "package dev.galactic.star.database.impl.annotations;\n" +
+                            "public @interface TableColumn { String name(); boolean primaryKey() default false; }"),
+            new Source("dev.galactic.star.database.impl.objects.ColumnType",
+                    "package dev.galactic.star.database.impl.objects;\n" +
+                            "public enum ColumnType {\n" +
+                            "    INT(\"INT\"), DATE_TIME(\"DATETIME\"), VARCHAR(\"VARCHAR\");\n" +
+                            "    private final String name;\n" +
+                            "    ColumnType(String name) { this.name = name; }\n" +
+                            "    public String getName() { return this.name; }\n" +
+                            "}"),
+            new Source("dev.galactic.star.database.impl.mapping.AbstractEntityMapper",
+                    "package dev.galactic.star.database.impl.mapping;\n" +
+                            "public abstract class AbstractEntityMapper<T> {\n" +
+                            "    private final String createSql;\n" +
+                            "    protected AbstractEntityMapper(String tableName, String[] columns, " +
+                            "String primaryKey, String createSql) {\n" +
+                            "        this.createSql = createSql;\n" +
+                            "    }\n" +
+                            "    public String getCreateSql() { return this.createSql; }\n" +
+                            "    public abstract Object[] getValues(T entity);\n" +
+                            "    public abstract void bind(java.sql.PreparedStatement statement, int index, " +
+                            "int column, T entity) throws java.sql.SQLException;\n" +
+                            "    public abstract T read(java.sql.ResultSet resultSet) throws java.sql.SQLException;\n" +
+                            "}"),
+            new Source("dev.galactic.star.database.impl.mapping.ReflectiveEntityMapper",
+                    "package dev.galactic.star.database.impl.mapping;\n" +
+                            "public class ReflectiveEntityMapper<T> {\n" +
+                            "    public ReflectiveEntityMapper(Class<T> type) { }\n" +
+                            "    public T read(java.sql.ResultSet resultSet) { return null; }\n" +
+                            "}"));
+
+    @TempDir
+    Path output;
+
+    @Test
+    void databaseTable() throws Exception {
+        List<String> errors = this.compile("package test;\n" +
+                "import dev.galactic.star.database.impl.mapping.annotations.*;\n" +
+                "import dev.galactic.star.database.impl.objects.ColumnType;\n" +
+                "@DatabaseTable(tableName = \"users\", primaryKeyField = \"id\")\n" +
+                "public class TestEntity {\n" +
+                "    @DatabaseField(maxSize = 11, fieldType = ColumnType.INT, autoIncrements = true)\n" +
+                "    public int id = 7;\n" +
+                "    @DatabaseField(name = \"joined_at\", maxSize = 0, fieldType = ColumnType.DATE_TIME, " +
+                "canBeNull = true)\n" +
+                "    public java.sql.Timestamp joined;\n" +
+                "    @DatabaseField(maxSize = 16, fieldType = ColumnType.VARCHAR)\n" +
+                "    String ignored;\n" +
+                "}");
+        assertEquals(Collections.emptyList(), errors);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{this.output.toUri().toURL()})) {
+            Object entity = loader.loadClass("test.TestEntity").getDeclaredConstructor().newInstance();
+            Object mapper = loader.loadClass("test.TestEntity$StarMapper").getDeclaredConstructor().newInstance();
+            assertEquals("CREATE TABLE IF NOT EXISTS users(id INT(11) NOT NULL AUTO_INCREMENT, " +
+                            "joined_at DATETIME(0), PRIMARY KEY(id));",
+                    mapper.getClass().getMethod("getCreateSql").invoke(mapper));
+            assertArrayEquals(new Object[]{7, null},
+                    (Object[]) mapper.getClass().getMethod("getValues", Object.class).invoke(mapper, entity));
+        }
+    }
+
+    @Test
+    void table() throws Exception {
+        List<String> errors = this.compile("package test;\n" +
+                "import dev.galactic.star.database.impl.annotations.*;\n" +
+                "@Table(table_name = \"users\")\n" +
+                "public class TestEntity {\n" +
+                "    @TableColumn(name = \"id\", primaryKey = true)\n" +
+                "    public long id;\n" +
+                "    @TableColumn(name = \"name\")\n" +
+                "    public String name = \"Steve\";\n" +
+                "}");
+        assertEquals(Collections.emptyList(), errors);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{this.output.toUri().toURL()})) {
+            Object entity = loader.loadClass("test.TestEntity").getDeclaredConstructor().newInstance();
+            Object mapper = loader.loadClass("test.TestEntity$StarMapper").getDeclaredConstructor().newInstance();
+            assertNull(mapper.getClass().getMethod("getCreateSql").invoke(mapper));
+            assertArrayEquals(new Object[]{0L, "Steve"},
+                    (Object[]) mapper.getClass().getMethod("getValues", Object.class).invoke(mapper, entity));
+        }
+    }
+
+    @Test
+    void unknownPrimaryKey() throws IOException {
+        List<String> errors = this.compile("package test;\n" +
+                "import dev.galactic.star.database.impl.mapping.annotations.*;\n" +
+                "import dev.galactic.star.database.impl.objects.ColumnType;\n" +
+                "@DatabaseTable(tableName = \"users\", primaryKeyField = \"uuid\")\n" +
+                "public class TestEntity {\n" +
+                "    @DatabaseField(maxSize = 11, fieldType = ColumnType.INT)\n" +
+                "    public int id;\n" +
+                "}");
+        assertEquals(Collections.singletonList("The primary key field \"uuid\" isn't a column of the table."), errors);
+        assertFalse(Files.exists(this.output.resolve("test/TestEntity$StarMapper.java")));
+    }
+
+    @Test
+    void privateClass() throws IOException {
+        List<String> errors = this.compile("package test;\n" +
+                "import dev.galactic.star.database.impl.mapping.annotations.*;\n" +
+                "import dev.galactic.star.database.impl.objects.ColumnType;\n" +
+                "public class TestEntity {\n" +
+                "    @DatabaseTable(tableName = \"users\")\n" +
+                "    private static class Row {\n" +
+                "        @DatabaseField(maxSize = 11, fieldType = ColumnType.INT)\n" +
+                "        public int id;\n" +
+                "    }\n" +
+                "}");
+        assertEquals(Collections.emptyList(), errors);
+        assertFalse(Files.exists(this.output.resolve("test/TestEntity$Row$StarMapper.java")));
+    }
+
+    /**
+     * Compiles the source with the stub annotations and the processor into the output directory.
+     *
+     * @param source Source of test.TestEntity.
+     * @return The error messages.
+     */
+    private List<String> compile(String source) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<JavaFileObject> sources = new ArrayList<>(STUBS);
+        sources.add(new Source("test.TestEntity", source));
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                    Arrays.asList("-d", this.output.toString(), "-s", this.output.toString()), null, sources);
+            task.setProcessors(Collections.singletonList(new EntityProcessor()));
+            task.call();
+        }
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.toList());
+    }
+
+    private static final class Source extends SimpleJavaFileObject {
+        private final String code;
+
+        private Source(String name, String code) {
+            super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return this.code;
+        }
+    }
+}
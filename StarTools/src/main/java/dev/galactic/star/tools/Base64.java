@@ -16,15 +16,34 @@
 
 package dev.galactic.star.tools;
 
-import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
- * Base64 serializer:
+ * Base64 codec (RFC 4648). Encoding writes into an array of the exact size, 3 bytes into 4 characters at a time, and
+ * decoding reads 4 characters into 3 bytes at a time, both with tables that are built once.
+ * <p>
+ * Decoding is lenient: it accepts the standard and the URL-safe alphabet and skips every other character, including
+ * padding and line breaks, so it reads the output of every {@link Variant}.
+ * <p>
+ * Use {@link Base64OutputStream} and {@link Base64InputStream}, or the channels of
+ * {@link #encodingChannel(WritableByteChannel, Variant)} and {@link #decodingChannel(ReadableByteChannel)}, to encode
+ * and decode data that doesn't need to be in memory as a whole.
+ * <p>
+ * Originally based on
  * <a href="https://gist.github.com/EmilHernvall/953733#file-base64-java">EmilHernvall's Base64 implementation</a>
  *
  * @author EmilHernvall.
  */
 public class Base64 {
+    private static final byte[] STANDARD_ALPHABET = alphabet('+', '/');
+    private static final byte[] URL_SAFE_ALPHABET = alphabet('-', '_');
+    private static final int[] DECODE_TABLE = decodeTable();
+    private static final int MIME_LINE_LENGTH = 76;
 
     /**
      * The default constructor. There is no need to instantiate this class.
@@ -41,42 +60,116 @@ public class Base64 {
      * @param data An array of bytes that can be from a String, object, image, etc.
      * @return Base64 String.
      */
+    public static String encode(byte[] data) {
+        return encode(data, Variant.STANDARD);
+    }
 
+    /**
+     * Encodes the byte array into a Base64 String of the variant.
+     *
+     * @param data    An array of bytes.
+     * @param variant The alphabet and line layout.
+     * @return Base64 String.
+     */
+    public static String encode(byte[] data, Variant variant) {
+        int length = encodedLength(data.length, variant);
+        ByteWriter out = BufferPool.acquire(length);
+        try {
+            encode(data, 0, data.length, variant, out.buffer());
+            return new String(out.buffer(), 0, length, StandardCharsets.ISO_8859_1);
+        } finally {
+            BufferPool.release(out);
+        }
+    }
 
-    public static String encode(byte[] data) {
-        char[] table = {
-                'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M', 'N', 'O', 'P',
-                'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z', 'a', 'b', 'c', 'd', 'e', 'f',
-                'g', 'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v',
-                'w', 'x', 'y', 'z', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '+', '/'};
-
-        StringBuilder buffer = new StringBuilder();
-        int pad = 0;
-        for (int i = 0; i < data.length; i += 3) {
-
-            int b = ((data[i] & 0xFF) << 16) & 0xFFFFFF;
-            if (i + 1 < data.length) {
-                b |= (data[i + 1] & 0xFF) << 8;
-            } else {
-                pad++;
-            }
-            if (i + 2 < data.length) {
-                b |= (data[i + 2] & 0xFF);
-            } else {
-                pad++;
-            }
+    /**
+     * Encodes the byte array into ASCII Base64 bytes, e.g. to write them to a stream without creating a String.
+     *
+     * @param data An array of bytes.
+     * @return Byte array of the ASCII characters.
+     */
+    public static byte[] encodeToBytes(byte[] data) {
+        return encodeToBytes(data, Variant.STANDARD);
+    }
+
+    /**
+     * Encodes the byte array into ASCII Base64 bytes of the variant.
+     *
+     * @param data    An array of bytes.
+     * @param variant The alphabet and line layout.
+     * @return Byte array of the ASCII characters.
+     */
+    public static byte[] encodeToBytes(byte[] data, Variant variant) {
+        return encodeToBytes(data, 0, data.length, variant);
+    }
+
+    /**
+     * Encodes part of the byte array into ASCII Base64 bytes of the variant.
+     *
+     * @param data    An array of bytes.
+     * @param offset  Index of the first byte to encode.
+     * @param length  Amount of bytes to encode.
+     * @param variant The alphabet and line layout.
+     * @return Byte array of the ASCII characters.
+     */
+    public static byte[] encodeToBytes(byte[] data, int offset, int length, Variant variant) {
+        if (offset < 0 || length < 0 || offset > data.length - length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds " +
+                    "for length " + data.length);
+        }
+        byte[] out = new byte[encodedLength(length, variant)];
+        encode(data, offset, length, variant, out);
+        return out;
+    }
 
-            for (int j = 0; j < 4 - pad; j++) {
-                int c = (b & 0xFC0000) >> 18;
-                buffer.append(table[c]);
-                b <<= 6;
+    private static void encode(byte[] data, int offset, int length, Variant variant, byte[] out) {
+        byte[] alphabet = variant.alphabet;
+        int lineBlocks = variant.lineLength / 4;
+        int end = offset + length;
+        int blockEnd = offset + length / 3 * 3;
+        int in = offset;
+        int pos = 0;
+        int blocks = 0;
+        while (in < blockEnd) {
+            int bits = (data[in] & 0xFF) << 16 | (data[in + 1] & 0xFF) << 8 | (data[in + 2] & 0xFF);
+            in += 3;
+            out[pos] = alphabet[bits >>> 18];
+            out[pos + 1] = alphabet[(bits >>> 12) & 0x3F];
+            out[pos + 2] = alphabet[(bits >>> 6) & 0x3F];
+            out[pos + 3] = alphabet[bits & 0x3F];
+            pos += 4;
+            if (lineBlocks > 0 && ++blocks == lineBlocks && in < end) {
+                out[pos++] = '\r';
+                out[pos++] = '\n';
+                blocks = 0;
             }
         }
-        for (int j = 0; j < pad; j++) {
-            buffer.append("=");
+        int remaining = end - in;
+        if (remaining > 0) {
+            int bits = (data[in] & 0xFF) << 16 | (remaining == 2 ? (data[in + 1] & 0xFF) << 8 : 0);
+            out[pos] = alphabet[bits >>> 18];
+            out[pos + 1] = alphabet[(bits >>> 12) & 0x3F];
+            out[pos + 2] = remaining == 2 ? alphabet[(bits >>> 6) & 0x3F] : (byte) '=';
+            out[pos + 3] = '=';
         }
+    }
 
-        return buffer.toString();
+    /**
+     * Returns the length of the Base64 encoding of an amount of bytes.
+     *
+     * @param length  Amount of bytes.
+     * @param variant The alphabet and line layout.
+     * @return Amount of ASCII characters.
+     */
+    public static int encodedLength(int length, Variant variant) {
+        long chars = (length + 2L) / 3 * 4;
+        if (variant.lineLength > 0 && chars > 0) {
+            chars += (chars - 1) / variant.lineLength * 2;
+        }
+        if (chars > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The Base64 encoding of " + length + " bytes is too large.");
+        }
+        return (int) chars;
     }
 
     /**
@@ -86,57 +179,238 @@ public class Base64 {
      * @return Byte array.
      */
     public static byte[] decode(String data) {
-        int[] table = {
-                -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
-                -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
-                -1, -1, -1, -1, -1, -1, -1, -1, -1, 62, -1, -1, -1, 63, 52, 53, 54,
-                55, 56, 57, 58, 59, 60, 61, -1, -1, -1, -1, -1, -1, -1, 0, 1, 2,
-                3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19,
-                20, 21, 22, 23, 24, 25, -1, -1, -1, -1, -1, -1, 26, 27, 28, 29, 30,
-                31, 32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42, 43, 44, 45, 46, 47,
-                48, 49, 50, 51, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
-                -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
-                -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
-                -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
-                -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
-                -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
-                -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
-                -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1};
-        byte[] bytes = data.getBytes();
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        for (int i = 0; i < bytes.length; ) {
-            int b = 0;
-            if (table[bytes[i]] != -1) {
-                b = (table[bytes[i]] & 0xFF) << 18;
+        int length = data.length();
+        byte[] out = new byte[decodedLength(length, length > 0 && data.charAt(length - 1) == '=' ?
+                length > 1 && data.charAt(length - 2) == '=' ? 2 : 1 : 0)];
+        int[] table = DECODE_TABLE;
+        int in = 0;
+        int pos = 0;
+        int bits = 0;
+        int count = 0;
+        while (in < length) {
+            if (count == 0 && in + 4 <= length) {
+                char c0 = data.charAt(in);
+                char c1 = data.charAt(in + 1);
+                char c2 = data.charAt(in + 2);
+                char c3 = data.charAt(in + 3);
+                if ((c0 | c1 | c2 | c3) <= 0xFF) {
+                    int v0 = table[c0];
+                    int v1 = table[c1];
+                    int v2 = table[c2];
+                    int v3 = table[c3];
+                    if ((v0 | v1 | v2 | v3) >= 0) {
+                        int block = v0 << 18 | v1 << 12 | v2 << 6 | v3;
+                        out[pos] = (byte) (block >>> 16);
+                        out[pos + 1] = (byte) (block >>> 8);
+                        out[pos + 2] = (byte) block;
+                        pos += 3;
+                        in += 4;
+                        continue;
+                    }
+                }
             }
-            // skip unknown characters
-            else {
-                i++;
+            char c = data.charAt(in++);
+            int value = c > 0xFF ? -1 : table[c];
+            if (value < 0) {
                 continue;
             }
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                out[pos] = (byte) (bits >>> 16);
+                out[pos + 1] = (byte) (bits >>> 8);
+                out[pos + 2] = (byte) bits;
+                pos += 3;
+                bits = 0;
+                count = 0;
+            }
+        }
+        return finish(out, pos, bits, count);
+    }
 
-            int num = 0;
-            if (i + 1 < bytes.length && table[bytes[i + 1]] != -1) {
-                b = b | ((table[bytes[i + 1]] & 0xFF) << 12);
-                num++;
+    /**
+     * Decodes ASCII Base64 bytes into an array of bytes.
+     *
+     * @param data Byte array of the ASCII characters.
+     * @return Byte array.
+     */
+    public static byte[] decode(byte[] data) {
+        return decode(data, 0, data.length);
+    }
+
+    /**
+     * Decodes part of an array of ASCII Base64 bytes into an array of bytes.
+     *
+     * @param data   Byte array of the ASCII characters.
+     * @param offset Index of the first character.
+     * @param length Amount of characters.
+     * @return Byte array.
+     */
+    public static byte[] decode(byte[] data, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > data.length - length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds " +
+                    "for length " + data.length);
+        }
+        int end = offset + length;
+        byte[] out = new byte[decodedLength(length, length > 0 && data[end - 1] == '=' ?
+                length > 1 && data[end - 2] == '=' ? 2 : 1 : 0)];
+        int[] table = DECODE_TABLE;
+        int in = offset;
+        int pos = 0;
+        int bits = 0;
+        int count = 0;
+        while (in < end) {
+            if (count == 0 && in + 4 <= end) {
+                int v0 = table[data[in] & 0xFF];
+                int v1 = table[data[in + 1] & 0xFF];
+                int v2 = table[data[in + 2] & 0xFF];
+                int v3 = table[data[in + 3] & 0xFF];
+                if ((v0 | v1 | v2 | v3) >= 0) {
+                    int block = v0 << 18 | v1 << 12 | v2 << 6 | v3;
+                    out[pos] = (byte) (block >>> 16);
+                    out[pos + 1] = (byte) (block >>> 8);
+                    out[pos + 2] = (byte) block;
+                    pos += 3;
+                    in += 4;
+                    continue;
+                }
             }
-            if (i + 2 < bytes.length && table[bytes[i + 2]] != -1) {
-                b = b | ((table[bytes[i + 2]] & 0xFF) << 6);
-                num++;
+            int value = table[data[in++] & 0xFF];
+            if (value < 0) {
+                continue;
             }
-            if (i + 3 < bytes.length && table[bytes[i + 3]] != -1) {
-                b = b | (table[bytes[i + 3]] & 0xFF);
-                num++;
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                out[pos] = (byte) (bits >>> 16);
+                out[pos + 1] = (byte) (bits >>> 8);
+                out[pos + 2] = (byte) bits;
+                pos += 3;
+                bits = 0;
+                count = 0;
             }
+        }
+        return finish(out, pos, bits, count);
+    }
 
-            while (num > 0) {
-                int c = (b & 0xFF0000) >> 16;
-                buffer.write((char) c);
-                b <<= 8;
-                num--;
-            }
-            i += 4;
+    /**
+     * Decodes the remaining ASCII Base64 bytes of the buffer into an array of bytes. The position of the buffer is
+     * moved to its limit.
+     *
+     * @param buffer ByteBuffer of the ASCII characters.
+     * @return Byte array.
+     */
+    public static byte[] decode(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        byte[] result;
+        if (buffer.hasArray()) {
+            result = decode(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+        } else {
+            byte[] data = new byte[length];
+            buffer.duplicate().get(data);
+            result = decode(data);
+        }
+        buffer.position(buffer.limit());
+        return result;
+    }
+
+    /**
+     * Returns a channel that Base64 encodes everything written to it into the channel. Closing it writes the padding
+     * and closes the channel.
+     *
+     * @param channel The channel the ASCII characters are written to.
+     * @param variant The alphabet and line layout.
+     * @return WritableByteChannel.
+     * @see Base64OutputStream
+     */
+    public static WritableByteChannel encodingChannel(WritableByteChannel channel, Variant variant) {
+        return Channels.newChannel(new Base64OutputStream(Channels.newOutputStream(channel), variant));
+    }
+
+    /**
+     * Returns a channel that decodes the Base64 read from the channel.
+     *
+     * @param channel The channel the ASCII characters are read from.
+     * @return ReadableByteChannel.
+     * @see Base64InputStream
+     */
+    public static ReadableByteChannel decodingChannel(ReadableByteChannel channel) {
+        return Channels.newChannel(new Base64InputStream(Channels.newInputStream(channel)));
+    }
+
+    static int decodeValue(int c) {
+        return c > 0xFF ? -1 : DECODE_TABLE[c];
+    }
+
+    private static int decodedLength(int length, int padding) {
+        return (int) ((length - padding) * 3L / 4);
+    }
+
+    private static byte[] finish(byte[] out, int pos, int bits, int count) {
+        if (count == 2) {
+            out[pos++] = (byte) (bits >>> 4);
+        } else if (count == 3) {
+            out[pos++] = (byte) (bits >>> 10);
+            out[pos++] = (byte) (bits >>> 2);
+        }
+        return pos == out.length ? out : Arrays.copyOf(out, pos);
+    }
+
+    private static byte[] alphabet(char c62, char c63) {
+        byte[] alphabet = new byte[64];
+        for (int i = 0; i < 26; i++) {
+            alphabet[i] = (byte) ('A' + i);
+            alphabet[i + 26] = (byte) ('a' + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            alphabet[i + 52] = (byte) ('0' + i);
+        }
+        alphabet[62] = (byte) c62;
+        alphabet[63] = (byte) c63;
+        return alphabet;
+    }
+
+    private static int[] decodeTable() {
+        int[] table = new int[256];
+        Arrays.fill(table, -1);
+        for (int i = 0; i < 64; i++) {
+            table[STANDARD_ALPHABET[i]] = i;
+            table[URL_SAFE_ALPHABET[i]] = i;
+        }
+        return table;
+    }
+
+    /**
+     * The alphabet and line layout of the encoded text.
+     */
+    public enum Variant {
+        /**
+         * The standard alphabet with padding and without line breaks.
+         */
+        STANDARD(STANDARD_ALPHABET, 0),
+
+        /**
+         * The URL and filename safe alphabet, '-' and '_' instead of '+' and '/', with padding.
+         */
+        URL_SAFE(URL_SAFE_ALPHABET, 0),
+
+        /**
+         * The standard alphabet split into lines of 76 characters separated by CRLF.
+         */
+        MIME(STANDARD_ALPHABET, MIME_LINE_LENGTH);
+
+        private final byte[] alphabet;
+        private final int lineLength;
+
+        Variant(byte[] alphabet, int lineLength) {
+            this.alphabet = alphabet;
+            this.lineLength = lineLength;
+        }
+
+        byte[] alphabet() {
+            return this.alphabet;
+        }
+
+        int lineLength() {
+            return this.lineLength;
         }
-        return buffer.toByteArray();
     }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * An InputStream that decodes the Base64 read from another InputStream or a Reader, e.g. a file or the Reader of a
+ * JDBC Clob, without keeping the whole data in memory. Decoding is as lenient as {@link Base64#decode(String)}.
+ *
+ * @see Base64OutputStream
+ */
+public class Base64InputStream extends InputStream {
+    private static final int BUFFER_SIZE = 4096;
+    private final InputStream in;
+    private final Reader reader;
+    private final byte[] input;
+    private final char[] chars;
+    private final byte[] decoded = new byte[BUFFER_SIZE / 4 * 3];
+    private int decodedPos;
+    private int decodedCount;
+    private int bits;
+    private int count;
+    private boolean eof;
+
+    /**
+     * Creates a stream that decodes the ASCII Base64 of the InputStream.
+     *
+     * @param in The InputStream the ASCII characters are read from.
+     */
+    public Base64InputStream(InputStream in) {
+        if (in == null) {
+            throw new IllegalArgumentException("The source of the Base64 stream can't be null.");
+        }
+        this.in = in;
+        this.reader = null;
+        this.input = new byte[BUFFER_SIZE];
+        this.chars = null;
+    }
+
+    /**
+     * Creates a stream that decodes the Base64 of the Reader.
+     *
+     * @param reader The Reader the characters are read from.
+     */
+    public Base64InputStream(Reader reader) {
+        if (reader == null) {
+            throw new IllegalArgumentException("The source of the Base64 stream can't be null.");
+        }
+        this.in = null;
+        this.reader = reader;
+        this.input = null;
+        this.chars = new char[BUFFER_SIZE];
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (this.decodedPos == this.decodedCount && !this.fill()) {
+            return -1;
+        }
+        return this.decoded[this.decodedPos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (this.decodedPos == this.decodedCount && !this.fill()) {
+            return -1;
+        }
+        int n = Math.min(len, this.decodedCount - this.decodedPos);
+        System.arraycopy(this.decoded, this.decodedPos, b, off, n);
+        this.decodedPos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return this.decodedCount - this.decodedPos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.in != null) {
+            this.in.close();
+        } else {
+            this.reader.close();
+        }
+    }
+
+    private boolean fill() throws IOException {
+        this.decodedPos = 0;
+        this.decodedCount = 0;
+        while (this.decodedCount == 0) {
+            if (this.eof) {
+                return false;
+            }
+            int n = this.in != null ? this.in.read(this.input) : this.reader.read(this.chars);
+            if (n < 0) {
+                this.eof = true;
+                this.finish();
+                return this.decodedCount > 0;
+            }
+            this.decode(n);
+        }
+        return true;
+    }
+
+    private void decode(int n) {
+        byte[] decoded = this.decoded;
+        int pos = 0;
+        int bits = this.bits;
+        int count = this.count;
+        for (int i = 0; i < n; i++) {
+            int c = this.input != null ? this.input[i] & 0xFF : this.chars[i];
+            int value = Base64.decodeValue(c);
+            if (value < 0) {
+                continue;
+            }
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                decoded[pos] = (byte) (bits >>> 16);
+                decoded[pos + 1] = (byte) (bits >>> 8);
+                decoded[pos + 2] = (byte) bits;
+                pos += 3;
+                bits = 0;
+                count = 0;
+            }
+        }
+        this.bits = bits;
+        this.count = count;
+        this.decodedCount = pos;
+    }
+
+    private void finish() {
+        int pos = 0;
+        if (this.count == 2) {
+            this.decoded[pos++] = (byte) (this.bits >>> 4);
+        } else if (this.count == 3) {
+            this.decoded[pos++] = (byte) (this.bits >>> 10);
+            this.decoded[pos++] = (byte) (this.bits >>> 2);
+        }
+        this.bits = 0;
+        this.count = 0;
+        this.decodedCount = pos;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * An OutputStream that Base64 encodes everything written to it into another OutputStream or a Writer, e.g. a file or
+ * the Writer of a JDBC Clob, without keeping the whole data in memory.
+ * <p>
+ * The last 1 or 2 bytes of the data can only be encoded once it is known that no more bytes follow, so call
+ * {@link #finish()} or {@link #close()} when done; {@link #flush()} leaves them pending.
+ *
+ * @see Base64InputStream
+ */
+public class Base64OutputStream extends OutputStream {
+    private static final int BUFFER_SIZE = 4096;
+    private final OutputStream out;
+    private final Writer writer;
+    private final byte[] alphabet;
+    private final int lineLength;
+    private final byte[] pending = new byte[3];
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private char[] chars;
+    private int pendingCount;
+    private int bufferCount;
+    private int column;
+    private boolean finished;
+
+    /**
+     * Creates a stream that writes standard Base64 into the OutputStream.
+     *
+     * @param out The OutputStream the ASCII characters are written to.
+     */
+    public Base64OutputStream(OutputStream out) {
+        this(out, Base64.Variant.STANDARD);
+    }
+
+    /**
+     * Creates a stream that writes Base64 of the variant into the OutputStream.
+     *
+     * @param out     The OutputStream the ASCII characters are written to.
+     * @param variant The alphabet and line layout.
+     */
+    public Base64OutputStream(OutputStream out, Base64.Variant variant) {
+        this(out, null, variant);
+    }
+
+    /**
+     * Creates a stream that writes Base64 of the variant into the Writer.
+     *
+     * @param writer  The Writer the characters are written to.
+     * @param variant The alphabet and line layout.
+     */
+    public Base64OutputStream(Writer writer, Base64.Variant variant) {
+        this(null, writer, variant);
+    }
+
+    private Base64OutputStream(OutputStream out, Writer writer, Base64.Variant variant) {
+        if (out == null && writer == null) {
+            throw new IllegalArgumentException("The target of the Base64 stream can't be null.");
+        }
+        this.out = out;
+        this.writer = writer;
+        this.alphabet = variant.alphabet();
+        this.lineLength = variant.lineLength();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.ensureOpen();
+        this.pending[this.pendingCount++] = (byte) b;
+        if (this.pendingCount == 3) {
+            this.encodeBlock(this.pending, 0);
+            this.pendingCount = 0;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        this.ensureOpen();
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (this.pendingCount > 0 && len > 0) {
+            this.pending[this.pendingCount++] = b[off++];
+            len--;
+            if (this.pendingCount == 3) {
+                this.encodeBlock(this.pending, 0);
+                this.pendingCount = 0;
+            }
+        }
+        while (len >= 3) {
+            this.encodeBlock(b, off);
+            off += 3;
+            len -= 3;
+        }
+        while (len > 0) {
+            this.pending[this.pendingCount++] = b[off++];
+            len--;
+        }
+    }
+
+    /**
+     * Writes the encoded characters so far to the target and flushes it. The last 1 or 2 bytes written stay
+     * pending until more bytes are written or the stream is finished.
+     *
+     * @throws IOException If the target can't be written to.
+     */
+    @Override
+    public void flush() throws IOException {
+        this.flushBuffer();
+        if (this.out != null) {
+            this.out.flush();
+        } else {
+            this.writer.flush();
+        }
+    }
+
+    /**
+     * Encodes the pending bytes with padding and flushes everything to the target without closing it. Nothing can
+     * be written afterwards.
+     *
+     * @throws IOException If the target can't be written to.
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+        if (this.pendingCount > 0) {
+            this.breakLine();
+            int bits = (this.pending[0] & 0xFF) << 16 | (this.pendingCount == 2 ? (this.pending[1] & 0xFF) << 8 : 0);
+            this.buffer[this.bufferCount] = this.alphabet[bits >>> 18];
+            this.buffer[this.bufferCount + 1] = this.alphabet[(bits >>> 12) & 0x3F];
+            this.buffer[this.bufferCount + 2] = this.pendingCount == 2 ? this.alphabet[(bits >>> 6) & 0x3F] :
+                    (byte) '=';
+            this.buffer[this.bufferCount + 3] = '=';
+            this.bufferCount += 4;
+            this.pendingCount = 0;
+        }
+        this.finished = true;
+        this.flush();
+    }
+
+    /**
+     * Finishes the encoding and closes the target.
+     *
+     * @throws IOException If the target can't be written to.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.finish();
+        } finally {
+            if (this.out != null) {
+                this.out.close();
+            } else {
+                this.writer.close();
+            }
+        }
+    }
+
+    private void encodeBlock(byte[] src, int off) throws IOException {
+        this.breakLine();
+        int bits = (src[off] & 0xFF) << 16 | (src[off + 1] & 0xFF) << 8 | (src[off + 2] & 0xFF);
+        byte[] buffer = this.buffer;
+        int pos = this.bufferCount;
+        buffer[pos] = this.alphabet[bits >>> 18];
+        buffer[pos + 1] = this.alphabet[(bits >>> 12) & 0x3F];
+        buffer[pos + 2] = this.alphabet[(bits >>> 6) & 0x3F];
+        buffer[pos + 3] = this.alphabet[bits & 0x3F];
+        this.bufferCount = pos + 4;
+    }
+
+    private void breakLine() throws IOException {
+        if (this.bufferCount > BUFFER_SIZE - 6) {
+            this.flushBuffer();
+        }
+        if (this.lineLength > 0) {
+            if (this.column == this.lineLength) {
+                this.buffer[this.bufferCount++] = '\r';
+                this.buffer[this.bufferCount++] = '\n';
+                this.column = 0;
+            }
+            this.column += 4;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (this.bufferCount == 0) {
+            return;
+        }
+        if (this.out != null) {
+            this.out.write(this.buffer, 0, this.bufferCount);
+        } else {
+            if (this.chars == null) {
+                this.chars = new char[BUFFER_SIZE];
+            }
+            for (int i = 0; i < this.bufferCount; i++) {
+                this.chars[i] = (char) this.buffer[i];
+            }
+            this.writer.write(this.chars, 0, this.bufferCount);
+        }
+        this.bufferCount = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.finished) {
+            throw new IOException("The Base64 stream is already finished.");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import java.util.ArrayDeque;
+
+/**
+ * Lends every thread a few reusable ByteWriters, so serializing many objects in a row, e.g. during an autosave,
+ * doesn't allocate and grow a new buffer for each of them. A buffer has to be released exactly once, after its
+ * contents were copied out, and is taken out of the pool while lent, so nested serializers get their own buffers.
+ * <p>
+ * Every thread keeps at most 4 arrays of together 256 KiB. Only the arrays are pooled, so a thread of the server
+ * that outlives the plugin doesn't keep its classes loaded; call {@link #clear()} in onDisable to free the arrays of
+ * the main thread right away.
+ * <p>
+ * The {@link SizeHint} of a call site remembers how large its output usually is, so a new buffer is allocated with
+ * about the right size instead of doubling up to it.
+ */
+public final class BufferPool {
+    private static final int MAX_POOLED = 4;
+    private static final int MAX_RETAINED_BYTES = 256 << 10;
+    private static final ThreadLocal<ArrayDeque<byte[]>> FREE = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private BufferPool() {
+    }
+
+    /**
+     * Frees the buffers pooled by the calling thread, e.g. the main thread in onDisable.
+     */
+    public static void clear() {
+        FREE.remove();
+    }
+
+    static ByteWriter acquire(int capacity) {
+        byte[] array = FREE.get().pollLast();
+        if (array == null) {
+            return new ByteWriter(capacity);
+        }
+        ByteWriter buffer = new ByteWriter(array);
+        buffer.ensureCapacity(capacity);
+        return buffer;
+    }
+
+    static ByteWriter acquire(SizeHint hint) {
+        return acquire(hint.get());
+    }
+
+    static void release(ByteWriter buffer) {
+        ArrayDeque<byte[]> free = FREE.get();
+        byte[] array = buffer.buffer();
+        if (free.size() >= MAX_POOLED) {
+            return;
+        }
+        int retained = array.length;
+        for (byte[] pooled : free) {
+            retained += pooled.length;
+        }
+        if (retained <= MAX_RETAINED_BYTES) {
+            free.addLast(array);
+        }
+    }
+
+    static void release(ByteWriter buffer, SizeHint hint) {
+        hint.record(buffer.size());
+        release(buffer);
+    }
+
+    /**
+     * A moving average of the output sizes of a call site.
+     */
+    static final class SizeHint {
+        private volatile int average;
+
+        SizeHint(int initial) {
+            this.average = initial;
+        }
+
+        int get() {
+            int average = this.average;
+            return average + (average >> 2);
+        }
+
+        void record(int size) {
+            int average = this.average;
+            this.average = average + ((size - average) >> 3);
+        }
+    }
+}
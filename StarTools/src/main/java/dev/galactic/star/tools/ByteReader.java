@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the varint and string encodings of {@link ByteWriter} from a byte array without copying it.
+ */
+final class ByteReader {
+    private final byte[] data;
+    private final int end;
+    private int position;
+
+    ByteReader(byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    ByteReader(byte[] data, int offset, int length) {
+        this.data = data;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    int readByte() throws IOException {
+        if (this.position >= this.end) {
+            throw new EOFException();
+        }
+        return this.data[this.position++] & 0xFF;
+    }
+
+    int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = this.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("The varint is longer than 5 bytes.");
+    }
+
+    int readZigZag() throws IOException {
+        int value = this.readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads the amount of elements that follow, each at least one byte long, so a corrupted count is refused before
+     * anything is allocated for it.
+     */
+    int readCount() throws IOException {
+        int count = this.readVarInt();
+        if (count < 0 || count > this.remaining()) {
+            throw new StreamCorruptedException("The count " + count + " is larger than the " + this.remaining()
+                    + " bytes left.");
+        }
+        return count;
+    }
+
+    String readString() throws IOException {
+        int length = this.readVarInt();
+        this.require(length);
+        String value = new String(this.data, this.position, length, StandardCharsets.UTF_8);
+        this.position += length;
+        return value;
+    }
+
+    void skip(int length) throws IOException {
+        this.require(length);
+        this.position += length;
+    }
+
+    void require(int length) throws IOException {
+        if (length < 0 || length > this.end - this.position) {
+            throw new EOFException();
+        }
+    }
+
+    byte[] data() {
+        return this.data;
+    }
+
+    int position() {
+        return this.position;
+    }
+
+    int remaining() {
+        return this.end - this.position;
+    }
+}
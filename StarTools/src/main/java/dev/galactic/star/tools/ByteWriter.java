@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte array the serializers write into, e.g. pass one to
+ * {@link InventorySerializer#serialize(org.bukkit.inventory.Inventory, OutputStream)} and reuse it after
+ * {@link #reset()} to serialize many objects without allocating a buffer for each. Unlike ByteArrayOutputStream it
+ * isn't synchronized and gives access to its array.
+ */
+public final class ByteWriter extends OutputStream {
+    private byte[] buffer;
+    private int size;
+
+    /**
+     * Creates a buffer.
+     *
+     * @param capacity The initial capacity, grown when needed.
+     */
+    public ByteWriter(int capacity) {
+        this.buffer = new byte[Math.max(16, capacity)];
+    }
+
+    /**
+     * Wraps a pooled array, see {@link BufferPool}.
+     */
+    ByteWriter(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) {
+        this.ensureCapacity(this.size + 1);
+        this.buffer[this.size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        this.ensureCapacity(this.size + len);
+        System.arraycopy(b, off, this.buffer, this.size, len);
+        this.size += len;
+    }
+
+    void write(ByteWriter other) {
+        this.write(other.buffer, 0, other.size);
+    }
+
+    /**
+     * Writes an unsigned LEB128 varint, 1 byte for values below 128.
+     */
+    void writeVarInt(int value) {
+        this.ensureCapacity(this.size + 5);
+        while ((value & ~0x7F) != 0) {
+            this.buffer[this.size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.buffer[this.size++] = (byte) value;
+    }
+
+    /**
+     * Writes a zigzag varint, so small negative values stay small.
+     */
+    void writeZigZag(int value) {
+        this.writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.writeVarInt(bytes.length);
+        this.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Returns the amount of bytes written.
+     *
+     * @return Size.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the current capacity.
+     *
+     * @return Capacity.
+     */
+    public int capacity() {
+        return this.buffer.length;
+    }
+
+    /**
+     * Returns the array the bytes are written to, valid up to {@link #size()} until the next write.
+     *
+     * @return Byte array.
+     */
+    public byte[] buffer() {
+        return this.buffer;
+    }
+
+    /**
+     * Discards the bytes written, keeping the array.
+     */
+    public void reset() {
+        this.size = 0;
+    }
+
+    /**
+     * Returns a copy of the bytes written.
+     *
+     * @return Byte array.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.size);
+    }
+
+    /**
+     * Writes the bytes written to the OutputStream.
+     *
+     * @param out OutputStream.
+     * @throws IOException If the OutputStream can't be written to.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(this.buffer, 0, this.size);
+    }
+
+    /**
+     * Reads the InputStream to its end into this buffer.
+     *
+     * @param in InputStream.
+     * @throws IOException If the InputStream can't be read.
+     */
+    public void readFrom(InputStream in) throws IOException {
+        while (true) {
+            this.ensureCapacity(this.size + 1024);
+            int read = in.read(this.buffer, this.size, this.buffer.length - this.size);
+            if (read == -1) {
+                return;
+            }
+            this.size += read;
+        }
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(capacity, this.buffer.length << 1));
+        }
+    }
+}
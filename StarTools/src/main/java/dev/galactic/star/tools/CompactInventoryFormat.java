@@ -0,0 +1,572 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compact binary format of {@link InventorySerializer}. Version 2 is laid out as:
+ * <pre>
+ * 'S' kind version                      kind is 'I' for a full snapshot and 'D' for a delta
+ * varint size, string type, varint slots
+ * varint strings, string...            the dictionary of the materials, names, lore and enchantments
+ * byte[(slots + 7) / 8]                 bitmap of the slots that follow
+ * for every slot in the bitmap: varint length, item
+ * </pre>
+ * An item is the dictionary index of its material, its amount and zigzag durability as varints, and the kind of its
+ * meta: none, simple (display name, lore and enchantments as dictionary indexes) or serialized. A serialized item,
+ * e.g. with colors, skulls or books, is followed by its own BukkitObjectOutputStream up to the end of the item, so
+ * it can be decoded, and cached by {@link ItemStackCache}, without the other items. Strings are a varint length and
+ * UTF-8.
+ * <p>
+ * Version 1 is still read. It has a varint length and one BukkitObjectOutputStream with all the serialized items
+ * after the bitmap, which are read from it in slot order.
+ * <p>
+ * The bitmap of a full snapshot has the non-empty slots. The bitmap of a delta has the slots that changed since the
+ * snapshot it is based on, a length of 0 meaning the slot was emptied.
+ * <p>
+ * Blobs of the previous format, Java serialization, start with 0xACED and are read by InventorySerializer as before.
+ */
+final class CompactInventoryFormat {
+    static final int VERSION = 2;
+    private static final int VERSION_SHARED_STREAM = 1;
+    private static final int MAGIC = 'S';
+    private static final int FULL = 'I';
+    private static final int DELTA = 'D';
+    private static final int META_NONE = 0;
+    private static final int META_SIMPLE = 1;
+    private static final int META_SERIALIZED = 2;
+    private static final int FLAG_NAME = 1;
+    private static final int FLAG_LORE = 2;
+    private static final int FLAG_ENCHANTS = 4;
+
+    private CompactInventoryFormat() {
+    }
+
+    /**
+     * Checks whether the data is a full snapshot of this format.
+     */
+    static boolean isCompact(byte[] data) {
+        return data.length >= 3 && data[0] == MAGIC && data[1] == FULL;
+    }
+
+    /**
+     * Checks whether the data is a delta of this format.
+     */
+    static boolean isDelta(byte[] data) {
+        return data.length >= 3 && data[0] == MAGIC && data[1] == DELTA;
+    }
+
+    /**
+     * Checks whether the data is a Java serialization stream, the format before this one.
+     */
+    static boolean isLegacy(byte[] data) {
+        return data.length >= 2 && (data[0] & 0xFF) == 0xAC && (data[1] & 0xFF) == 0xED;
+    }
+
+    static void write(Inventory inventory, OutputStream out) throws IOException {
+        write(inventory, inventory.getContents(), out);
+    }
+
+    static void write(Inventory inventory, ItemStack[] contents, OutputStream out) throws IOException {
+        write(FULL, inventory.getSize(), typeName(inventory), contents, null, out);
+    }
+
+    static void write(Snapshot snapshot, OutputStream out) throws IOException {
+        write(FULL, snapshot.size, snapshot.type, snapshot.contents, null, out);
+    }
+
+    /**
+     * Writes the slots of the inventory that differ from the base contents.
+     */
+    static void writeDelta(ItemStack[] base, Inventory inventory, ItemStack[] contents, OutputStream out)
+            throws IOException {
+        write(DELTA, inventory.getSize(), typeName(inventory), contents, base, out);
+    }
+
+    /**
+     * Copies the contents of the inventory, so it can be written on another thread while the original is changed.
+     */
+    static Snapshot snapshot(Inventory inventory) {
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            if (!isEmpty(contents[slot])) {
+                contents[slot] = contents[slot].clone();
+            }
+        }
+        return new Snapshot(inventory.getSize(), typeName(inventory), contents);
+    }
+
+    private static String typeName(Inventory inventory) {
+        return inventory.getType() == null ? "" : inventory.getType().name();
+    }
+
+    private static void write(int kind, int size, String type, ItemStack[] contents, ItemStack[] base,
+                              OutputStream out) throws IOException {
+        Dictionary dictionary = new Dictionary();
+        byte[] bitmap = new byte[(contents.length + 7) >>> 3];
+        ByteWriter body = BufferPool.acquire(contents.length * 8);
+        ByteWriter item = BufferPool.acquire(64);
+        ByteWriter header = BufferPool.acquire(64);
+        try {
+            for (int slot = 0; slot < contents.length; slot++) {
+                ItemStack stack = contents[slot];
+                if (base == null ? isEmpty(stack) : same(slot < base.length ? base[slot] : null, stack)) {
+                    continue;
+                }
+                bitmap[slot >>> 3] |= (byte) (1 << (slot & 7));
+                if (isEmpty(stack)) {
+                    body.writeVarInt(0);
+                    continue;
+                }
+                item.reset();
+                writeItem(stack, item, dictionary);
+                body.writeVarInt(item.size());
+                body.write(item);
+            }
+
+            header.write(MAGIC);
+            header.write(kind);
+            header.write(VERSION);
+            header.writeVarInt(size);
+            header.writeString(type);
+            header.writeVarInt(contents.length);
+            header.writeVarInt(dictionary.strings.size());
+            for (String value : dictionary.strings) {
+                header.writeString(value);
+            }
+            header.write(bitmap, 0, bitmap.length);
+            header.writeTo(out);
+            body.writeTo(out);
+        } finally {
+            BufferPool.release(header);
+            BufferPool.release(item);
+            BufferPool.release(body);
+        }
+    }
+
+    static Inventory read(byte[] data) throws IOException, ClassNotFoundException {
+        return readSnapshot(data).toInventory();
+    }
+
+    static Snapshot readSnapshot(byte[] data) throws IOException, ClassNotFoundException {
+        return read(data, FULL, null);
+    }
+
+    /**
+     * Returns the contents of the base snapshot with the slots of the delta replaced.
+     */
+    static Snapshot applyDelta(Snapshot base, byte[] delta) throws IOException, ClassNotFoundException {
+        return read(delta, DELTA, base);
+    }
+
+    private static Snapshot read(byte[] data, int kind, Snapshot base) throws IOException, ClassNotFoundException {
+        ByteReader reader = new ByteReader(data);
+        Header header = new Header(data, reader, kind);
+        SerializedItems serialized = header.sharedStream();
+        ItemStack[] contents = new ItemStack[header.slots];
+        if (base != null) {
+            System.arraycopy(base.contents, 0, contents, 0, Math.min(header.slots, base.contents.length));
+        }
+        for (int slot = 0; slot < header.slots; slot++) {
+            if (!header.isPresent(slot)) {
+                continue;
+            }
+            int length = reader.readVarInt();
+            reader.require(length);
+            contents[slot] = length == 0 ? null : readItem(new ByteReader(data, reader.position(), length),
+                    header.dictionary, serialized);
+            reader.skip(length);
+        }
+        return new Snapshot(header.size, header.type, contents);
+    }
+
+    /**
+     * Reads the header of a full snapshot and finds the items in it without decoding them.
+     */
+    static SerializedInventory index(byte[] data) throws IOException {
+        ByteReader reader = new ByteReader(data);
+        Header header = new Header(data, reader, FULL);
+        int[] offsets = new int[header.slots];
+        int[] lengths = new int[header.slots];
+        Material[] materials = new Material[header.slots];
+        int[] amounts = new int[header.slots];
+        int[] serializedIndexes = new int[header.slots];
+        int serializedCount = 0;
+        for (int slot = 0; slot < header.slots; slot++) {
+            serializedIndexes[slot] = -1;
+            if (!header.isPresent(slot)) {
+                continue;
+            }
+            int length = reader.readVarInt();
+            reader.require(length);
+            if (length > 0) {
+                ByteReader item = new ByteReader(data, reader.position(), length);
+                String name = string(header.dictionary, item.readVarInt());
+                materials[slot] = Material.getMaterial(name);
+                if (materials[slot] == null) {
+                    throw new StreamCorruptedException("Unknown material " + name + ".");
+                }
+                amounts[slot] = item.readVarInt();
+                item.readZigZag();
+                if (item.readByte() == META_SERIALIZED && header.version == VERSION_SHARED_STREAM) {
+                    serializedIndexes[slot] = serializedCount++;
+                }
+                offsets[slot] = reader.position();
+                lengths[slot] = length;
+            }
+            reader.skip(length);
+        }
+        return new SerializedInventory(data, header.size, header.type, header.dictionary, offsets, lengths,
+                materials, amounts, serializedIndexes, header.sharedStream());
+    }
+
+    static boolean same(ItemStack a, ItemStack b) {
+        boolean emptyA = isEmpty(a);
+        boolean emptyB = isEmpty(b);
+        if (emptyA || emptyB) {
+            return emptyA == emptyB;
+        }
+        return a.equals(b);
+    }
+
+    static boolean isEmpty(ItemStack stack) {
+        return stack == null || stack.getType() == Material.AIR;
+    }
+
+    static void writeItem(ItemStack stack, ByteWriter out, Dictionary dictionary) throws IOException {
+        out.writeVarInt(dictionary.index(stack.getType().name()));
+        out.writeVarInt(stack.getAmount());
+        out.writeZigZag(stack.getDurability());
+        if (!stack.hasItemMeta()) {
+            out.write(META_NONE);
+            return;
+        }
+        ItemMeta meta = stack.getItemMeta();
+        if (!isSimple(stack.getType(), meta)) {
+            out.write(META_SERIALIZED);
+            BukkitObjectOutputStream objectOut = new BukkitObjectOutputStream(out);
+            objectOut.writeObject(stack);
+            objectOut.flush();
+            return;
+        }
+        out.write(META_SIMPLE);
+        int flags = (meta.hasDisplayName() ? FLAG_NAME : 0) | (meta.hasLore() ? FLAG_LORE : 0) |
+                (meta.hasEnchants() ? FLAG_ENCHANTS : 0);
+        out.write(flags);
+        if ((flags & FLAG_NAME) != 0) {
+            out.writeVarInt(dictionary.index(meta.getDisplayName()));
+        }
+        if ((flags & FLAG_LORE) != 0) {
+            List<String> lore = meta.getLore();
+            out.writeVarInt(lore.size());
+            for (String line : lore) {
+                out.writeVarInt(dictionary.index(line));
+            }
+        }
+        if ((flags & FLAG_ENCHANTS) != 0) {
+            Map<Enchantment, Integer> enchants = meta.getEnchants();
+            out.writeVarInt(enchants.size());
+            for (Map.Entry<Enchantment, Integer> entry : enchants.entrySet()) {
+                out.writeVarInt(dictionary.index(entry.getKey().getName()));
+                out.writeVarInt(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads an item. A serialized item is read from the shared stream of a version 1 blob if there is one, else from
+     * the rest of the item.
+     */
+    static ItemStack readItem(ByteReader in, String[] dictionary, SerializedItems serialized)
+            throws IOException, ClassNotFoundException {
+        String name = string(dictionary, in.readVarInt());
+        Material material = Material.getMaterial(name);
+        if (material == null) {
+            throw new StreamCorruptedException("Unknown material " + name + ".");
+        }
+        int amount = in.readVarInt();
+        short durability = (short) in.readZigZag();
+        int kind = in.readByte();
+        if (kind == META_NONE) {
+            return new ItemStack(material, amount, durability);
+        } else if (kind == META_SERIALIZED) {
+            return serialized != null ? serialized.next() : readSerializedItem(in.data(), in.position(),
+                    in.remaining());
+        } else if (kind != META_SIMPLE) {
+            throw new StreamCorruptedException("Unknown item meta kind " + kind + ".");
+        }
+        ItemStack stack = new ItemStack(material, amount, durability);
+        ItemMeta meta = Bukkit.getItemFactory().getItemMeta(material);
+        int flags = in.readByte();
+        if ((flags & FLAG_NAME) != 0) {
+            meta.setDisplayName(string(dictionary, in.readVarInt()));
+        }
+        if ((flags & FLAG_LORE) != 0) {
+            int lines = in.readCount();
+            List<String> lore = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++) {
+                lore.add(string(dictionary, in.readVarInt()));
+            }
+            meta.setLore(lore);
+        }
+        if ((flags & FLAG_ENCHANTS) != 0) {
+            int enchants = in.readCount();
+            for (int i = 0; i < enchants; i++) {
+                String enchantName = string(dictionary, in.readVarInt());
+                int level = in.readVarInt();
+                Enchantment enchantment = Enchantment.getByName(enchantName);
+                if (enchantment == null) {
+                    throw new StreamCorruptedException("Unknown enchantment " + enchantName + ".");
+                }
+                meta.addEnchant(enchantment, level, true);
+            }
+        }
+        stack.setItemMeta(meta);
+        return stack;
+    }
+
+    /**
+     * Checks whether the meta only has a display name, lore and enchantments, by rebuilding it from those and
+     * comparing it. Anything else, e.g. colors, skulls or books, is written with BukkitObjectOutputStream.
+     */
+    private static boolean isSimple(Material material, ItemMeta meta) {
+        ItemFactory factory = Bukkit.getItemFactory();
+        ItemMeta rebuilt = factory.getItemMeta(material);
+        if (rebuilt == null) {
+            return false;
+        }
+        if (meta.hasDisplayName()) {
+            rebuilt.setDisplayName(meta.getDisplayName());
+        }
+        if (meta.hasLore()) {
+            rebuilt.setLore(meta.getLore());
+        }
+        if (meta.hasEnchants()) {
+            for (Map.Entry<Enchantment, Integer> entry : meta.getEnchants().entrySet()) {
+                rebuilt.addEnchant(entry.getKey(), entry.getValue(), true);
+            }
+        }
+        return factory.equals(meta, rebuilt);
+    }
+
+    static Inventory createInventory(String type, int size) {
+        InventoryType inventoryType = null;
+        try {
+            inventoryType = type.isEmpty() ? null : InventoryType.valueOf(type);
+        } catch (IllegalArgumentException ignored) {
+        }
+        if (inventoryType == null || inventoryType == InventoryType.CHEST) {
+            return Bukkit.getServer().createInventory(null, size);
+        }
+        return Bukkit.getServer().createInventory(null, inventoryType);
+    }
+
+    private static String string(String[] dictionary, int index) throws StreamCorruptedException {
+        if (index < 0 || index >= dictionary.length) {
+            throw new StreamCorruptedException("Invalid dictionary index " + index + ".");
+        }
+        return dictionary[index];
+    }
+
+    /**
+     * The decoded contents of a full snapshot, or of a full snapshot with deltas applied.
+     */
+    static final class Snapshot {
+        private final int size;
+        private final String type;
+        private final ItemStack[] contents;
+
+        Snapshot(int size, String type, ItemStack[] contents) {
+            this.size = size;
+            this.type = type;
+            this.contents = contents;
+        }
+
+        ItemStack[] contents() {
+            return this.contents;
+        }
+
+        Inventory toInventory() {
+            Inventory inventory = createInventory(this.type, this.size);
+            int limit = Math.min(this.contents.length, inventory.getSize());
+            for (int slot = 0; slot < limit; slot++) {
+                if (this.contents[slot] != null) {
+                    inventory.setItem(slot, this.contents[slot]);
+                }
+            }
+            return inventory;
+        }
+    }
+
+    /**
+     * The fields of the header of a blob, leaving the reader at the first item.
+     */
+    private static final class Header {
+        private final byte[] data;
+        private final int size;
+        private final String type;
+        private final int slots;
+        private final int version;
+        private final String[] dictionary;
+        private final int bitmapOffset;
+        private final int objectsOffset;
+        private final int objectsLength;
+
+        private Header(byte[] data, ByteReader reader, int kind) throws IOException {
+            if (reader.readByte() != MAGIC || reader.readByte() != kind) {
+                throw new StreamCorruptedException(kind == FULL ? "This isn't a serialized inventory." :
+                        "This isn't an inventory delta.");
+            }
+            this.version = reader.readByte();
+            if (this.version != VERSION && this.version != VERSION_SHARED_STREAM) {
+                throw new StreamCorruptedException("Unsupported inventory format version " + this.version + ".");
+            }
+            this.data = data;
+            this.size = reader.readVarInt();
+            this.type = reader.readString();
+            this.slots = reader.readVarInt();
+            if (this.slots < 0) {
+                throw new StreamCorruptedException("Negative slot count " + this.slots + ".");
+            }
+            this.dictionary = new String[reader.readCount()];
+            for (int i = 0; i < this.dictionary.length; i++) {
+                this.dictionary[i] = reader.readString();
+            }
+            this.bitmapOffset = reader.position();
+            reader.skip((this.slots + 7) >>> 3);
+            if (this.version == VERSION_SHARED_STREAM) {
+                this.objectsLength = reader.readVarInt();
+                this.objectsOffset = reader.position();
+                reader.skip(this.objectsLength);
+            } else {
+                this.objectsLength = 0;
+                this.objectsOffset = reader.position();
+            }
+        }
+
+        /**
+         * Returns the reader of the shared stream of a version 1 blob, null for later versions.
+         */
+        private SerializedItems sharedStream() {
+            return this.version == VERSION_SHARED_STREAM ? new SerializedItems(this.data, this.objectsOffset,
+                    this.objectsLength) : null;
+        }
+
+        private boolean isPresent(int slot) {
+            return (this.data[this.bitmapOffset + (slot >>> 3)] & (1 << (slot & 7))) != 0;
+        }
+    }
+
+    /**
+     * Reads a serialized item, through the {@link ItemStackCache} if there is one.
+     */
+    static ItemStack readSerializedItem(byte[] data, int offset, int length)
+            throws IOException, ClassNotFoundException {
+        ItemStackCache cache = InventorySerializer.getItemStackCache();
+        if (cache != null) {
+            return cache.get(data, offset, length).clone();
+        }
+        return decodeSerializedItem(data, offset, length);
+    }
+
+    /**
+     * Decodes the BukkitObjectOutputStream of one item.
+     */
+    static ItemStack decodeSerializedItem(byte[] data, int offset, int length)
+            throws IOException, ClassNotFoundException {
+        if (length == 0) {
+            throw new StreamCorruptedException("The serialized item is empty.");
+        }
+        return (ItemStack) new BukkitObjectInputStream(new ByteArrayInputStream(data, offset, length)).readObject();
+    }
+
+    /**
+     * Reads the items of the shared BukkitObjectOutputStream of a version 1 blob in order, opening the stream the
+     * first time. Items read by index are kept, as the ones before them have to be read first anyway.
+     */
+    static final class SerializedItems {
+        private final byte[] data;
+        private final int offset;
+        private final int length;
+        private final List<ItemStack> read = new ArrayList<>();
+        private BukkitObjectInputStream in;
+
+        SerializedItems(byte[] data, int offset, int length) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        ItemStack next() throws IOException, ClassNotFoundException {
+            if (this.length == 0) {
+                throw new StreamCorruptedException("The inventory has no serialized items.");
+            }
+            if (this.in == null) {
+                this.in = new BukkitObjectInputStream(new ByteArrayInputStream(this.data, this.offset, this.length));
+            }
+            return (ItemStack) this.in.readObject();
+        }
+
+        ItemStack get(int index) throws IOException, ClassNotFoundException {
+            while (this.read.size() <= index) {
+                this.read.add(this.next());
+            }
+            return this.read.get(index).clone();
+        }
+    }
+
+    /**
+     * The strings of a blob, each stored once and referred to by index.
+     */
+    static final class Dictionary {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        int index(String value) {
+            Integer index = this.indexes.get(value);
+            if (index == null) {
+                index = this.strings.size();
+                this.indexes.put(value, index);
+                this.strings.add(value);
+            }
+            return index;
+        }
+
+        List<String> strings() {
+            return this.strings;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The optional compression stage of the serializers. The output of {@link #compress(byte[])} always starts with a
+ * codec byte: a deflated payload is framed as the codec byte, the varint length of the original data and the
+ * compressed data, a stored payload as the codec byte and the data itself. Data below the threshold, or that doesn't
+ * get smaller, is stored.
+ * <p>
+ * Serialized data starts with 0xAC (Java serialization), 'S' (the compact inventory format) or 'O' (the format of
+ * {@link ObjectSerializer}), never with a codec byte, so the data stored before compression existed passes through
+ * {@link #decompress(byte[])} unchanged. The Deflater and Inflater are reused per thread.
+ */
+public class Compression {
+    /**
+     * Payloads smaller than this are not worth compressing.
+     */
+    public static final int DEFAULT_THRESHOLD = 256;
+    private static final int STORED = 0xF0;
+    private static final int DEFLATE = 0xF1;
+    private static final int MAX_DEFLATE_RATIO = 1032;
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() ->
+            new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    /**
+     * The default constructor. There is no need to instantiate this class.
+     *
+     * @throws InstantiationException When you instantiate this class.
+     */
+    public Compression() throws InstantiationException {
+        throw new InstantiationException("You shouldn't instantiate this class as it is a utility class.");
+    }
+
+    /**
+     * Compresses the data if it is at least {@link #DEFAULT_THRESHOLD} bytes.
+     *
+     * @param data Byte array.
+     * @return The framed data, compressed or stored.
+     */
+    public static byte[] compress(byte[] data) {
+        return compress(data, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Compresses the data if it is at least threshold bytes.
+     *
+     * @param data      Byte array.
+     * @param threshold The minimum size to compress.
+     * @return The framed data, compressed or stored.
+     */
+    public static byte[] compress(byte[] data, int threshold) {
+        if (data.length < threshold || data.length < 16) {
+            return store(data);
+        }
+        ByteWriter out = BufferPool.acquire(data.length);
+        try {
+            out.write(DEFLATE);
+            out.writeVarInt(data.length);
+            byte[] buffer = out.buffer();
+            int pos = out.size();
+            Deflater deflater = DEFLATERS.get();
+            deflater.reset();
+            deflater.setInput(data);
+            deflater.finish();
+            while (!deflater.finished() && pos < data.length) {
+                pos += deflater.deflate(buffer, pos, data.length - pos);
+            }
+            if (!deflater.finished()) {
+                return store(data);
+            }
+            return Arrays.copyOf(buffer, pos);
+        } finally {
+            BufferPool.release(out);
+        }
+    }
+
+    private static byte[] store(byte[] data) {
+        byte[] stored = new byte[data.length + 1];
+        stored[0] = (byte) STORED;
+        System.arraycopy(data, 0, stored, 1, data.length);
+        return stored;
+    }
+
+    /**
+     * Checks whether the data was deflated by {@link #compress(byte[])}.
+     *
+     * @param data Byte array.
+     * @return True if it was, false if it is stored or wasn't framed at all.
+     */
+    public static boolean isCompressed(byte[] data) {
+        return data.length > 0 && (data[0] & 0xFF) == DEFLATE;
+    }
+
+    /**
+     * Decompresses the data if it was compressed.
+     *
+     * @param data Byte array, framed by {@link #compress(byte[])} or unframed serialized data.
+     * @return The original data, or the data itself if it wasn't framed.
+     */
+    public static byte[] decompress(byte[] data) {
+        if (data.length > 0 && (data[0] & 0xFF) == STORED) {
+            return Arrays.copyOfRange(data, 1, data.length);
+        } else if (!isCompressed(data)) {
+            return data;
+        }
+        try {
+            ByteReader reader = new ByteReader(data, 1, data.length - 1);
+            int length = reader.readVarInt();
+            if (length < 0 || (long) reader.remaining() * MAX_DEFLATE_RATIO < length) {
+                throw new StreamCorruptedException("Invalid length " + length + " of the compressed data.");
+            }
+            byte[] out = new byte[length];
+            Inflater inflater = INFLATERS.get();
+            inflater.reset();
+            inflater.setInput(data, reader.position(), reader.remaining());
+            int pos = 0;
+            while (pos < length && !inflater.finished()) {
+                int n = inflater.inflate(out, pos, length - pos);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                pos += n;
+            }
+            if (pos != length || !inflater.finished()) {
+                throw new StreamCorruptedException("The compressed data is truncated or corrupted.");
+            }
+            return out;
+        } catch (IOException | DataFormatException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Wraps the InputStream so it reads the original data, whether it was compressed or not.
+     *
+     * @param in InputStream.
+     * @return InputStream of the original data.
+     * @throws IOException If the InputStream can't be read.
+     */
+    public static InputStream decompressing(InputStream in) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, 1);
+        int first = pushback.read();
+        if (first == STORED) {
+            return pushback;
+        } else if (first != DEFLATE) {
+            if (first != -1) {
+                pushback.unread(first);
+            }
+            return pushback;
+        }
+        for (int shift = 0; ; shift += 7) {
+            int b = pushback.read();
+            if (b == -1 || shift >= 35) {
+                throw new StreamCorruptedException("The length of the compressed data is invalid.");
+            }
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return new InflaterInputStream(pushback);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Serializer {@link Serializers#register(Class)} creates for a class with a no-arg constructor. The non-static,
+ * non-transient fields of the class and its super classes are written in a fixed order: primitives as they are,
+ * everything else as a tagged value. A fingerprint of the field names and types is written first, so values written
+ * by a different version of the class are rejected instead of read into the wrong fields.
+ *
+ * @param <T> Type of the values.
+ */
+final class FieldSerializer<T> implements Serializer<T> {
+    private final Class<T> type;
+    private final Constructor<T> constructor;
+    private final Field[] fields;
+    private final int fingerprint;
+
+    FieldSerializer(Class<T> type) {
+        this.type = type;
+        try {
+            this.constructor = type.getDeclaredConstructor();
+            this.constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + " needs a no-arg constructor.", e);
+        }
+        List<Field> fields = new ArrayList<>();
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            hierarchy.add(0, clazz);
+        }
+        int fingerprint = 1;
+        for (Class<?> clazz : hierarchy) {
+            List<Field> declared = new ArrayList<>();
+            for (Field field : clazz.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                    declared.add(field);
+                }
+            }
+            declared.sort((a, b) -> a.getName().compareTo(b.getName()));
+            for (Field field : declared) {
+                field.setAccessible(true);
+                fields.add(field);
+                fingerprint = 31 * fingerprint + (field.getName() + ":" + field.getType().getName()).hashCode();
+            }
+        }
+        this.fields = fields.toArray(new Field[0]);
+        this.fingerprint = fingerprint;
+    }
+
+    @Override
+    public void write(DataOutput out, T value) throws IOException {
+        this.write(new ValueCodec(), out, value);
+    }
+
+    @Override
+    public T read(DataInput in) throws IOException {
+        return this.read(new ValueCodec(), in);
+    }
+
+    void write(ValueCodec codec, DataOutput out, T value) throws IOException {
+        out.writeInt(this.fingerprint);
+        try {
+            for (Field field : this.fields) {
+                Class<?> fieldType = field.getType();
+                if (fieldType == int.class) {
+                    out.writeInt(field.getInt(value));
+                } else if (fieldType == long.class) {
+                    out.writeLong(field.getLong(value));
+                } else if (fieldType == double.class) {
+                    out.writeDouble(field.getDouble(value));
+                } else if (fieldType == float.class) {
+                    out.writeFloat(field.getFloat(value));
+                } else if (fieldType == boolean.class) {
+                    out.writeBoolean(field.getBoolean(value));
+                } else if (fieldType == short.class) {
+                    out.writeShort(field.getShort(value));
+                } else if (fieldType == byte.class) {
+                    out.writeByte(field.getByte(value));
+                } else if (fieldType == char.class) {
+                    out.writeChar(field.getChar(value));
+                } else {
+                    codec.write(out, field.get(value));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    T read(ValueCodec codec, DataInput in) throws IOException {
+        int fingerprint = in.readInt();
+        if (fingerprint != this.fingerprint) {
+            throw new InvalidClassException(this.type.getName(), "The fields of the class changed since the value " +
+                    "was written.");
+        }
+        try {
+            T value = this.constructor.newInstance();
+            for (Field field : this.fields) {
+                Class<?> fieldType = field.getType();
+                if (fieldType == int.class) {
+                    field.setInt(value, in.readInt());
+                } else if (fieldType == long.class) {
+                    field.setLong(value, in.readLong());
+                } else if (fieldType == double.class) {
+                    field.setDouble(value, in.readDouble());
+                } else if (fieldType == float.class) {
+                    field.setFloat(value, in.readFloat());
+                } else if (fieldType == boolean.class) {
+                    field.setBoolean(value, in.readBoolean());
+                } else if (fieldType == short.class) {
+                    field.setShort(value, in.readShort());
+                } else if (fieldType == byte.class) {
+                    field.setByte(value, in.readByte());
+                } else if (fieldType == char.class) {
+                    field.setChar(value, in.readChar());
+                } else {
+                    field.set(value, this.adapt(field, codec.read(in)));
+                }
+            }
+            return value;
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Collections and maps are read as ArrayLists, LinkedHashSets and LinkedHashMaps; copies them into the class of
+     * the field if it is more specific, e.g. a TreeMap.
+     */
+    @SuppressWarnings("unchecked")
+    private Object adapt(Field field, Object value) throws IOException {
+        Class<?> fieldType = field.getType();
+        if (value == null || fieldType.isInstance(value)) {
+            return value;
+        }
+        if (!(value instanceof Collection) && !(value instanceof Map) || fieldType.isInterface() ||
+                Modifier.isAbstract(fieldType.getModifiers())) {
+            throw new InvalidClassException(this.type.getName(), "Can't assign a " + value.getClass().getName() +
+                    " to the field " + field.getName() + ".");
+        }
+        try {
+            Object copy = fieldType.getDeclaredConstructor().newInstance();
+            if (copy instanceof Collection && value instanceof Collection) {
+                ((Collection<Object>) copy).addAll((Collection<Object>) value);
+                return copy;
+            }
+            if (copy instanceof Map && value instanceof Map) {
+                ((Map<Object, Object>) copy).putAll((Map<Object, Object>) value);
+                return copy;
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new InvalidClassException(this.type.getName(), "Can't create a " + fieldType.getName() +
+                    " for the field " + field.getName() + ".");
+        }
+        throw new InvalidClassException(this.type.getName(), "Can't assign a " + value.getClass().getName() +
+                " to the field " + field.getName() + ".");
+    }
+}
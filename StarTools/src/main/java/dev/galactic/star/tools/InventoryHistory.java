@@ -0,0 +1,201 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records snapshots of an inventory, e.g. for death logs or rollbacks, writing a full snapshot every few frames and
+ * only the changed slots in between. Store the frames in order; {@link #restore(List, int)} rebuilds any of them from
+ * the full snapshot before it and the deltas after that.
+ * <p>
+ * Only the last frames are kept in memory. When the limit is exceeded the oldest full snapshot is dropped together
+ * with its deltas, so the kept frames always start with a full snapshot without rewriting any frame, and at least
+ * maxFrames - fullSnapshotInterval + 1 frames are kept. Frames returned by {@link #record(Inventory)} aren't
+ * affected by this.
+ */
+public class InventoryHistory {
+    /**
+     * The amount of frames kept by {@link #InventoryHistory(int)}.
+     */
+    public static final int DEFAULT_MAX_FRAMES = 100;
+    private final int fullSnapshotInterval;
+    private final int maxFrames;
+    private final List<byte[]> frames = new ArrayList<>();
+    private ItemStack[] last;
+    private int lastSize;
+    private InventoryType lastType;
+    private int sinceFull;
+
+    /**
+     * Creates an empty history that keeps the last {@value #DEFAULT_MAX_FRAMES} frames.
+     *
+     * @param fullSnapshotInterval Every how many frames a full snapshot is written, 1 to only write full snapshots.
+     */
+    public InventoryHistory(int fullSnapshotInterval) {
+        this(fullSnapshotInterval, DEFAULT_MAX_FRAMES);
+    }
+
+    /**
+     * Creates an empty history.
+     *
+     * @param fullSnapshotInterval Every how many frames a full snapshot is written, 1 to only write full snapshots.
+     *                             At most maxFrames.
+     * @param maxFrames            The amount of frames kept, the oldest are dropped when more are recorded.
+     */
+    public InventoryHistory(int fullSnapshotInterval, int maxFrames) {
+        if (fullSnapshotInterval < 1) {
+            throw new IllegalArgumentException("The full snapshot interval has to be at least 1.");
+        }
+        if (maxFrames < 1) {
+            throw new IllegalArgumentException("The max frames have to be at least 1.");
+        }
+        this.fullSnapshotInterval = Math.min(fullSnapshotInterval, maxFrames);
+        this.maxFrames = maxFrames;
+    }
+
+    /**
+     * Records the current contents of the inventory. The frame is a full snapshot if the interval is reached or the
+     * inventory changed its size or type, else a delta of the previous frame. Drops the oldest full snapshot and its
+     * deltas if the limit is exceeded.
+     *
+     * @param inventory Bukkit Inventory.
+     * @return The frame to store.
+     */
+    public synchronized byte[] record(Inventory inventory) {
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            if (contents[slot] != null) {
+                contents[slot] = contents[slot].clone();
+            }
+        }
+        boolean full = this.last == null || this.sinceFull + 1 >= this.fullSnapshotInterval ||
+                this.lastSize != inventory.getSize() || this.lastType != inventory.getType() ||
+                this.last.length != contents.length;
+        ByteWriter out = BufferPool.acquire(256);
+        byte[] frame;
+        try {
+            if (full) {
+                CompactInventoryFormat.write(inventory, contents, out);
+            } else {
+                CompactInventoryFormat.writeDelta(this.last, inventory, contents, out);
+            }
+            frame = out.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            BufferPool.release(out);
+        }
+        this.frames.add(frame);
+        if (this.frames.size() > this.maxFrames) {
+            this.dropOldestGroup();
+        }
+        this.last = contents;
+        this.lastSize = inventory.getSize();
+        this.lastType = inventory.getType();
+        this.sinceFull = full ? 0 : this.sinceFull + 1;
+        return frame;
+    }
+
+    /**
+     * Removes the oldest full snapshot and the deltas of it. There always is a later full snapshot, as the interval
+     * is at most the amount of frames kept.
+     */
+    private void dropOldestGroup() {
+        int next = 1;
+        while (CompactInventoryFormat.isDelta(this.frames.get(next))) {
+            next++;
+        }
+        this.frames.subList(0, next).clear();
+    }
+
+    /**
+     * Rebuilds the inventory as it was at the frame.
+     *
+     * @param index Index of the kept frame, 0 being the oldest.
+     * @return Bukkit Inventory.
+     */
+    public synchronized Inventory restore(int index) {
+        return restore(this.frames, index);
+    }
+
+    /**
+     * Returns the amount of kept frames.
+     *
+     * @return Size.
+     */
+    public synchronized int size() {
+        return this.frames.size();
+    }
+
+    /**
+     * Returns the kept frames in order, the first being a full snapshot.
+     *
+     * @return Unmodifiable List of the frames.
+     */
+    public synchronized List<byte[]> getFrames() {
+        return Collections.unmodifiableList(new ArrayList<>(this.frames));
+    }
+
+    /**
+     * Rebuilds the inventory as it was at the last of the frames.
+     *
+     * @param frames The frames in the order they were recorded, compressed or not.
+     * @return Bukkit Inventory.
+     */
+    public static Inventory restore(List<byte[]> frames) {
+        return restore(frames, frames.size() - 1);
+    }
+
+    /**
+     * Rebuilds the inventory as it was at the frame, from the full snapshot before it and the deltas after that.
+     *
+     * @param frames The frames in the order they were recorded, compressed or not.
+     * @param index  Index of the frame.
+     * @return Bukkit Inventory.
+     */
+    public static Inventory restore(List<byte[]> frames, int index) {
+        if (index < 0 || index >= frames.size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + frames.size() +
+                    " frames.");
+        }
+        int start = index;
+        byte[] frame = Compression.decompress(frames.get(start));
+        while (CompactInventoryFormat.isDelta(frame)) {
+            if (--start < 0) {
+                throw new IllegalArgumentException("There is no full snapshot before frame " + index + ".");
+            }
+            frame = Compression.decompress(frames.get(start));
+        }
+        try {
+            CompactInventoryFormat.Snapshot snapshot = CompactInventoryFormat.readSnapshot(frame);
+            for (int i = start + 1; i <= index; i++) {
+                snapshot = CompactInventoryFormat.applyDelta(snapshot, Compression.decompress(frames.get(i)));
+            }
+            return snapshot.toInventory();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -20,18 +20,25 @@ import org.bukkit.Bukkit;
 import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.inventory.*;
 import org.bukkit.util.io.BukkitObjectInputStream;
-import org.bukkit.util.io.BukkitObjectOutputStream;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
- * The Class used to serialize Bukkit Inventories and convert it to a byte array or to Base64.
+ * The Class used to serialize Bukkit Inventories and convert it to a byte array or to Base64. Inventories are written
+ * in a compact binary format that only stores the non-empty slots; inventories serialized by earlier versions with
+ * Java serialization are still read.
  *
  * @author PrismoidNW
  */
 public class InventorySerializer {
+    private static final BufferPool.SizeHint SIZE_HINT = new BufferPool.SizeHint(512);
+    private static volatile ItemStackCache itemStackCache;
 
     /**
      * The default constructor. There is no need to instantiate this class.
@@ -42,6 +49,24 @@ public class InventorySerializer {
         throw new InstantiationException("You shouldn't instantiate this class as it is a utility class.");
     }
 
+    /**
+     * Sets the cache of the items read with BukkitObjectInputStream, used by every deserialization afterwards.
+     *
+     * @param cache ItemStackCache, null to disable caching.
+     */
+    public static void setItemStackCache(ItemStackCache cache) {
+        itemStackCache = cache;
+    }
+
+    /**
+     * Returns the cache of the items read with BukkitObjectInputStream.
+     *
+     * @return ItemStackCache, null if caching is disabled.
+     */
+    public static ItemStackCache getItemStackCache() {
+        return itemStackCache;
+    }
+
     /**
      * Converts the Bukkit Inventory into a byte array.
      *
@@ -49,21 +74,123 @@ public class InventorySerializer {
      * @return Byte array.
      */
     public static byte[] serialize(Inventory inventory) {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-             BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream)) {
+        ByteWriter out = BufferPool.acquire(SIZE_HINT);
+        try {
+            serialize(inventory, out);
+            return out.toByteArray();
+        } finally {
+            BufferPool.release(out, SIZE_HINT);
+        }
+    }
+
+    /**
+     * Converts the Bukkit Inventory into a byte array, compressed if it is large enough.
+     *
+     * @param inventory Bukkit Inventory.
+     * @param compress  Whether to compress it.
+     * @return Byte array.
+     * @see Compression
+     */
+    public static byte[] serialize(Inventory inventory, boolean compress) {
+        byte[] data = serialize(inventory);
+        return compress ? Compression.compress(data) : data;
+    }
 
-            dataOutput.writeUTF(getTypeString(inventory));
+    /**
+     * Writes the Bukkit Inventory into the OutputStream, e.g. a {@link ByteWriter} that is reused for many
+     * inventories. The stream is flushed but not closed.
+     *
+     * @param inventory Bukkit Inventory.
+     * @param out       OutputStream.
+     */
+    public static void serialize(Inventory inventory, OutputStream out) {
+        try {
+            CompactInventoryFormat.write(inventory, out);
+            out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-            for (ItemStack item : inventory.getContents()) {
-                dataOutput.writeObject(item);
-            }
+    /**
+     * Serializes many inventories at once, e.g. during an autosave. The contents are copied on the calling thread,
+     * which should be the main thread; serializing and compressing them runs in parallel on the common ForkJoinPool.
+     *
+     * @param inventories Bukkit Inventories.
+     * @param compress    Whether to compress them.
+     * @return CompletableFuture that completes with the byte arrays, in the order of the inventories.
+     */
+    public static CompletableFuture<List<byte[]>> serializeAll(Collection<? extends Inventory> inventories,
+                                                               boolean compress) {
+        return serializeAll(inventories, compress, ForkJoinPool.commonPool());
+    }
 
-            return outputStream.toByteArray();
-        } catch (Exception e) {
+    /**
+     * Serializes many inventories at once on the ForkJoinPool. The contents are copied on the calling thread, which
+     * should be the main thread.
+     *
+     * @param inventories Bukkit Inventories.
+     * @param compress    Whether to compress them.
+     * @param pool        ForkJoinPool that serializes them.
+     * @return CompletableFuture that completes with the byte arrays, in the order of the inventories.
+     */
+    public static CompletableFuture<List<byte[]>> serializeAll(Collection<? extends Inventory> inventories,
+                                                               boolean compress, ForkJoinPool pool) {
+        List<CompactInventoryFormat.Snapshot> snapshots = snapshot(inventories);
+        return CompletableFuture.supplyAsync(() -> snapshots.parallelStream()
+                .map(snapshot -> serialize(snapshot, compress))
+                .collect(Collectors.toList()), pool);
+    }
+
+    /**
+     * Writes only the slots of the Bukkit Inventory that differ from the base contents, e.g. the contents of the
+     * previous snapshot. Rebuild the inventory with {@link #applyDelta(Inventory, byte[])}.
+     *
+     * @param base      The contents the delta is relative to.
+     * @param inventory Bukkit Inventory.
+     * @return Byte array.
+     * @see InventoryHistory
+     */
+    public static byte[] serializeDelta(ItemStack[] base, Inventory inventory) {
+        ByteWriter out = BufferPool.acquire(256);
+        try {
+            CompactInventoryFormat.writeDelta(base, inventory, inventory.getContents(), out);
+            return out.toByteArray();
+        } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            BufferPool.release(out);
         }
     }
 
+    /**
+     * Applies a delta of {@link #serializeDelta(ItemStack[], Inventory)} to the inventory it is relative to.
+     * Compressed deltas are decompressed first.
+     *
+     * @param base  The Bukkit Inventory the delta is relative to, it isn't changed.
+     * @param delta Byte array.
+     * @return A new Bukkit Inventory.
+     */
+    public static Inventory applyDelta(Inventory base, byte[] delta) {
+        CompactInventoryFormat.Snapshot snapshot = new CompactInventoryFormat.Snapshot(base.getSize(),
+                base.getType() == null ? "" : base.getType().name(), base.getContents());
+        try {
+            return CompactInventoryFormat.applyDelta(snapshot, Compression.decompress(delta)).toInventory();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Checks whether the data is a delta rather than a full inventory.
+     *
+     * @param data Byte array, compressed or not.
+     * @return True if it is a delta, else false.
+     */
+    public static boolean isDelta(byte[] data) {
+        return CompactInventoryFormat.isDelta(Compression.decompress(data));
+    }
+
     /**
      * Converts a Bukkit Inventory to Base64 String.
      *
@@ -74,6 +201,66 @@ public class InventorySerializer {
         return Base64.encode(serialize(inventory));
     }
 
+    /**
+     * Converts a Bukkit Inventory to Base64 String, compressed if it is large enough.
+     *
+     * @param inventory Bukkit Inventory.
+     * @param compress  Whether to compress it.
+     * @return String
+     * @see Compression
+     */
+    public static String toBase64(Inventory inventory, boolean compress) {
+        return Base64.encode(serialize(inventory, compress));
+    }
+
+    /**
+     * Converts many inventories to Base64 at once, e.g. during an autosave. The contents are copied on the calling
+     * thread, which should be the main thread; serializing, compressing and encoding them runs in parallel on the
+     * common ForkJoinPool.
+     *
+     * @param inventories Bukkit Inventories.
+     * @param compress    Whether to compress them.
+     * @return CompletableFuture that completes with the Strings, in the order of the inventories.
+     */
+    public static CompletableFuture<List<String>> toBase64All(Collection<? extends Inventory> inventories,
+                                                              boolean compress) {
+        return toBase64All(inventories, compress, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Converts many inventories to Base64 at once on the ForkJoinPool. The contents are copied on the calling thread,
+     * which should be the main thread.
+     *
+     * @param inventories Bukkit Inventories.
+     * @param compress    Whether to compress them.
+     * @param pool        ForkJoinPool that serializes them.
+     * @return CompletableFuture that completes with the Strings, in the order of the inventories.
+     */
+    public static CompletableFuture<List<String>> toBase64All(Collection<? extends Inventory> inventories,
+                                                              boolean compress, ForkJoinPool pool) {
+        List<CompactInventoryFormat.Snapshot> snapshots = snapshot(inventories);
+        return CompletableFuture.supplyAsync(() -> snapshots.parallelStream()
+                .map(snapshot -> Base64.encode(serialize(snapshot, compress)))
+                .collect(Collectors.toList()), pool);
+    }
+
+    /**
+     * Writes a Bukkit Inventory as Base64 into the Writer, e.g. the Writer of a JDBC Clob, without keeping the
+     * serialized bytes in memory. The Writer is flushed but not closed.
+     *
+     * @param inventory Bukkit Inventory.
+     * @param writer    Writer.
+     */
+    public static void toBase64(Inventory inventory, Writer writer) {
+        Base64OutputStream out = new Base64OutputStream(writer, Base64.Variant.STANDARD);
+        serialize(inventory, out);
+        try {
+            out.finish();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
 
     /**
      * Converts a Base64 String into Bukkit inventory.
@@ -86,15 +273,107 @@ public class InventorySerializer {
     }
 
     /**
-     * Converts byte array to Bukkit inventory.
+     * Reads a Bukkit inventory from the Base64 of the Reader, e.g. the Reader of a JDBC Clob. The Reader isn't
+     * closed.
+     *
+     * @param reader Reader.
+     * @return Bukkit Inventory.
+     */
+    public static Inventory fromBase64(Reader reader) {
+        return deserialize(new Base64InputStream(reader));
+    }
+
+    /**
+     * Converts byte array to Bukkit inventory. Compressed data is decompressed first.
      *
      * @param data Byte array.
      * @return Bukkit inventory object.
      */
     public static Inventory deserialize(byte[] data) {
+        data = Compression.decompress(data);
+        try {
+            if (CompactInventoryFormat.isLegacy(data)) {
+                return deserializeLegacy(new ByteArrayInputStream(data));
+            }
+            return CompactInventoryFormat.read(data);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Creates a read-only view of the serialized inventory that decodes slots when they are asked for, e.g. to
+     * count a material in many stored inventories. Compressed data is decompressed first; inventories serialized by
+     * earlier versions with Java serialization are decoded completely and converted.
+     *
+     * @param data Byte array.
+     * @return SerializedInventory.
+     */
+    public static SerializedInventory view(byte[] data) {
+        data = Compression.decompress(data);
+        if (CompactInventoryFormat.isLegacy(data)) {
+            data = serialize(deserializeLegacy(new ByteArrayInputStream(data)));
+        }
+        try {
+            return CompactInventoryFormat.index(data);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Creates a read-only view of the inventory serialized as Base64.
+     *
+     * @param data String.
+     * @return SerializedInventory.
+     * @see #view(byte[])
+     */
+    public static SerializedInventory viewBase64(String data) {
+        return view(Base64.decode(data));
+    }
+
+    /**
+     * Reads a Bukkit inventory from the InputStream, reading it to its end. The stream isn't closed.
+     *
+     * @param in InputStream.
+     * @return Bukkit inventory object.
+     */
+    public static Inventory deserialize(InputStream in) {
+        ByteWriter data = BufferPool.acquire(SIZE_HINT);
         try {
-            ByteArrayInputStream inputStream = new ByteArrayInputStream(data);
-            BukkitObjectInputStream dataInput = new BukkitObjectInputStream(inputStream);
+            data.readFrom(in);
+            return deserialize(data.toByteArray());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            BufferPool.release(data);
+        }
+    }
+
+    private static List<CompactInventoryFormat.Snapshot> snapshot(Collection<? extends Inventory> inventories) {
+        List<CompactInventoryFormat.Snapshot> snapshots = new ArrayList<>(inventories.size());
+        for (Inventory inventory : inventories) {
+            snapshots.add(CompactInventoryFormat.snapshot(inventory));
+        }
+        return snapshots;
+    }
+
+    private static byte[] serialize(CompactInventoryFormat.Snapshot snapshot, boolean compress) {
+        ByteWriter out = BufferPool.acquire(SIZE_HINT);
+        try {
+            CompactInventoryFormat.write(snapshot, out);
+            byte[] data = out.toByteArray();
+            return compress ? Compression.compress(data) : data;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            BufferPool.release(out, SIZE_HINT);
+        }
+    }
+
+    private static Inventory deserializeLegacy(InputStream in) {
+        try {
+            BukkitObjectInputStream dataInput = new BukkitObjectInputStream(in);
             Inventory inventory = Bukkit.getServer().createInventory(null, getType(dataInput.readUTF()));
 
             // Read the serialized inventory
@@ -102,7 +381,6 @@ public class InventorySerializer {
                 inventory.setItem(i, (ItemStack) dataInput.readObject());
             }
 
-            dataInput.close();
             return inventory;
         } catch (IOException | ClassNotFoundException e) {
             throw new RuntimeException(e);
@@ -141,17 +419,4 @@ public class InventorySerializer {
         }
         return null;
     }
-
-    private static String getTypeString(Inventory inventory) {
-        if (inventory instanceof PlayerInventory) return "player";
-        else if (inventory instanceof FurnaceInventory) return "furnace";
-        else if (inventory instanceof CraftingInventory) return "crafting";
-        else if (inventory instanceof EnchantingInventory) return "enchanting";
-        else if (inventory instanceof BrewerInventory) return "brewing";
-        else if (inventory instanceof MerchantInventory) return "merchant";
-        else if (inventory instanceof DoubleChestInventory) return "chest";
-        else if (inventory instanceof AnvilInventory) return "anvil";
-        else if (inventory instanceof BeaconInventory) return "beacon";
-        return null;
-    }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the items that {@link InventorySerializer} reads with BukkitObjectInputStream, e.g. items with
+ * colors, skulls or books. Every such item is written as its own BukkitObjectOutputStream and the cache is addressed
+ * by the SHA-256 of it, so only the first read of an item pays for the deserialization and every later read of the
+ * same item, in any slot of any inventory, gets a clone of the cached one. Enable it with
+ * {@link InventorySerializer#setItemStackCache(ItemStackCache)}.
+ * <p>
+ * Items written without BukkitObjectOutputStream are decoded from the compact format and never cached. Inventories
+ * written by version 1 of the format, which shares one stream between the items, aren't cached either.
+ * <p>
+ * The least recently used entries are evicted once the cache is full. It is safe to use from many threads.
+ */
+public final class ItemStackCache {
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    });
+    private final int maxEntries;
+    private final LinkedHashMap<Key, ItemStack> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries The maximum amount of items to keep.
+     */
+    public ItemStackCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The cache needs room for at least 1 entry.");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, ItemStack>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ItemStack> eldest) {
+                if (this.size() > ItemStackCache.this.maxEntries) {
+                    ItemStackCache.this.evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the decoded item of the encoded bytes, decoding it if it isn't cached. The returned item is shared and
+     * must be cloned before it is handed out.
+     */
+    ItemStack get(byte[] data, int offset, int length) throws IOException, ClassNotFoundException {
+        MessageDigest digest = DIGESTS.get();
+        digest.update(data, offset, length);
+        Key key = new Key(digest.digest());
+        synchronized (this) {
+            ItemStack item = this.entries.get(key);
+            if (item != null) {
+                this.hits++;
+                return item;
+            }
+            this.misses++;
+        }
+        ItemStack item = CompactInventoryFormat.decodeSerializedItem(data, offset, length);
+        synchronized (this) {
+            this.entries.putIfAbsent(key, item);
+        }
+        return item;
+    }
+
+    /**
+     * Returns the maximum amount of entries.
+     *
+     * @return Maximum amount of entries.
+     */
+    public int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    /**
+     * Returns the amount of cached entries.
+     *
+     * @return Size.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns how many times an item was found in the cache.
+     *
+     * @return Hits.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns how many times an item had to be deserialized.
+     *
+     * @return Misses.
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns how many entries were evicted because the cache was full.
+     *
+     * @return Evictions.
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Returns the share of the lookups that were hits.
+     *
+     * @return Hit rate between 0 and 1, 0 if nothing was looked up yet.
+     */
+    public synchronized double getHitRate() {
+        long lookups = this.hits + this.misses;
+        return lookups == 0 ? 0 : (double) this.hits / lookups;
+    }
+
+    /**
+     * Removes every entry and resets the statistics.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.hits = 0;
+        this.misses = 0;
+        this.evictions = 0;
+    }
+
+    private static final class Key {
+        private final byte[] hash;
+        private final int hashCode;
+
+        private Key(byte[] hash) {
+            this.hash = hash;
+            this.hashCode = Arrays.hashCode(hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(this.hash, ((Key) o).hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+}
@@ -19,12 +19,23 @@ package dev.galactic.star.tools;
 import java.io.*;
 
 /**
- * The way to serialize objects. NOTE: The class you want to serialize needs to implement Java's Serializable
- * Interface or else you will get a NotSerializableException.
+ * The way to serialize objects. Values are written with the {@link Serializer}s of {@link Serializers}: strings,
+ * primitives, arrays of primitives and strings, UUIDs, collections and maps are built in, other classes need a no-arg
+ * constructor or a registered Serializer. The data starts with a format byte and version, so it can be told apart
+ * from compressed data and from Java serialized data, which is only written and read if it is allowed with
+ * {@link Serializers#allowJavaSerialization(java.util.function.Predicate)}.
+ * <p>
+ * Data written before this format existed is Java serialized and starts with 0xAC; reading it throws an
+ * InvalidClassException until Java serialization is allowed for its classes. The same goes for writing a
+ * Serializable class without a no-arg constructor, unless a Serializer is registered for it.
  *
  * @author PrismoidNW
  */
 public class ObjectSerializer {
+    private static final int FORMAT = 'O';
+    private static final int VERSION = 1;
+    private static final int JAVA_SERIALIZATION = 0xAC;
+    private static final BufferPool.SizeHint SIZE_HINT = new BufferPool.SizeHint(256);
 
 
     /**
@@ -43,10 +54,46 @@ public class ObjectSerializer {
      * @return Byte array.
      */
     public static byte[] objectToByteArray(Object object) {
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
-             ObjectOutputStream out = new ObjectOutputStream(bos)) {
-            out.writeObject(object);
-            return bos.toByteArray();
+        ByteWriter out = BufferPool.acquire(SIZE_HINT);
+        try {
+            writeObject(object, out);
+            return out.toByteArray();
+        } finally {
+            BufferPool.release(out, SIZE_HINT);
+        }
+    }
+
+    /**
+     * Converts an Object into an array of bytes, compressed if it is large enough.
+     *
+     * @param object   Can be any object.
+     * @param compress Whether to compress it.
+     * @return Byte array.
+     * @see Compression
+     */
+    public static byte[] objectToByteArray(Object object, boolean compress) {
+        byte[] data = objectToByteArray(object);
+        return compress ? Compression.compress(data) : data;
+    }
+
+    /**
+     * Writes an Object into the OutputStream, e.g. a {@link ByteWriter} that is reused for many objects. The stream
+     * is flushed but not closed.
+     *
+     * @param object Can be any object.
+     * @param out    OutputStream.
+     */
+    public static void writeObject(Object object, OutputStream out) {
+        try {
+            if (!ValueCodec.isSupported(object)) {
+                Serializers.writeJava(object, out);
+                return;
+            }
+            DataOutputStream dataOut = new DataOutputStream(out);
+            dataOut.writeByte(FORMAT);
+            dataOut.writeByte(VERSION);
+            new ValueCodec().write(dataOut, object);
+            dataOut.flush();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -62,6 +109,35 @@ public class ObjectSerializer {
         return Base64.encode(objectToByteArray(object));
     }
 
+    /**
+     * Converts an Object to Base64, compressed if it is large enough.
+     *
+     * @param object   Object.
+     * @param compress Whether to compress it.
+     * @return String.
+     * @see Compression
+     */
+    public static String toBase64(Object object, boolean compress) {
+        return Base64.encode(objectToByteArray(object, compress));
+    }
+
+    /**
+     * Writes an Object as Base64 into the Writer, e.g. the Writer of a JDBC Clob, without keeping the serialized
+     * bytes in memory. The Writer is flushed but not closed.
+     *
+     * @param object Object.
+     * @param writer Writer.
+     */
+    public static void toBase64(Object object, Writer writer) {
+        Base64OutputStream out = new Base64OutputStream(writer, Base64.Variant.STANDARD);
+        writeObject(object, out);
+        try {
+            out.finish();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Converts a Base64 String to an Object.
      *
@@ -69,21 +145,54 @@ public class ObjectSerializer {
      * @return Object.
      */
     public static Object fromBase64(String base64Data) {
-        return Base64.decode(base64Data);
+        return byteArrayToObject(Base64.decode(base64Data));
     }
 
     /**
-     * Converts a byte array into an Object.
+     * Converts a byte array into an Object. Compressed data is decompressed first.
      *
      * @param byteArray An array of bytes.
      * @return Object
      */
     public static Object byteArrayToObject(byte[] byteArray) {
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(byteArray);
-             ObjectInputStream in = new ObjectInputStream(bis)) {
-            return in.readObject();
-        } catch (IOException | ClassNotFoundException e) {
+        return readObject(new ByteArrayInputStream(Compression.decompress(byteArray)));
+    }
+
+    /**
+     * Reads an Object from the InputStream, decompressing it if it was compressed. The stream isn't closed.
+     *
+     * @param in InputStream.
+     * @return Object
+     */
+    public static Object readObject(InputStream in) {
+        try {
+            PushbackInputStream pushback = new PushbackInputStream(Compression.decompressing(in), 1);
+            int format = pushback.read();
+            if (format == JAVA_SERIALIZATION) {
+                pushback.unread(format);
+                return Serializers.readJava(pushback);
+            }
+            if (format != FORMAT) {
+                throw new StreamCorruptedException("Unknown format " + format + ".");
+            }
+            DataInputStream dataIn = new DataInputStream(pushback);
+            int version = dataIn.readUnsignedByte();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Unsupported version " + version + ".");
+            }
+            return new ValueCodec().read(dataIn);
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Reads an Object from the Base64 of the Reader, e.g. the Reader of a JDBC Clob. The Reader isn't closed.
+     *
+     * @param reader Reader.
+     * @return Object.
+     */
+    public static Object fromBase64(Reader reader) {
+        return readObject(new Base64InputStream(reader));
+    }
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+
+/**
+ * A read-only view of a serialized inventory that decodes slots when they are asked for, created by
+ * {@link InventorySerializer#view(byte[])}. Creating it only finds the slots in the data; the material and amount
+ * of every slot are known without decoding the item, so {@link #count(Material)} and {@link #first(Material)} don't
+ * decode anything and don't need the server to create an inventory.
+ * <p>
+ * Items with meta that had to be serialized, e.g. colors, skulls or books, are decoded on their own, through the
+ * {@link ItemStackCache} if there is one. In inventories written by version 1 of the format they share one stream
+ * and are read in order up to the one asked for, then kept. A view isn't thread safe.
+ */
+public final class SerializedInventory {
+    private final byte[] data;
+    private final int size;
+    private final String type;
+    private final String[] dictionary;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final Material[] materials;
+    private final int[] amounts;
+    private final int[] serializedIndexes;
+    private final CompactInventoryFormat.SerializedItems serialized;
+
+    SerializedInventory(byte[] data, int size, String type, String[] dictionary, int[] offsets, int[] lengths,
+                        Material[] materials, int[] amounts, int[] serializedIndexes,
+                        CompactInventoryFormat.SerializedItems serialized) {
+        this.data = data;
+        this.size = size;
+        this.type = type;
+        this.dictionary = dictionary;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.materials = materials;
+        this.amounts = amounts;
+        this.serializedIndexes = serializedIndexes;
+        this.serialized = serialized;
+    }
+
+    /**
+     * Returns the size of the inventory.
+     *
+     * @return Size.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the type of the inventory.
+     *
+     * @return InventoryType, null if it is unknown to this server.
+     */
+    public InventoryType getType() {
+        try {
+            return this.type.isEmpty() ? null : InventoryType.valueOf(this.type);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the amount of slots that were serialized, the length of {@link #getContents()}.
+     *
+     * @return Amount of slots.
+     */
+    public int getSlots() {
+        return this.materials.length;
+    }
+
+    /**
+     * Checks whether the slot is empty.
+     *
+     * @param slot The slot.
+     * @return True if it is empty or out of range, else false.
+     */
+    public boolean isEmpty(int slot) {
+        return this.getMaterial(slot) == null;
+    }
+
+    /**
+     * Returns the material in the slot without decoding the item.
+     *
+     * @param slot The slot.
+     * @return Material, null if the slot is empty or out of range.
+     */
+    public Material getMaterial(int slot) {
+        return slot < 0 || slot >= this.materials.length ? null : this.materials[slot];
+    }
+
+    /**
+     * Returns the amount of the item in the slot without decoding it.
+     *
+     * @param slot The slot.
+     * @return Amount, 0 if the slot is empty or out of range.
+     */
+    public int getAmount(int slot) {
+        return this.isEmpty(slot) ? 0 : this.amounts[slot];
+    }
+
+    /**
+     * Decodes the item in the slot. Every call returns a new ItemStack.
+     *
+     * @param slot The slot.
+     * @return ItemStack, null if the slot is empty or out of range.
+     */
+    public ItemStack getItem(int slot) {
+        if (this.isEmpty(slot)) {
+            return null;
+        }
+        try {
+            if (this.serializedIndexes[slot] >= 0) {
+                return this.serialized.get(this.serializedIndexes[slot]);
+            }
+            return CompactInventoryFormat.readItem(new ByteReader(this.data, this.offsets[slot], this.lengths[slot]),
+                    this.dictionary, null);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Counts the items of the material in all slots without decoding them.
+     *
+     * @param material Material.
+     * @return The sum of the amounts.
+     */
+    public int count(Material material) {
+        int count = 0;
+        for (int slot = 0; slot < this.materials.length; slot++) {
+            if (this.materials[slot] == material) {
+                count += this.amounts[slot];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first slot with the material without decoding the items.
+     *
+     * @param material Material.
+     * @return The slot, -1 if there is none.
+     */
+    public int first(Material material) {
+        for (int slot = 0; slot < this.materials.length; slot++) {
+            if (this.materials[slot] == material) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes every slot.
+     *
+     * @return The contents, null for the empty slots.
+     */
+    public ItemStack[] getContents() {
+        ItemStack[] contents = new ItemStack[this.materials.length];
+        for (int slot = 0; slot < contents.length; slot++) {
+            contents[slot] = this.getItem(slot);
+        }
+        return contents;
+    }
+
+    /**
+     * Decodes every slot into a new Bukkit Inventory, like {@link InventorySerializer#deserialize(byte[])}.
+     *
+     * @return Bukkit Inventory.
+     */
+    public Inventory toInventory() {
+        return new CompactInventoryFormat.Snapshot(this.size, this.type, this.getContents()).toInventory();
+    }
+}
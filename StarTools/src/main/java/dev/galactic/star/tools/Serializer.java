@@ -0,0 +1,49 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes and reads the values of a type in a binary form, used by {@link ObjectSerializer} instead of Java
+ * serialization. Register one with {@link Serializers#register(Class, Serializer)}, or let
+ * {@link Serializers#register(Class)} create one from the fields of the class.
+ *
+ * @param <T> Type of the values.
+ */
+public interface Serializer<T> {
+
+    /**
+     * Writes the value.
+     *
+     * @param out   DataOutput to write to.
+     * @param value The value, never null.
+     * @throws IOException If the value can't be written.
+     */
+    void write(DataOutput out, T value) throws IOException;
+
+    /**
+     * Reads a value written by {@link #write(DataOutput, Object)}.
+     *
+     * @param in DataInput to read from.
+     * @return The value.
+     * @throws IOException If the value can't be read.
+     */
+    T read(DataInput in) throws IOException;
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * The registry of the {@link Serializer}s used by {@link ObjectSerializer}.
+ * <p>
+ * Strings, primitives and their wrappers, arrays of primitives and strings, UUIDs, lists, sets and maps are built
+ * in. Classes with a no-arg constructor and enums get a Serializer from their fields the first time they are
+ * written, but are only read if they are registered or were written before in this JVM, so data from elsewhere can't
+ * make the server create arbitrary classes. Register the classes you read with {@link #register(Class)} when your plugin enables.
+ * <p>
+ * Java serialization is disabled unless {@link #allowJavaSerialization(Predicate)} is called; it is then used for
+ * the Serializable values the filter accepts that have no registered Serializer, and to read data stored before the
+ * Serializers existed, checking every class in the stream against the filter.
+ */
+public class Serializers {
+    private static final Set<String> SAFE_JAVA_CLASSES = new HashSet<>(Arrays.asList(
+            "java.lang.String", "java.lang.Number", "java.lang.Integer", "java.lang.Long", "java.lang.Short",
+            "java.lang.Byte", "java.lang.Double", "java.lang.Float", "java.lang.Character", "java.lang.Boolean",
+            "java.lang.Enum", "java.util.ArrayList", "java.util.LinkedList", "java.util.HashMap",
+            "java.util.LinkedHashMap", "java.util.HashSet", "java.util.LinkedHashSet", "java.util.UUID"));
+    private static final Map<Class<?>, Serializer<?>> BY_TYPE = new ConcurrentHashMap<>();
+    private static final Map<String, Class<?>> BY_NAME = new ConcurrentHashMap<>();
+    private static volatile Predicate<String> javaClassFilter;
+
+    /**
+     * The default constructor. There is no need to instantiate this class.
+     *
+     * @throws InstantiationException When you instantiate this class.
+     */
+    public Serializers() throws InstantiationException {
+        throw new InstantiationException("You shouldn't instantiate this class as it is a utility class.");
+    }
+
+    /**
+     * Registers the Serializer of the type, replacing the previous one.
+     *
+     * @param type       Class of the values.
+     * @param serializer Serializer of the values.
+     * @param <T>        Type of the values.
+     */
+    public static <T> void register(Class<T> type, Serializer<T> serializer) {
+        if (serializer == null) {
+            throw new IllegalArgumentException("The serializer can't be null.");
+        }
+        BY_TYPE.put(type, serializer);
+        BY_NAME.put(type.getName(), type);
+    }
+
+    /**
+     * Registers a Serializer created from the fields of the class, or from the constant names if it is an enum. The
+     * fields are written in a fixed order with a fingerprint of their names and types, so values written before a
+     * field was added, removed or changed can't be read anymore.
+     *
+     * @param type Class with a no-arg constructor, or an enum.
+     * @param <T>  Type of the values.
+     * @return The Serializer.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Serializer<T> register(Class<T> type) {
+        Serializer<T> serializer = (Serializer<T>) BY_TYPE.get(type);
+        if (serializer != null) {
+            return serializer;
+        }
+        if (!isEligible(type)) {
+            throw new IllegalArgumentException(type.getName() + " needs a no-arg constructor to be serialized " +
+                    "from its fields.");
+        }
+        serializer = type.isEnum() ? (Serializer<T>) new EnumSerializer(type) : new FieldSerializer<>(type);
+        register(type, serializer);
+        return serializer;
+    }
+
+    /**
+     * Returns the Serializer registered for the type.
+     *
+     * @param type Class of the values.
+     * @param <T>  Type of the values.
+     * @return The Serializer, null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Serializer<T> get(Class<T> type) {
+        return (Serializer<T>) BY_TYPE.get(type);
+    }
+
+    /**
+     * Allows Java serialization for the classes the filter accepts. Pass null to disable it again.
+     *
+     * @param classFilter Accepts the names of the classes that may be read, including those of the fields and super
+     *                    classes in the stream.
+     */
+    public static void allowJavaSerialization(Predicate<String> classFilter) {
+        javaClassFilter = classFilter;
+    }
+
+    /**
+     * Allows Java serialization for the classes in the packages, and for the common classes of java.lang and
+     * java.util that can't run code when read.
+     *
+     * @param packages Package names, e.g. "com.example.plugin.data".
+     */
+    public static void allowJavaSerialization(String... packages) {
+        allowJavaSerialization(name -> {
+            String element = name;
+            while (element.startsWith("[")) {
+                element = element.substring(1);
+            }
+            if (element.length() == 1 || SAFE_JAVA_CLASSES.contains(element)) {
+                return true;
+            }
+            if (element.startsWith("L") && element.endsWith(";")) {
+                element = element.substring(1, element.length() - 1);
+            }
+            if (SAFE_JAVA_CLASSES.contains(element)) {
+                return true;
+            }
+            for (String pkg : packages) {
+                if (element.startsWith(pkg + ".")) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    static boolean isJavaSerializationAllowed(Class<?> type) {
+        Predicate<String> filter = javaClassFilter;
+        return filter != null && Serializable.class.isAssignableFrom(type) && filter.test(type.getName());
+    }
+
+    static void writeJava(Object value, OutputStream out) throws IOException {
+        if (!isJavaSerializationAllowed(value.getClass())) {
+            throw new NotSerializableException(value.getClass().getName() + " has no Serializer, register one " +
+                    "with Serializers.register or allow Java serialization for it.");
+        }
+        ObjectOutputStream objectOut = new ObjectOutputStream(out);
+        objectOut.writeObject(value);
+        objectOut.flush();
+    }
+
+    static Object readJava(InputStream in) throws IOException {
+        Predicate<String> filter = javaClassFilter;
+        if (filter == null) {
+            throw new InvalidClassException("This is Java serialized data, but Java serialization is disabled. " +
+                    "Enable it with Serializers.allowJavaSerialization.");
+        }
+        try {
+            return new FilteredObjectInputStream(in, filter).readObject();
+        } catch (ClassNotFoundException e) {
+            throw new InvalidClassException(e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Serializer<Object> forWriting(Class<?> type) {
+        Serializer<?> serializer = BY_TYPE.get(type);
+        if (serializer == null && isEligible(type) && !isJavaSerializationAllowed(type)) {
+            serializer = register(type);
+        }
+        return (Serializer<Object>) serializer;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Serializer<Object> forReading(String name) throws InvalidClassException {
+        Class<?> type = BY_NAME.get(name);
+        if (type == null) {
+            throw new InvalidClassException(name, "The class isn't registered, register it with " +
+                    "Serializers.register before reading it.");
+        }
+        return (Serializer<Object>) BY_TYPE.get(type);
+    }
+
+    private static boolean isEligible(Class<?> type) {
+        if (type.isEnum()) {
+            return true;
+        }
+        if (type.isInterface() || type.isArray() || type.isPrimitive() || Modifier.isAbstract(type.getModifiers()) ||
+                (type.isMemberClass() && !Modifier.isStatic(type.getModifiers())) || type.isAnonymousClass() ||
+                type.getName().startsWith("java.") || type.getName().startsWith("javax.")) {
+            return false;
+        }
+        try {
+            type.getDeclaredConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static final class EnumSerializer implements Serializer<Object> {
+        private final Class<?> type;
+
+        private EnumSerializer(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public void write(DataOutput out, Object value) throws IOException {
+            ValueCodec.writeString(out, ((Enum<?>) value).name());
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Object read(DataInput in) throws IOException {
+            String name = ValueCodec.readString(in);
+            try {
+                return Enum.valueOf((Class) this.type, name);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidObjectException("Unknown constant " + name + " of " + this.type.getName() + ".");
+            }
+        }
+    }
+
+    private static final class FilteredObjectInputStream extends ObjectInputStream {
+        private final Predicate<String> filter;
+
+        private FilteredObjectInputStream(InputStream in, Predicate<String> filter) throws IOException {
+            super(in);
+            this.filter = filter;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!this.filter.test(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "The class isn't allowed by the Java " +
+                        "serialization filter.");
+            }
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("Proxy classes aren't allowed by the Java serialization filter.");
+        }
+    }
+}
@@ -0,0 +1,510 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The tagged binary form of the values written by {@link ObjectSerializer}. Every value starts with a tag byte;
+ * objects with a {@link Serializer} are written as the class followed by what the Serializer writes. A class name is
+ * only written the first time it occurs, later occurrences refer to it by index, so a codec is used for one value
+ * and what it contains. Values are written as trees; a collection, map or object that contains itself is refused.
+ */
+final class ValueCodec {
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int BYTE = 3;
+    private static final int SHORT = 4;
+    private static final int CHAR = 5;
+    private static final int INT = 6;
+    private static final int LONG = 7;
+    private static final int FLOAT = 8;
+    private static final int DOUBLE = 9;
+    private static final int STRING = 10;
+    private static final int BYTES = 11;
+    private static final int UUID = 12;
+    private static final int LIST = 13;
+    private static final int SET = 14;
+    private static final int MAP = 15;
+    private static final int OBJECT = 16;
+    private static final int JAVA = 17;
+    private static final int INTS = 18;
+    private static final int LONGS = 19;
+    private static final int SHORTS = 20;
+    private static final int CHARS = 21;
+    private static final int FLOATS = 22;
+    private static final int DOUBLES = 23;
+    private static final int BOOLEANS = 24;
+    private static final int STRINGS = 25;
+    private static final int MAX_PREALLOCATED = 1024;
+    private static final int READ_CHUNK = 8192;
+    private final Map<Class<?>, Integer> classIds = new HashMap<>();
+    private final List<Serializer<Object>> classes = new ArrayList<>();
+    private final Set<Object> writing = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Returns whether the value can be written without Java serialization.
+     */
+    static boolean isSupported(Object value) {
+        return value == null || value instanceof String || value instanceof Integer || value instanceof Long ||
+                value instanceof Boolean || value instanceof Double || value instanceof Float ||
+                value instanceof Short || value instanceof Byte || value instanceof Character ||
+                value instanceof java.util.UUID || isSupportedArray(value) || value instanceof Collection ||
+                value instanceof Map || Serializers.forWriting(typeOf(value)) != null;
+    }
+
+    /**
+     * Returns whether the value is an array of a primitive type or of strings.
+     */
+    private static boolean isSupportedArray(Object value) {
+        return value.getClass().isArray() && value.getClass().getComponentType().isPrimitive() ||
+                value instanceof String[];
+    }
+
+    void write(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            writeVarLong(out, zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            writeVarLong(out, zigZag((Long) value));
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHAR);
+            out.writeChar((Character) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(BYTES);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        } else if (isSupportedArray(value)) {
+            writeArray(out, value);
+        } else if (value instanceof java.util.UUID) {
+            java.util.UUID uuid = (java.util.UUID) value;
+            out.writeByte(UUID);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            this.enter(value);
+            try {
+                this.writeComposite(out, value);
+            } finally {
+                this.writing.remove(value);
+            }
+        }
+    }
+
+    private static void writeArray(DataOutput out, Object value) throws IOException {
+        if (value instanceof int[]) {
+            int[] values = (int[]) value;
+            out.writeByte(INTS);
+            writeVarLong(out, values.length);
+            for (int element : values) {
+                writeVarLong(out, zigZag(element));
+            }
+        } else if (value instanceof long[]) {
+            long[] values = (long[]) value;
+            out.writeByte(LONGS);
+            writeVarLong(out, values.length);
+            for (long element : values) {
+                writeVarLong(out, zigZag(element));
+            }
+        } else if (value instanceof short[]) {
+            short[] values = (short[]) value;
+            out.writeByte(SHORTS);
+            writeVarLong(out, values.length);
+            for (short element : values) {
+                out.writeShort(element);
+            }
+        } else if (value instanceof char[]) {
+            char[] values = (char[]) value;
+            out.writeByte(CHARS);
+            writeVarLong(out, values.length);
+            for (char element : values) {
+                out.writeChar(element);
+            }
+        } else if (value instanceof float[]) {
+            float[] values = (float[]) value;
+            out.writeByte(FLOATS);
+            writeVarLong(out, values.length);
+            for (float element : values) {
+                out.writeFloat(element);
+            }
+        } else if (value instanceof double[]) {
+            double[] values = (double[]) value;
+            out.writeByte(DOUBLES);
+            writeVarLong(out, values.length);
+            for (double element : values) {
+                out.writeDouble(element);
+            }
+        } else if (value instanceof boolean[]) {
+            boolean[] values = (boolean[]) value;
+            out.writeByte(BOOLEANS);
+            writeVarLong(out, values.length);
+            for (boolean element : values) {
+                out.writeBoolean(element);
+            }
+        } else {
+            String[] values = (String[]) value;
+            out.writeByte(STRINGS);
+            writeVarLong(out, values.length);
+            for (String element : values) {
+                if (element == null) {
+                    out.writeByte(NULL);
+                } else {
+                    out.writeByte(STRING);
+                    writeString(out, element);
+                }
+            }
+        }
+    }
+
+    private void writeComposite(DataOutput out, Object value) throws IOException {
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            out.writeByte(value instanceof Set ? SET : LIST);
+            writeVarLong(out, collection.size());
+            for (Object element : collection) {
+                this.write(out, element);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            writeVarLong(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                this.write(out, entry.getKey());
+                this.write(out, entry.getValue());
+            }
+        } else {
+            this.writeObject(out, value);
+        }
+    }
+
+    /**
+     * Marks the value as being written, the same value showing up again before it is done means it contains itself
+     * and would be written forever.
+     */
+    private void enter(Object value) throws NotSerializableException {
+        if (!this.writing.add(value)) {
+            throw new NotSerializableException(typeOf(value).getName() + " contains itself, cyclic references " +
+                    "can't be serialized.");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeObject(DataOutput out, Object value) throws IOException {
+        Class<?> type = typeOf(value);
+        Serializer<Object> serializer = Serializers.forWriting(type);
+        if (serializer == null) {
+            ByteArrayOutputStream java = new ByteArrayOutputStream();
+            Serializers.writeJava(value, java);
+            out.writeByte(JAVA);
+            writeVarLong(out, java.size());
+            out.write(java.toByteArray());
+            return;
+        }
+        out.writeByte(OBJECT);
+        Integer id = this.classIds.get(type);
+        if (id == null) {
+            this.classIds.put(type, this.classIds.size() + 1);
+            writeVarLong(out, 0);
+            writeString(out, type.getName());
+        } else {
+            writeVarLong(out, id);
+        }
+        if (serializer instanceof FieldSerializer) {
+            ((FieldSerializer<Object>) serializer).write(this, out, value);
+        } else {
+            serializer.write(out, value);
+        }
+    }
+
+    Object read(DataInput in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case BYTE:
+                return in.readByte();
+            case SHORT:
+                return in.readShort();
+            case CHAR:
+                return in.readChar();
+            case INT:
+                return (int) unZigZag(readVarLong(in));
+            case LONG:
+                return unZigZag(readVarLong(in));
+            case FLOAT:
+                return in.readFloat();
+            case DOUBLE:
+                return in.readDouble();
+            case STRING:
+                return readString(in);
+            case BYTES:
+                return readBytes(in);
+            case UUID:
+                return new java.util.UUID(in.readLong(), in.readLong());
+            case LIST:
+            case SET: {
+                int size = readLength(in);
+                Collection<Object> collection = tag == LIST ? new ArrayList<>(Math.min(size, MAX_PREALLOCATED)) :
+                        new LinkedHashSet<>(Math.min(size, MAX_PREALLOCATED) * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) {
+                    collection.add(this.read(in));
+                }
+                return collection;
+            }
+            case MAP: {
+                int size = readLength(in);
+                Map<Object, Object> map = new LinkedHashMap<>(Math.min(size, MAX_PREALLOCATED) * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) {
+                    map.put(this.read(in), this.read(in));
+                }
+                return map;
+            }
+            case OBJECT:
+                return this.readObject(in);
+            case JAVA:
+                return Serializers.readJava(new ByteArrayInputStream(readBytes(in)));
+            case INTS:
+            case LONGS:
+            case SHORTS:
+            case CHARS:
+            case FLOATS:
+            case DOUBLES:
+            case BOOLEANS:
+            case STRINGS:
+                return readArray(in, tag);
+            default:
+                throw new StreamCorruptedException("Unknown value tag " + tag + ".");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readObject(DataInput in) throws IOException {
+        int id = readLength(in);
+        Serializer<Object> serializer;
+        if (id == 0) {
+            serializer = Serializers.forReading(readString(in));
+            this.classes.add(serializer);
+        } else if (id <= this.classes.size()) {
+            serializer = this.classes.get(id - 1);
+        } else {
+            throw new StreamCorruptedException("Unknown class index " + id + ".");
+        }
+        if (serializer instanceof FieldSerializer) {
+            return ((FieldSerializer<Object>) serializer).read(this, in);
+        }
+        return serializer.read(in);
+    }
+
+    /**
+     * Reads an array of primitives or strings. Like {@link #readBytes(DataInput)}, the array grows while the elements
+     * arrive instead of being allocated from the length up front.
+     */
+    private static Object readArray(DataInput in, int tag) throws IOException {
+        int length = readLength(in);
+        int capacity = Math.min(length, MAX_PREALLOCATED);
+        switch (tag) {
+            case INTS: {
+                int[] values = new int[capacity];
+                for (int i = 0; i < length; i++) {
+                    if (i == values.length) {
+                        values = Arrays.copyOf(values, grow(values.length, length));
+                    }
+                    values[i] = (int) unZigZag(readVarLong(in));
+                }
+                return values;
+            }
+            case LONGS: {
+                long[] values = new long[capacity];
+                for (int i = 0; i < length; i++) {
+                    if (i == values.length) {
+                        values = Arrays.copyOf(values, grow(values.length, length));
+                    }
+                    values[i] = unZigZag(readVarLong(in));
+                }
+                return values;
+            }
+            case SHORTS: {
+                short[] values = new short[capacity];
+                for (int i = 0; i < length; i++) {
+                    if (i == values.length) {
+                        values = Arrays.copyOf(values, grow(values.length, length));
+                    }
+                    values[i] = in.readShort();
+                }
+                return values;
+            }
+            case CHARS: {
+                char[] values = new char[capacity];
+                for (int i = 0; i < length; i++) {
+                    if (i == values.length) {
+                        values = Arrays.copyOf(values, grow(values.length, length));
+                    }
+                    values[i] = in.readChar();
+                }
+                return values;
+            }
+            case FLOATS: {
+                float[] values = new float[capacity];
+                for (int i = 0; i < length; i++) {
+                    if (i == values.length) {
+                        values = Arrays.copyOf(values, grow(values.length, length));
+                    }
+                    values[i] = in.readFloat();
+                }
+                return values;
+            }
+            case DOUBLES: {
+                double[] values = new double[capacity];
+                for (int i = 0; i < length; i++) {
+                    if (i == values.length) {
+                        values = Arrays.copyOf(values, grow(values.length, length));
+                    }
+                    values[i] = in.readDouble();
+                }
+                return values;
+            }
+            case BOOLEANS: {
+                boolean[] values = new boolean[capacity];
+                for (int i = 0; i < length; i++) {
+                    if (i == values.length) {
+                        values = Arrays.copyOf(values, grow(values.length, length));
+                    }
+                    values[i] = in.readBoolean();
+                }
+                return values;
+            }
+            default: {
+                String[] values = new String[capacity];
+                for (int i = 0; i < length; i++) {
+                    if (i == values.length) {
+                        values = Arrays.copyOf(values, grow(values.length, length));
+                    }
+                    int elementTag = in.readUnsignedByte();
+                    if (elementTag == STRING) {
+                        values[i] = readString(in);
+                    } else if (elementTag != NULL) {
+                        throw new StreamCorruptedException("Unknown string array element tag " + elementTag + ".");
+                    }
+                }
+                return values;
+            }
+        }
+    }
+
+    private static int grow(int capacity, int length) {
+        return (int) Math.min(length, capacity * 2L);
+    }
+
+    /**
+     * Returns the class the value is written as, the enum itself for constants with a body.
+     */
+    private static Class<?> typeOf(Object value) {
+        return value instanceof Enum ? ((Enum<?>) value).getDeclaringClass() : value.getClass();
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a length and that many bytes. The array grows while the bytes arrive, so a corrupt length fails at the
+     * end of the data instead of allocating it up front.
+     */
+    private static byte[] readBytes(DataInput in) throws IOException {
+        int length = readLength(in);
+        byte[] bytes = new byte[Math.min(length, READ_CHUNK)];
+        int read = 0;
+        while (read < length) {
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, grow(bytes.length, length));
+            }
+            in.readFully(bytes, read, bytes.length - read);
+            read = bytes.length;
+        }
+        return bytes;
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("The varint is too long.");
+    }
+
+    private static int readLength(DataInput in) throws IOException {
+        long length = readVarLong(in);
+        if (length < 0 || length > Integer.MAX_VALUE - 8) {
+            throw new StreamCorruptedException("Invalid length " + length + ".");
+        }
+        return (int) length;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
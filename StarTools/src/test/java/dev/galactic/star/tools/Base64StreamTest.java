@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Base64StreamTest {
+    private static final int[] CHUNKS = {1, 2, 3, 7, 57, 1000, 20000};
+
+    @Test
+    void chunkedWrites() throws IOException {
+        byte[] data = random(20000);
+        for (Base64.Variant variant : Base64.Variant.values()) {
+            String expected = jdkEncoder(variant).encodeToString(data);
+            for (int chunk : CHUNKS) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (Base64OutputStream out = new Base64OutputStream(bytes, variant)) {
+                    write(out, data, chunk);
+                }
+                assertEquals(expected, new String(bytes.toByteArray(), StandardCharsets.US_ASCII),
+                        variant + " " + chunk);
+
+                StringWriter writer = new StringWriter();
+                Base64OutputStream out = new Base64OutputStream(writer, variant);
+                write(out, data, chunk);
+                out.finish();
+                assertEquals(expected, writer.toString(), variant + " " + chunk);
+            }
+        }
+    }
+
+    @Test
+    void singleBytes() throws IOException {
+        byte[] data = random(100);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Base64OutputStream out = new Base64OutputStream(bytes)) {
+            for (byte b : data) {
+                out.write(b);
+            }
+        }
+        assertEquals(java.util.Base64.getEncoder().encodeToString(data), bytes.toString("US-ASCII"));
+    }
+
+    @Test
+    void flushAndFinish() throws IOException {
+        StringWriter writer = new StringWriter();
+        Base64OutputStream out = new Base64OutputStream(writer, Base64.Variant.STANDARD);
+        out.write(new byte[]{1, 2, 3, 4});
+        out.flush();
+        assertEquals("AQID", writer.toString());
+        out.finish();
+        assertEquals("AQIDBA==", writer.toString());
+        out.finish();
+        assertEquals("AQIDBA==", writer.toString());
+        assertThrows(IOException.class, () -> out.write(5));
+    }
+
+    @Test
+    void chunkedReads() throws IOException {
+        byte[] data = random(20000);
+        for (Base64.Variant variant : Base64.Variant.values()) {
+            String encoded = jdkEncoder(variant).encodeToString(data);
+            for (int chunk : CHUNKS) {
+                InputStream in = new Base64InputStream(new ByteArrayInputStream(
+                        encoded.getBytes(StandardCharsets.US_ASCII)));
+                assertArrayEquals(data, read(in, chunk), variant + " " + chunk);
+                assertArrayEquals(data, read(new Base64InputStream(new StringReader(encoded)), chunk),
+                        variant + " " + chunk);
+            }
+        }
+    }
+
+    @Test
+    void singleByteReads() throws IOException {
+        byte[] data = random(100);
+        InputStream in = new Base64InputStream(new StringReader(java.util.Base64.getEncoder().encodeToString(data)));
+        for (byte b : data) {
+            assertEquals(b & 0xFF, in.read());
+        }
+        assertEquals(-1, in.read());
+        assertEquals(0, in.read(new byte[4], 0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> in.read(new byte[4], 2, 3));
+    }
+
+    @Test
+    void channels() throws IOException {
+        byte[] data = random(10000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Base64.encodingChannel(Channels.newChannel(bytes), Base64.Variant.MIME)) {
+            channel.write(ByteBuffer.wrap(data));
+        }
+        assertEquals(java.util.Base64.getMimeEncoder().encodeToString(data), bytes.toString("US-ASCII"));
+
+        ReadableByteChannel channel = Base64.decodingChannel(Channels.newChannel(
+                new ByteArrayInputStream(bytes.toByteArray())));
+        assertArrayEquals(data, read(Channels.newInputStream(channel), 4096));
+    }
+
+    @Test
+    void nullSource() {
+        assertThrows(IllegalArgumentException.class, () -> new Base64InputStream((InputStream) null));
+        assertThrows(IllegalArgumentException.class, () -> new Base64OutputStream((OutputStream) null));
+    }
+
+    private static java.util.Base64.Encoder jdkEncoder(Base64.Variant variant) {
+        switch (variant) {
+            case URL_SAFE:
+                return java.util.Base64.getUrlEncoder();
+            case MIME:
+                return java.util.Base64.getMimeEncoder();
+            default:
+                return java.util.Base64.getEncoder();
+        }
+    }
+
+    private static void write(OutputStream out, byte[] data, int chunk) throws IOException {
+        for (int off = 0; off < data.length; off += chunk) {
+            out.write(data, off, Math.min(chunk, data.length - off));
+        }
+    }
+
+    private static byte[] read(InputStream in, int chunk) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[chunk];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] random(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+}
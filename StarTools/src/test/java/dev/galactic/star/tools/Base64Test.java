@@ -0,0 +1,101 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Base64Test {
+    private static final int[] LENGTHS = {0, 1, 2, 3, 4, 5, 56, 57, 58, 100, 1000, 4096};
+
+    @Test
+    void standard() {
+        for (int length : LENGTHS) {
+            byte[] data = random(length);
+            String expected = java.util.Base64.getEncoder().encodeToString(data);
+            assertEquals(expected, Base64.encode(data));
+            assertEquals(expected, Base64.encode(data, Base64.Variant.STANDARD));
+            assertArrayEquals(data, Base64.decode(expected));
+        }
+    }
+
+    @Test
+    void urlSafe() {
+        for (int length : LENGTHS) {
+            byte[] data = random(length);
+            String expected = java.util.Base64.getUrlEncoder().encodeToString(data);
+            assertEquals(expected, Base64.encode(data, Base64.Variant.URL_SAFE));
+            assertArrayEquals(data, Base64.decode(expected));
+        }
+    }
+
+    @Test
+    void mime() {
+        for (int length : LENGTHS) {
+            byte[] data = random(length);
+            String expected = java.util.Base64.getMimeEncoder().encodeToString(data);
+            assertEquals(expected, Base64.encode(data, Base64.Variant.MIME));
+            assertEquals(expected.length(), Base64.encodedLength(length, Base64.Variant.MIME));
+            assertArrayEquals(data, Base64.decode(expected));
+        }
+    }
+
+    @Test
+    void bytes() {
+        for (int length : LENGTHS) {
+            byte[] data = random(length);
+            byte[] expected = java.util.Base64.getEncoder().encode(data);
+            assertArrayEquals(expected, Base64.encodeToBytes(data));
+            assertArrayEquals(data, Base64.decode(expected));
+            assertArrayEquals(data, Base64.decode(ByteBuffer.wrap(expected)));
+        }
+        byte[] data = random(30);
+        assertArrayEquals(java.util.Base64.getEncoder().encode(slice(data, 5, 20)),
+                Base64.encodeToBytes(data, 5, 20, Base64.Variant.STANDARD));
+        byte[] encoded = Base64.encodeToBytes(data);
+        byte[] padded = new byte[encoded.length + 6];
+        System.arraycopy(encoded, 0, padded, 3, encoded.length);
+        assertArrayEquals(data, Base64.decode(padded, 3, encoded.length));
+    }
+
+    @Test
+    void lenient() {
+        byte[] data = "Hello, World!?".getBytes(StandardCharsets.UTF_8);
+        String standard = Base64.encode(data);
+        assertArrayEquals(data, Base64.decode(standard.replace("=", "")));
+        assertArrayEquals(data, Base64.decode(" " + standard.substring(0, 8) + "\r\n" + standard.substring(8)));
+        assertArrayEquals(random(600), Base64.decode(java.util.Base64.getMimeEncoder().encodeToString(random(600))));
+        assertEquals(0, Base64.decode("").length);
+    }
+
+    private static byte[] random(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    private static byte[] slice(byte[] data, int offset, int length) {
+        byte[] slice = new byte[length];
+        System.arraycopy(data, offset, slice, 0, length);
+        return slice;
+    }
+}
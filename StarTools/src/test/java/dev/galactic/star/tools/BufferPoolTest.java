@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BufferPoolTest {
+
+    @AfterEach
+    void clear() {
+        BufferPool.clear();
+    }
+
+    @Test
+    void reuse() {
+        ByteWriter buffer = BufferPool.acquire(100);
+        buffer.write(new byte[50], 0, 50);
+        byte[] array = buffer.buffer();
+        BufferPool.release(buffer);
+
+        ByteWriter reused = BufferPool.acquire(10);
+        assertSame(array, reused.buffer());
+        assertEquals(0, reused.size());
+        BufferPool.release(reused);
+    }
+
+    @Test
+    void nested() {
+        ByteWriter outer = BufferPool.acquire(64);
+        ByteWriter inner = BufferPool.acquire(64);
+        assertNotSame(outer.buffer(), inner.buffer());
+        BufferPool.release(inner);
+        BufferPool.release(outer);
+    }
+
+    @Test
+    void grows() {
+        BufferPool.release(BufferPool.acquire(16));
+        ByteWriter buffer = BufferPool.acquire(1000);
+        assertTrue(buffer.capacity() >= 1000);
+        BufferPool.release(buffer);
+    }
+
+    @Test
+    void limits() {
+        ByteWriter large = BufferPool.acquire(512 << 10);
+        BufferPool.release(large);
+        assertNotSame(large.buffer(), BufferPool.acquire(16).buffer());
+        BufferPool.clear();
+
+        ByteWriter[] buffers = new ByteWriter[5];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = BufferPool.acquire(16);
+        }
+        for (ByteWriter buffer : buffers) {
+            BufferPool.release(buffer);
+        }
+        for (int i = buffers.length - 2; i >= 0; i--) {
+            assertSame(buffers[i].buffer(), BufferPool.acquire(16).buffer());
+        }
+        assertNotSame(buffers[4].buffer(), BufferPool.acquire(16).buffer());
+        BufferPool.clear();
+
+        ByteWriter first = BufferPool.acquire(200 << 10);
+        ByteWriter second = BufferPool.acquire(100 << 10);
+        BufferPool.release(first);
+        BufferPool.release(second);
+        assertSame(first.buffer(), BufferPool.acquire(16).buffer());
+        assertNotSame(second.buffer(), BufferPool.acquire(16).buffer());
+    }
+
+    @Test
+    void cleared() {
+        ByteWriter buffer = BufferPool.acquire(64);
+        BufferPool.release(buffer);
+        BufferPool.clear();
+        assertNotSame(buffer.buffer(), BufferPool.acquire(64).buffer());
+    }
+
+    @Test
+    void sizeHint() {
+        BufferPool.SizeHint hint = new BufferPool.SizeHint(100);
+        assertEquals(125, hint.get());
+        for (int i = 0; i < 100; i++) {
+            hint.record(1000);
+        }
+        assertTrue(hint.get() > 1000);
+    }
+}
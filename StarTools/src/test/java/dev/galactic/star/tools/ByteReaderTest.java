@@ -0,0 +1,150 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ByteReaderTest {
+
+    @Test
+    void varInts() throws IOException {
+        int[] values = {0, 1, 127, 128, 300, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        ByteWriter writer = new ByteWriter(0);
+        for (int value : values) {
+            writer.writeVarInt(value);
+        }
+        ByteReader reader = new ByteReader(writer.toByteArray());
+        for (int value : values) {
+            assertEquals(value, reader.readVarInt());
+        }
+        assertEquals(0, reader.remaining());
+    }
+
+    @Test
+    void varIntSizes() {
+        assertEquals(1, varIntSize(127));
+        assertEquals(2, varIntSize(128));
+        assertEquals(3, varIntSize(16384));
+        assertEquals(5, varIntSize(-1));
+    }
+
+    @Test
+    void zigZag() throws IOException {
+        int[] values = {0, -1, 1, -64, 63, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        ByteWriter writer = new ByteWriter(0);
+        for (int value : values) {
+            writer.writeZigZag(value);
+        }
+        assertArrayEquals(new byte[]{0, 1, 2, 127, 126}, Arrays.copyOf(writer.toByteArray(), 5));
+        ByteReader reader = new ByteReader(writer.toByteArray());
+        for (int value : values) {
+            assertEquals(value, reader.readZigZag());
+        }
+    }
+
+    @Test
+    void strings() throws IOException {
+        ByteWriter writer = new ByteWriter(0);
+        writer.writeString("");
+        writer.writeString("Diamond Sword");
+        writer.writeString("§c❤ 😀");
+        ByteReader reader = new ByteReader(writer.toByteArray());
+        assertEquals("", reader.readString());
+        assertEquals("Diamond Sword", reader.readString());
+        assertEquals("§c❤ 😀", reader.readString());
+        assertEquals(0, reader.remaining());
+    }
+
+    @Test
+    void offsetAndLength() throws IOException {
+        byte[] data = {9, 1, 2, 9};
+        ByteReader reader = new ByteReader(data, 1, 2);
+        assertEquals(1, reader.readByte());
+        assertEquals(2, reader.readByte());
+        assertThrows(EOFException.class, reader::readByte);
+    }
+
+    @Test
+    void truncated() {
+        assertThrows(EOFException.class, () -> new ByteReader(new byte[]{(byte) 0x80}).readVarInt());
+        ByteWriter writer = new ByteWriter(0);
+        writer.writeString("truncated");
+        byte[] data = Arrays.copyOf(writer.toByteArray(), 4);
+        assertThrows(EOFException.class, () -> new ByteReader(data).readString());
+        assertThrows(EOFException.class, () -> new ByteReader(data).skip(5));
+    }
+
+    @Test
+    void tooLongVarInt() {
+        byte[] data = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0};
+        assertThrows(StreamCorruptedException.class, () -> new ByteReader(data).readVarInt());
+    }
+
+    @Test
+    void counts() throws IOException {
+        ByteWriter writer = new ByteWriter(0);
+        writer.writeVarInt(2);
+        writer.write(0);
+        writer.write(0);
+        assertEquals(2, new ByteReader(writer.toByteArray()).readCount());
+
+        writer.reset();
+        writer.writeVarInt(Integer.MAX_VALUE);
+        assertThrows(StreamCorruptedException.class, () -> new ByteReader(writer.toByteArray()).readCount());
+
+        writer.reset();
+        writer.writeVarInt(-1);
+        assertThrows(StreamCorruptedException.class, () -> new ByteReader(writer.toByteArray()).readCount());
+    }
+
+    @Test
+    void oversizedDictionary() {
+        ByteWriter writer = new ByteWriter(0);
+        writer.write('S');
+        writer.write('I');
+        writer.write(CompactInventoryFormat.VERSION);
+        writer.writeVarInt(9);
+        writer.writeString("CHEST");
+        writer.writeVarInt(9);
+        writer.writeVarInt(Integer.MAX_VALUE);
+        assertThrows(StreamCorruptedException.class, () -> CompactInventoryFormat.index(writer.toByteArray()));
+
+        writer.reset();
+        writer.write('S');
+        writer.write('I');
+        writer.write(CompactInventoryFormat.VERSION);
+        writer.writeVarInt(9);
+        writer.writeString("CHEST");
+        writer.writeVarInt(-8);
+        assertThrows(StreamCorruptedException.class, () -> CompactInventoryFormat.index(writer.toByteArray()));
+    }
+
+    private static int varIntSize(int value) {
+        ByteWriter writer = new ByteWriter(0);
+        writer.writeVarInt(value);
+        return writer.size();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressionTest {
+
+    @Test
+    void belowThreshold() {
+        byte[] data = repeated(Compression.DEFAULT_THRESHOLD - 1);
+        byte[] framed = Compression.compress(data);
+        assertFalse(Compression.isCompressed(framed));
+        assertEquals(data.length + 1, framed.length);
+        assertArrayEquals(data, Compression.decompress(framed));
+    }
+
+    @Test
+    void aboveThreshold() throws IOException {
+        byte[] data = repeated(Compression.DEFAULT_THRESHOLD);
+        byte[] framed = Compression.compress(data);
+        assertTrue(Compression.isCompressed(framed));
+        assertTrue(framed.length < data.length);
+        assertArrayEquals(data, Compression.decompress(framed));
+        assertArrayEquals(data, readAll(Compression.decompressing(new ByteArrayInputStream(framed))));
+    }
+
+    @Test
+    void customThreshold() {
+        byte[] data = repeated(64);
+        assertTrue(Compression.isCompressed(Compression.compress(data, 16)));
+        assertFalse(Compression.isCompressed(Compression.compress(data, 65)));
+    }
+
+    @Test
+    void incompressible() throws IOException {
+        byte[] data = new byte[1024];
+        new Random(1).nextBytes(data);
+        byte[] framed = Compression.compress(data);
+        assertFalse(Compression.isCompressed(framed));
+        assertArrayEquals(data, Compression.decompress(framed));
+        assertArrayEquals(data, readAll(Compression.decompressing(new ByteArrayInputStream(framed))));
+    }
+
+    @Test
+    void codecBytes() throws IOException {
+        byte[] deflate = {(byte) 0xF1, 5, 1, 2};
+        assertArrayEquals(deflate, Compression.decompress(Compression.compress(deflate)));
+        assertArrayEquals(deflate, readAll(Compression.decompressing(
+                new ByteArrayInputStream(Compression.compress(deflate)))));
+        byte[] stored = {(byte) 0xF0, 1, 2, 3};
+        assertArrayEquals(stored, Compression.decompress(Compression.compress(stored)));
+    }
+
+    @Test
+    void unframed() throws IOException {
+        byte[] data = {'O', 1, 10, 0};
+        assertSame(data, Compression.decompress(data));
+        assertArrayEquals(data, readAll(Compression.decompressing(new ByteArrayInputStream(data))));
+        assertEquals(0, Compression.decompress(new byte[0]).length);
+    }
+
+    @Test
+    void corrupted() {
+        byte[] framed = Compression.compress(repeated(1024));
+        assertThrows(RuntimeException.class, () -> Compression.decompress(Arrays.copyOf(framed, framed.length - 4)));
+        byte[] huge = {(byte) 0xF1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0};
+        assertThrows(RuntimeException.class, () -> Compression.decompress(huge));
+    }
+
+    private static byte[] repeated(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i % 7);
+        }
+        return data;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
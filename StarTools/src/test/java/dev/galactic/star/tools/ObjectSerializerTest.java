@@ -0,0 +1,237 @@
+/*
+ * Copyright 2023 Galactic Star Studios
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.galactic.star.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectSerializerTest {
+
+    @Test
+    void builtInValues() {
+        assertNull(roundTrip(null));
+        assertEquals(Boolean.FALSE, roundTrip(false));
+        assertEquals(Boolean.TRUE, roundTrip(true));
+        assertEquals(Byte.valueOf((byte) -7), roundTrip((byte) -7));
+        assertEquals(Short.valueOf((short) 300), roundTrip((short) 300));
+        assertEquals(Character.valueOf('§'), roundTrip('§'));
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE), roundTrip(Integer.MIN_VALUE));
+        assertEquals(Long.valueOf(-1L), roundTrip(-1L));
+        assertEquals(Float.valueOf(1.5F), roundTrip(1.5F));
+        assertEquals(Double.valueOf(Double.NaN), roundTrip(Double.NaN));
+        assertEquals("Hello ❤", roundTrip("Hello ❤"));
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) roundTrip(new byte[]{1, 2, 3}));
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, roundTrip(uuid));
+    }
+
+    @Test
+    void arrays() {
+        assertArrayEquals(new int[]{0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE},
+                (int[]) roundTrip(new int[]{0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE}));
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 300L}, (long[]) roundTrip(new long[]{Long.MIN_VALUE, 300L}));
+        assertArrayEquals(new short[]{-2, 7}, (short[]) roundTrip(new short[]{-2, 7}));
+        assertArrayEquals(new char[]{'a', '§'}, (char[]) roundTrip(new char[]{'a', '§'}));
+        assertArrayEquals(new float[]{1.5F, Float.NaN}, (float[]) roundTrip(new float[]{1.5F, Float.NaN}));
+        assertArrayEquals(new double[]{-0.0, 2.25}, (double[]) roundTrip(new double[]{-0.0, 2.25}));
+        assertArrayEquals(new boolean[]{true, false}, (boolean[]) roundTrip(new boolean[]{true, false}));
+        assertArrayEquals(new String[]{"a", null, "❤"}, (String[]) roundTrip(new String[]{"a", null, "❤"}));
+        assertEquals(0, ((int[]) roundTrip(new int[0])).length);
+
+        int[] large = new int[5000];
+        Arrays.setAll(large, i -> i * 31);
+        assertArrayEquals(large, (int[]) roundTrip(large));
+
+        byte[] corrupt = {'O', 1, 19, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x03};
+        RuntimeException e = assertThrows(RuntimeException.class, () -> ObjectSerializer.byteArrayToObject(corrupt));
+        assertInstanceOf(EOFException.class, e.getCause());
+    }
+
+    @Test
+    void collections() {
+        List<Object> list = Arrays.asList(1, "two", null, 3L);
+        assertEquals(list, roundTrip(list));
+        Set<String> set = new LinkedHashSet<>(Arrays.asList("a", "b"));
+        assertEquals(set, roundTrip(set));
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("coins", 5);
+        map.put("names", Arrays.asList("a", "b"));
+        assertEquals(map, roundTrip(map));
+    }
+
+    @Test
+    void sharedValues() {
+        List<String> shared = Arrays.asList("a", "b");
+        List<Object> list = Arrays.asList(shared, shared);
+        assertEquals(list, roundTrip(list));
+    }
+
+    @Test
+    void fields() {
+        PlayerData data = new PlayerData();
+        data.name = "Steve";
+        data.coins = 10;
+        data.flying = true;
+        data.homes = new TreeMap<>();
+        data.homes.put("base", 1);
+        data.homes.put("arena", 2);
+        data.friends = new ArrayList<>(Collections.singletonList(UUID.randomUUID()));
+        data.rank = Rank.ADMIN;
+        data.cached = 7;
+        data.scores = new int[]{3, 1, 2};
+        data.titles = new String[]{"Hero"};
+        PlayerData read = (PlayerData) roundTrip(data);
+        assertEquals(data.name, read.name);
+        assertEquals(data.coins, read.coins);
+        assertEquals(data.flying, read.flying);
+        assertInstanceOf(TreeMap.class, read.homes);
+        assertEquals(data.homes, read.homes);
+        assertEquals(data.friends, read.friends);
+        assertSame(Rank.ADMIN, read.rank);
+        assertEquals(5, read.cached);
+        assertArrayEquals(data.scores, read.scores);
+        assertArrayEquals(data.titles, read.titles);
+    }
+
+    @Test
+    void enumWithBody() {
+        assertNotSame(Rank.class, Rank.ADMIN.getClass());
+        assertSame(Rank.ADMIN, roundTrip(Rank.ADMIN));
+        assertSame(Rank.MEMBER, roundTrip(Rank.MEMBER));
+    }
+
+    @Test
+    void fingerprintMismatch() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new FieldSerializer<>(Point.class).write(new DataOutputStream(bytes), new Point());
+        DataInput in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertThrows(InvalidClassException.class, () -> new FieldSerializer<>(Point3.class).read(in));
+    }
+
+    @Test
+    void unregisteredClass() throws IOException {
+        assertThrows(InvalidClassException.class, () -> Serializers.forReading("com.example.Unknown"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte('O');
+        out.writeByte(1);
+        out.writeByte(16);
+        out.writeByte(0);
+        ValueCodec.writeString(out, "com.example.Unknown");
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> ObjectSerializer.byteArrayToObject(bytes.toByteArray()));
+        assertInstanceOf(InvalidClassException.class, e.getCause());
+    }
+
+    @Test
+    void corruptLength() {
+        byte[] data = {'O', 1, 10, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x03};
+        RuntimeException e = assertThrows(RuntimeException.class, () -> ObjectSerializer.byteArrayToObject(data));
+        assertInstanceOf(EOFException.class, e.getCause());
+
+        byte[] bytes = new byte[20000];
+        new Random(1).nextBytes(bytes);
+        assertArrayEquals(bytes, (byte[]) roundTrip(bytes));
+    }
+
+    @Test
+    void cycles() {
+        List<Object> list = new ArrayList<>();
+        list.add(list);
+        RuntimeException e = assertThrows(RuntimeException.class, () -> ObjectSerializer.objectToByteArray(list));
+        assertInstanceOf(NotSerializableException.class, e.getCause());
+
+        Node node = new Node();
+        node.next = new Node();
+        node.next.next = node;
+        e = assertThrows(RuntimeException.class, () -> ObjectSerializer.objectToByteArray(node));
+        assertInstanceOf(NotSerializableException.class, e.getCause());
+    }
+
+    @Test
+    void javaSerialization() throws IOException {
+        byte[] date = javaSerialize(new Date(0));
+        byte[] uuids = javaSerialize(new ArrayList<>(Collections.singletonList(UUID.randomUUID())));
+        try {
+            Serializers.allowJavaSerialization((Predicate<String>) null);
+            RuntimeException e = assertThrows(RuntimeException.class, () -> ObjectSerializer.byteArrayToObject(uuids));
+            assertInstanceOf(InvalidClassException.class, e.getCause());
+
+            Serializers.allowJavaSerialization("dev.galactic.star");
+            e = assertThrows(RuntimeException.class, () -> ObjectSerializer.byteArrayToObject(date));
+            assertInstanceOf(InvalidClassException.class, e.getCause());
+            assertEquals(1, ((List<?>) ObjectSerializer.byteArrayToObject(uuids)).size());
+        } finally {
+            Serializers.allowJavaSerialization((Predicate<String>) null);
+        }
+    }
+
+    private static Object roundTrip(Object value) {
+        return ObjectSerializer.byteArrayToObject(ObjectSerializer.objectToByteArray(value));
+    }
+
+    private static byte[] javaSerialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    public enum Rank {
+        MEMBER,
+        ADMIN {
+            @Override
+            public String toString() {
+                return "Admin";
+            }
+        }
+    }
+
+    public static class PlayerData {
+        private String name;
+        private int coins;
+        private boolean flying;
+        private TreeMap<String, Integer> homes;
+        private List<UUID> friends;
+        private Rank rank;
+        private transient int cached = 5;
+        private int[] scores;
+        private String[] titles;
+    }
+
+    public static class Point {
+        private int x;
+        private int y;
+    }
+
+    public static class Point3 {
+        private int x;
+        private int y;
+        private int z;
+    }
+
+    public static class Node {
+        private Node next;
+    }
+}